@@ -0,0 +1,34 @@
+package org.example.commands;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Команда 'add_batch' - добавляет несколько новых элементов в коллекцию за один запрос.
+ * Наследует функциональность от абстрактного класса Command и реализует
+ * интерфейс Serializable для поддержки сериализации.
+ *
+ * <p>Группы передаются в {@link org.example.network.Request#getMusicBands()};
+ * сервер добавляет их в одной транзакции и возвращает ID в том же порядке.</p>
+ */
+public class AddBatch extends Command implements Serializable {
+
+    /**
+     * Уникальный идентификатор версии сериализации.
+     */
+    @Serial
+    private static final long serialVersionUID = 1354L;
+
+    /**
+     * Конструктор команды add_batch.
+     * Инициализирует команду с параметрами:
+     * - имя команды: "add_batch"
+     * - описание: добавление нескольких элементов
+     * - флаг hasArgs: false (группы передаются в запросе)
+     */
+    public AddBatch() {
+        super("add_batch",
+                "add_batch {elements} : добавить несколько новых элементов в коллекцию",
+                false);
+    }
+}
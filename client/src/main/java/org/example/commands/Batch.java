@@ -0,0 +1,35 @@
+package org.example.commands;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Команда 'batch' - выполняет несколько команд за один запрос к серверу.
+ * Наследует функциональность от абстрактного класса Command и реализует
+ * интерфейс Serializable для поддержки сериализации.
+ *
+ * <p>Вложенные запросы передаются в {@link org.example.network.Request#getRequests()}
+ * и выполняются сервером по порядку; ответы на них возвращаются
+ * в {@link org.example.network.Response#getResponses()} в том же порядке.</p>
+ */
+public class Batch extends Command implements Serializable {
+
+    /**
+     * Уникальный идентификатор версии сериализации.
+     */
+    @Serial
+    private static final long serialVersionUID = 1353L;
+
+    /**
+     * Конструктор команды batch.
+     * Инициализирует команду с параметрами:
+     * - имя команды: "batch"
+     * - описание: выполнение нескольких команд за один запрос
+     * - флаг hasArgs: false (команды передаются вложенными запросами)
+     */
+    public Batch() {
+        super("batch",
+                "batch : выполнить несколько команд за один запрос",
+                false);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.commands;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Команда 'changes_since' - запрашивает изменения коллекции после известной клиенту ревизии.
+ * Наследует функциональность от абстрактного класса Command и реализует
+ * интерфейс Serializable для поддержки сериализации.
+ *
+ * <p>Аргумент команды - ревизия типа long; ревизия 0 запрашивает всю коллекцию.</p>
+ * <p>Сервер возвращает только добавленные, измененные и удаленные элементы,
+ * либо полный снимок коллекции, если разницу построить нельзя.</p>
+ */
+public class ChangesSince extends Command implements Serializable {
+
+    /**
+     * Уникальный идентификатор версии сериализации.
+     */
+    @Serial
+    private static final long serialVersionUID = 1351L;
+
+    /**
+     * Конструктор команды changes_since.
+     * Инициализирует команду с параметрами:
+     * - имя команды: "changes_since"
+     * - описание: получение изменений коллекции
+     * - флаг hasArgs: true (команда требует ревизию)
+     */
+    public ChangesSince() {
+        super("changes_since",
+                "changes_since revision : получить изменения коллекции после указанной ревизии",
+                true);
+    }
+}
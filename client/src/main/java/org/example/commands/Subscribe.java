@@ -0,0 +1,35 @@
+package org.example.commands;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Команда 'subscribe' - подписывает соединение клиента на изменения коллекции.
+ * Наследует функциональность от абстрактного класса Command и реализует
+ * интерфейс Serializable для поддержки сериализации.
+ *
+ * <p>После подписки сервер сам присылает каждое изменение коллекции
+ * с идентификатором корреляции {@link org.example.network.FrameCodec#PUSH_CORRELATION_ID}.</p>
+ * <p>Подписка действует до разрыва соединения.</p>
+ */
+public class Subscribe extends Command implements Serializable {
+
+    /**
+     * Уникальный идентификатор версии сериализации.
+     */
+    @Serial
+    private static final long serialVersionUID = 1352L;
+
+    /**
+     * Конструктор команды subscribe.
+     * Инициализирует команду с параметрами:
+     * - имя команды: "subscribe"
+     * - описание: подписка на изменения коллекции
+     * - флаг hasArgs: false (команда не требует дополнительных аргументов)
+     */
+    public Subscribe() {
+        super("subscribe",
+                "subscribe : получать уведомления об изменениях коллекции",
+                false);
+    }
+}
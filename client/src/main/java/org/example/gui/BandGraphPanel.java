@@ -276,7 +276,8 @@ public class BandGraphPanel extends JPanel {
             return;
         }
 
-        updateTimer = new Timer(3000, e -> {
+        // Изменения приходят уведомлениями сервера, таймер лишь страхует от пропущенных
+        updateTimer = new Timer(15000, e -> {
             commandManager.updateTableData();
         });
         updateTimer.start();
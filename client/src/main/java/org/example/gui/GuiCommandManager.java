@@ -14,6 +14,8 @@ import java.io.FileNotFoundException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class GuiCommandManager {
     private MainFrame mainFrame;
@@ -22,6 +24,17 @@ public class GuiCommandManager {
     private BandGraphPanel graphPanel;
     private JLabel commandsTitleLabel;
 
+    // Локальная копия коллекции, синхронизируемая по ревизиям через changes_since
+    // и уведомления сервера. Изменяется только в потоке syncExecutor.
+    private final Map<Long, MusicBand> syncedBands = new LinkedHashMap<>();
+    private long syncedRevision;
+    private long subscribedEpoch = -1;
+    private final ExecutorService syncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gui-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public GuiCommandManager(MainFrame mainFrame, MainMenu mainMenu) {
         this.mainFrame = mainFrame;
         this.mainMenu = mainMenu;
@@ -448,6 +461,10 @@ public class GuiCommandManager {
                         return;
                     }
 
+                    // Команды скрипта отправляются пакетами, а не отдельным запросом на каждую строку;
+                    // подряд идущие add объединяются в один add_batch
+                    List<Request> requests = new ArrayList<>();
+                    List<MusicBand> added = null;
                     try (Scanner scriptScanner = new Scanner(scriptFile)) {
                         while (scriptScanner.hasNextLine()) {
                             String line = scriptScanner.nextLine().trim();
@@ -459,17 +476,24 @@ public class GuiCommandManager {
                             if (commandName.equals("add")) {
                                 MusicBand band = new MusicBandsBuilder(currentUser).create();
                                 band.setUserLogin(currentUser.getLogin());
-                                Response response = mainFrame.getRequestManager().getClient().sendRequest(
-                                        new Request(new Add(), band, currentUser)
-                                );
+                                if (added == null || added.size() == Client.BATCH_SIZE) {
+                                    added = new ArrayList<>();
+                                    requests.add(new Request(new AddBatch(), added, currentUser));
+                                }
+                                added.add(band);
                             } else {
-                                Response response = mainFrame.getRequestManager().getClient().sendRequest(
-                                        new Request(getCommandByName(commandName), currentUser)
-                                );
+                                added = null;
+                                requests.add(new Request(getCommandByName(commandName), currentUser));
                             }
                         }
                     }
 
+                    if (mainFrame.getRequestManager().getClient().sendBatch(requests, currentUser) == null) {
+                        SwingUtilities.invokeLater(() ->
+                                showErrorDialog(mainFrame.getLocalizedString("error.no_response")));
+                        return;
+                    }
+
                     SwingUtilities.invokeLater(() -> {
                         showResponseDialog(mainFrame.getLocalizedString("success.script"));
                         updateTableData();
@@ -518,11 +542,13 @@ public class GuiCommandManager {
                 Response response = mainFrame.getRequestManager().getClient().sendRequest(
                         new Request(command, mainFrame.getUser())
                 );
+                // дочитываем потоковый ответ здесь, а не в потоке интерфейса
+                String result = response != null ? response.getFullResult() : null;
 
                 SwingUtilities.invokeLater(() -> {
                     if (response != null) {
                         if (response.getLoginError() == null) {
-                            showResponseDialog(response.getResult());
+                            showResponseDialog(result);
                             if (commandName.equals("Clear") || commandName.equals("Shuffle") ||
                                     commandName.equals("RemoveFirst")) {
                                 updateTableData();
@@ -555,39 +581,98 @@ public class GuiCommandManager {
     }
 
     public void updateTableData() {
-        new Thread(() -> {
+        syncExecutor.execute(() -> {
             try {
-                if(mainFrame.getUser() != null) {
-                    Response response = mainFrame.getRequestManager().getClient().sendRequest(
-                            new Request(new Show(), mainFrame.getUser())
-                    );
-
-                    if (response.getMusicBands() != null) {
-                        List<MusicBand> bands = new ArrayList<>((Collection<MusicBand>) response.getMusicBands());
-
-                        bands.forEach(b -> {
-                            if (b.getUserLogin() == null) {
-                                b.setUserLogin("unknown");
-                            }
-                        });
-
-                        SwingUtilities.invokeLater(() -> {
-                            if (mainMenu.getTablePanel() != null) {
-                                mainMenu.getTablePanel().updateTable(bands);
-                            }
-                            if (mainMenu.getGraphPanel() != null) {
-                                mainMenu.getGraphPanel().updateGraph(bands);
-                            }
-                        });
-                    }
-                } else {
-                    updateTableData();
+                if (mainFrame.getUser() != null) {
+                    subscribe();
+                    showBands(syncBands());
                 }
             } catch (Exception ex) {
                 SwingUtilities.invokeLater(() ->
                         showErrorDialog(mainFrame.getLocalizedString("error.load_data") + ex.getMessage()));
             }
-        }).start();
+        });
+    }
+
+    private void showBands(List<MusicBand> bands) {
+        if (bands == null) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (mainMenu.getTablePanel() != null) {
+                mainMenu.getTablePanel().updateTable(bands);
+            }
+            if (mainMenu.getGraphPanel() != null) {
+                mainMenu.getGraphPanel().updateGraph(bands);
+            }
+        });
+    }
+
+    // Подписывается на уведомления, если текущее соединение еще не подписано.
+    // Подписка пропадает при переподключении, поэтому проверяется при каждой синхронизации.
+    private void subscribe() throws InterruptedException {
+        Client client = mainFrame.getRequestManager().getClient();
+        if (subscribedEpoch == client.getConnectionEpoch() && client.isConnected()) {
+            return;
+        }
+        client.setPushListener(event -> syncExecutor.execute(() -> applyPush(event)));
+        Response response = client.sendRequest(new Request(new Subscribe(), mainFrame.getUser()));
+        if (response != null && response.getOperationflag()) {
+            subscribedEpoch = client.getConnectionEpoch();
+        }
+    }
+
+    // Применяет уведомление сервера. Следующая по порядку ревизия применяется сразу,
+    // пропуск ревизий или изменение без разницы (shuffle, clear) догоняется через changes_since.
+    private void applyPush(Response event) {
+        try {
+            if (mainFrame.getUser() == null || event.getRevision() <= syncedRevision) {
+                return;
+            }
+            if (event.isSnapshot() || event.getRevision() != syncedRevision + 1) {
+                showBands(syncBands());
+                return;
+            }
+            applyChanges(event);
+            syncedRevision = event.getRevision();
+            showBands(new ArrayList<>(syncedBands.values()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Запрашивает изменения после известной ревизии и применяет их к локальной копии.
+    // Возвращает новое содержимое коллекции или null, если с прошлого раза ничего не изменилось.
+    private List<MusicBand> syncBands() throws InterruptedException {
+        Response response = mainFrame.getRequestManager().getClient().sendRequest(
+                new Request(new ChangesSince(), syncedRevision, mainFrame.getUser())
+        );
+        if (response == null || response.getRevision() == 0) {
+            return null;
+        }
+        if (response.isSnapshot()) {
+            syncedBands.clear();
+        } else if (response.getRevision() == syncedRevision) {
+            return null;
+        }
+
+        applyChanges(response);
+        syncedRevision = response.getRevision();
+        return new ArrayList<>(syncedBands.values());
+    }
+
+    private void applyChanges(Response response) {
+        if (response.getIds() != null) {
+            response.getIds().forEach(syncedBands::remove);
+        }
+        if (response.getMusicBands() != null) {
+            for (MusicBand band : response.getMusicBands()) {
+                if (band.getUserLogin() == null) {
+                    band.setUserLogin("unknown");
+                }
+                syncedBands.put(band.getId(), band);
+            }
+        }
     }
 
     public void updateBandOnServer(MusicBand band) {
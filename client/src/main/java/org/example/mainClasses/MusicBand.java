@@ -178,6 +178,10 @@ public class MusicBand implements Validatable, Comparable<MusicBand>, Serializab
         this.establishmentDate = establishmentDate;
     }
 
+    public Date getEstablishmentDate() {
+        return establishmentDate;
+    }
+
     public void setGenre(MusicGenre genre) {
         this.genre = genre;
     }
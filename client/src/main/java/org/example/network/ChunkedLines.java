@@ -0,0 +1,148 @@
+package org.example.network;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Строки потокового ответа сервера, которые приходят частями.
+ * Поток чтения ответов добавляет полученные части, а получатель ответа читает строки итератором,
+ * не дожидаясь конца передачи.
+ *
+ * <p>Поток чтения ответов никогда не ждет получателя: части накапливаются в неограниченной очереди,
+ * поэтому ответы на другие запросы того же соединения приходят, даже если строки не читаются.
+ * Получатель, которому строки больше не нужны, вызывает {@link #close()}: очередь очищается,
+ * а следующие части ответа отбрасываются сразу при получении.</p>
+ */
+public class ChunkedLines implements Iterator<String>, AutoCloseable {
+
+    /** Признак конца потока в очереди частей */
+    private static final List<String> END = List.of();
+
+    /** Полученные части */
+    private final BlockingQueue<List<String>> chunks = new LinkedBlockingQueue<>();
+
+    /** Текущая часть */
+    private Iterator<String> current = END.iterator();
+
+    /** Достигнут ли конец потока */
+    private boolean ended;
+
+    /** Отказался ли получатель от строк */
+    private volatile boolean closed;
+
+    /** Ошибка, прервавшая поток, или null */
+    private volatile String error;
+
+    /**
+     * Добавляет полученную часть. Вызывается потоком чтения ответов и не блокируется.
+     *
+     * @param lines строки части
+     * @return false если получатель отказался от строк и часть отброшена
+     */
+    boolean addChunk(List<String> lines) {
+        if (closed) {
+            return false;
+        }
+        if (!lines.isEmpty()) {
+            chunks.offer(lines);
+        }
+        if (closed) {
+            // получатель закрыл поток во время добавления
+            chunks.clear();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Отмечает конец потока. Вызывается потоком чтения ответов и не блокируется.
+     *
+     * @param error текст ошибки, прервавшей поток, или null при успешном завершении
+     */
+    void finish(String error) {
+        this.error = error;
+        chunks.offer(END);
+    }
+
+    /**
+     * Прерывает поток при разрыве соединения; непрочитанные части отбрасываются.
+     *
+     * @param error причина разрыва
+     */
+    void fail(String error) {
+        this.error = error;
+        chunks.clear();
+        chunks.offer(END);
+    }
+
+    /**
+     * Проверяет, отказался ли получатель от строк.
+     *
+     * @return true после {@link #close()}
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Отказывается от непрочитанных строк. Полученные части отбрасываются,
+     * а следующие части ответа не сохраняются; итератор после этого пуст.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ended = true;
+        current = END.iterator();
+        chunks.clear();
+    }
+
+    /**
+     * Проверяет, есть ли еще строки, ожидая следующую часть при необходимости.
+     *
+     * @return true если есть следующая строка
+     * @throws UncheckedIOException если поток прерван ошибкой сервера или разрывом соединения
+     */
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (ended) {
+                return false;
+            }
+            List<String> chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new IOException("Чтение ответа прервано", e));
+            }
+            if (chunk == END) {
+                ended = true;
+                if (error != null) {
+                    throw new UncheckedIOException(new IOException(error));
+                }
+                return false;
+            }
+            current = chunk.iterator();
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает следующую строку.
+     *
+     * @return строка ответа
+     * @throws NoSuchElementException если строки закончились
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+}
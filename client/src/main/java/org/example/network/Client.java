@@ -1,20 +1,42 @@
 package org.example.network;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import org.example.commands.Batch;
+import org.example.commands.Login;
+
+import java.io.*;
 import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Клиент для взаимодействия с сервером по сети.
  * Обеспечивает установку соединения, отправку запросов и получение ответов.
+ * Все запросы идут через одно долгоживущее соединение, ответы сопоставляются
+ * с запросами по идентификатору корреляции, а уведомления сервера передаются
+ * получателю уведомлений.
  * Поддерживает механизм повторного подключения при разрыве соединения.
  */
 public class Client {
 
+    /** Максимальное количество запросов в одном пакете */
+    public static final int BATCH_SIZE = 1000;
+
+    /** Максимальное время ожидания ответа сервера в миллисекундах */
+    private static final long RESPONSE_TIMEOUT = 60000;
+
     /** Порт сервера */
     private int port;
 
@@ -27,18 +49,30 @@ public class Client {
     /** Канал сокета для соединения */
     private SocketChannel socket;
 
-    /** Поток вывода для отправки объектов */
-    private ObjectOutputStream writer;
+    /** Поток вывода для отправки кадров */
+    private DataOutputStream writer;
 
-    /** Поток ввода для получения объектов */
-    private ObjectInputStream reader;
+    /** Поток ввода для получения кадров */
+    private DataInputStream reader;
 
     /** Текущее количество попыток переподключения */
     private int reconnectionAttempts;
 
+    /** Запросы текущего соединения, ожидающие ответа (идентификатор корреляции -> ответ) */
+    private Map<Long, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+
+    /** Генератор идентификаторов корреляции */
+    private final AtomicLong nextCorrelationId = new AtomicLong(1);
+
     /** Максимальное количество попыток переподключения */
     private int maxReconnectionAttempts;
 
+    /** Номер текущего соединения; увеличивается при каждом подключении */
+    private long connectionEpoch;
+
+    /** Получатель уведомлений сервера или null */
+    private volatile Consumer<Response> pushListener;
+
     /**
      * Конструктор клиента.
      *
@@ -55,71 +89,305 @@ public class Client {
     }
 
     /**
-     * Устанавливает соединение с сервером.
-     * Создает сокетное соединение и инициализирует потоки ввода/вывода.
+     * Устанавливает соединение с сервером, если оно еще не установлено.
+     * Создает сокетное соединение, инициализирует потоки ввода/вывода
+     * и запускает поток чтения ответов.
      */
-    public void connect() {
+    public synchronized void connect() {
+        if (isConnected()) {
+            return;
+        }
         try {
             socket = SocketChannel.open();
             socket.connect(new InetSocketAddress(host,port));
-            writer = new ObjectOutputStream(socket.socket().getOutputStream());
-            reader = new ObjectInputStream(socket.socket().getInputStream());
+            writer = new DataOutputStream(new BufferedOutputStream(socket.socket().getOutputStream()));
+            reader = new DataInputStream(new BufferedInputStream(socket.socket().getInputStream()));
+            pending = new ConcurrentHashMap<>();
+            connectionEpoch++;
+
+            SocketChannel channel = socket;
+            DataInputStream in = reader;
+            Map<Long, CompletableFuture<Response>> waiting = pending;
+            Thread readerThread = new Thread(() -> readResponses(channel, in, waiting), "client-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
         } catch (IOException e) {
             System.err.println("Ошибка подключения к серверу");
+            writer = null;
+            reader = null;
         }
     }
 
+    /**
+     * Проверяет, открыто ли соединение с сервером.
+     *
+     * @return true если соединение установлено
+     */
+    public synchronized boolean isConnected() {
+        return socket != null && socket.isConnected() && socket.isOpen() && writer != null;
+    }
+
+    /**
+     * Возвращает номер текущего соединения.
+     * Подписки действуют только в пределах одного соединения, поэтому по изменению номера
+     * можно понять, что подписку нужно оформить заново.
+     *
+     * @return номер соединения
+     */
+    public synchronized long getConnectionEpoch() {
+        return connectionEpoch;
+    }
+
+    /**
+     * Устанавливает получателя уведомлений сервера.
+     * Получатель вызывается в потоке чтения ответов, поэтому не должен ждать ответов сервера.
+     *
+     * @param pushListener получатель уведомлений или null
+     */
+    public void setPushListener(Consumer<Response> pushListener) {
+        this.pushListener = pushListener;
+    }
+
     /**
      * Закрывает соединение с сервером.
      * Освобождает ресурсы сокета и потоков ввода/вывода.
      */
-    public void disconnect() {
+    public synchronized void disconnect() {
         try {
-            socket.close();
-            reader.close();
-            writer.close();
+            if (socket != null) {
+                socket.close();
+            }
         } catch (IOException e) {
             System.err.println("Не подключено к серверу");
+        } finally {
+            socket = null;
+            writer = null;
+            reader = null;
         }
     }
 
     /**
      * Отправляет запрос серверу и получает ответ.
+     * Запрос передается по общему долгоживущему соединению, поэтому метод
+     * можно вызывать одновременно из нескольких потоков.
      * Поддерживает механизм повторного подключения при ошибках.
+     * Токен сессии из ответа на вход запоминается в пользователе запроса;
+     * если сессия истекла, вход повторяется с сохраненным паролем и запрос отправляется снова.
+     * Если сервер не ответил за {@link #RESPONSE_TIMEOUT} мс, соединение считается разорванным.
      *
      * @param request запрос для отправки
      * @return ответ от сервера или null при невозможности установить соединение
      * @throws InterruptedException если поток был прерван во время ожидания
      */
     public Response sendRequest(Request request) throws InterruptedException {
-        this.connect();
         for (int reconnectionAttempts = 0; reconnectionAttempts < maxReconnectionAttempts; reconnectionAttempts++) {
             try {
+                this.connect();
                 if (Objects.isNull(writer) || Objects.isNull(reader)) throw new IOException();
                 if (request.getCommand() == null & !(request.getArgs() == ("exit")))
                     System.err.println("Запрос пуст, введите команду");
 
-                writer.writeObject(request);
-                writer.flush();
-                Response response = (Response) reader.readObject();
-                this.disconnect();
+                Response response = send(request).get(RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS);
+                User user = request.getUser();
+                if (user == null) {
+                    return response;
+                }
+                if (response.getToken() != null) {
+                    user.setToken(response.getToken());
+                } else if (response.getLoginError() == LoginError.SESSION_EXPIRED && user.getPassword() != null) {
+                    user.setToken(null);
+                    Response login = send(new Request(new Login(), user)).get(RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (login.getToken() != null) {
+                        user.setToken(login.getToken());
+                        response = send(request).get(RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS);
+                    }
+                }
                 return response;
 
-            } catch (IOException e) {
-                if (reconnectionAttempts >= maxReconnectionAttempts) {
+            } catch (IOException | ExecutionException | TimeoutException e) {
+                if (e instanceof TimeoutException) {
+                    System.err.println("Сервер не ответил за " + RESPONSE_TIMEOUT / 1000 + " секунд");
+                }
+                if (reconnectionAttempts + 1 >= maxReconnectionAttempts) {
                     break;
                 }
                 System.err.println("Рекконект через: " + timeout/1000 + " секунд");
+                this.disconnect();
                 Thread.sleep(timeout);
-                this.connect();
-
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException(e);
-            } catch (NullPointerException e) {
-                System.out.println("Не получилось подключиться, завершение работы...");
-                System.exit(0);
             }
         }
+        System.out.println("Не получилось подключиться к серверу");
         return null;
     }
+
+    /**
+     * Отправляет запрос, не дожидаясь ответа.
+     * Запросы, отправленные подряд, обрабатываются сервером одновременно на одном соединении,
+     * поэтому порядок их выполнения не гарантируется.
+     * Токен сессии из ответа запоминается в пользователе запроса;
+     * переподключение и повторный вход не выполняются.
+     *
+     * @param request запрос для отправки
+     * @return future с ответом сервера; завершается с ошибкой, если запрос не удалось отправить
+     *         или соединение разорвано до получения ответа
+     */
+    public CompletableFuture<Response> sendAsync(Request request) {
+        this.connect();
+        try {
+            return send(request).thenApply(response -> {
+                User user = request.getUser();
+                if (user != null && response.getToken() != null) {
+                    user.setToken(response.getToken());
+                }
+                return response;
+            });
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Выполняет запросы пакетами по {@link #BATCH_SIZE} штук.
+     * Каждый пакет - один обмен с сервером; следующий пакет отправляется после ответа на предыдущий,
+     * поэтому запросы выполняются в переданном порядке.
+     * Если пакет отклонен целиком (например, не удалось войти заново), ответ на пакет
+     * возвращается для каждого его запроса.
+     *
+     * @param requests запросы в порядке выполнения
+     * @param user пользователь, от имени которого выполняются запросы
+     * @return ответы в порядке запросов или null при невозможности установить соединение
+     * @throws InterruptedException если поток был прерван во время ожидания
+     */
+    public List<Response> sendBatch(List<Request> requests, User user) throws InterruptedException {
+        List<Response> responses = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += BATCH_SIZE) {
+            List<Request> chunk = requests.subList(from, Math.min(from + BATCH_SIZE, requests.size()));
+            Response response = sendRequest(new Request(new Batch(), chunk, user));
+            if (response == null) {
+                return null;
+            }
+            responses.addAll(response.getResponses() != null
+                    ? response.getResponses()
+                    : Collections.nCopies(chunk.size(), response));
+        }
+        return responses;
+    }
+
+    /**
+     * Записывает запрос в соединение и регистрирует ожидание ответа.
+     *
+     * @param request запрос для отправки
+     * @return future, который завершится ответом сервера
+     * @throws IOException если запрос не удалось отправить
+     */
+    private CompletableFuture<Response> send(Request request) throws IOException {
+        long correlationId = nextCorrelationId.getAndIncrement();
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        ByteBuffer frame = ProtocolCodec.encodeRequest(correlationId, request);
+        synchronized (this) {
+            if (!isConnected()) throw new IOException("Нет соединения с сервером");
+            pending.put(correlationId, future);
+            try {
+                writer.write(frame.array(), 0, frame.limit());
+                writer.flush();
+            } catch (IOException e) {
+                pending.remove(correlationId);
+                throw e;
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Читает ответы сервера и передает каждый ответ ожидающему его запросу,
+     * а уведомления - получателю уведомлений.
+     * Ответ с заголовком потока передается сразу, а его строки добавляются
+     * в {@link ChunkedLines} по мере получения частей. Поток чтения не ждет получателя строк:
+     * части потока, который никто не ждет или от которого получатель отказался, отбрасываются.
+     * Ошибка получателя уведомлений не прерывает чтение. При разрыве соединения или ответе,
+     * который не удалось разобрать, соединение закрывается, а все ожидающие запросы и потоки
+     * завершаются с ошибкой.
+     *
+     * @param channel канал соединения
+     * @param in поток ввода соединения
+     * @param waiting запросы этого соединения, ожидающие ответа
+     */
+    private void readResponses(SocketChannel channel, DataInputStream in,
+                               Map<Long, CompletableFuture<Response>> waiting) {
+        Map<Long, ChunkedLines> streams = new HashMap<>();
+        try {
+            while (true) {
+                FrameCodec.Input frame = FrameCodec.openFrame(readFrame(in));
+                long correlationId = frame.getCorrelationId();
+                if (frame.getKind() == FrameCodec.KIND_CHUNK) {
+                    List<String> chunk = new ArrayList<>();
+                    String line;
+                    while ((line = frame.readString()) != null) {
+                        chunk.add(line);
+                    }
+                    ChunkedLines lines = streams.get(correlationId);
+                    if (lines != null && !lines.addChunk(chunk)) {
+                        streams.remove(correlationId);
+                    }
+                    continue;
+                }
+                if (frame.getKind() == FrameCodec.KIND_END) {
+                    ChunkedLines lines = streams.remove(correlationId);
+                    String error = frame.readString();
+                    if (lines != null) {
+                        lines.finish(error);
+                    }
+                    continue;
+                }
+                Response response = ProtocolCodec.decodeResponse(frame);
+                if (correlationId == FrameCodec.PUSH_CORRELATION_ID) {
+                    Consumer<Response> listener = pushListener;
+                    if (listener != null) {
+                        try {
+                            listener.accept(response);
+                        } catch (RuntimeException e) {
+                            System.err.println("Ошибка обработки уведомления: " + e.getMessage());
+                        }
+                    }
+                    continue;
+                }
+                CompletableFuture<Response> future = waiting.remove(correlationId);
+                if (future == null) {
+                    continue;
+                }
+                if (frame.getKind() == FrameCodec.KIND_STREAM) {
+                    ChunkedLines lines = new ChunkedLines();
+                    streams.put(correlationId, lines);
+                    response.setLines(lines);
+                }
+                future.complete(response);
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                if (socket == channel) {
+                    disconnect();
+                }
+            }
+            streams.values().forEach(lines -> lines.fail("Соединение с сервером разорвано"));
+            waiting.values().forEach(future -> future.completeExceptionally(e));
+            waiting.clear();
+        }
+    }
+
+    /**
+     * Читает из сокета один кадр и возвращает его тело.
+     *
+     * @param reader поток ввода соединения
+     * @return тело кадра
+     * @throws IOException если соединение разорвано или размер кадра недопустим
+     */
+    private byte[] readFrame(DataInputStream reader) throws IOException {
+        int length = reader.readInt();
+        if (length < 0 || length > FrameCodec.MAX_FRAME_SIZE) {
+            throw new IOException("Недопустимый размер кадра: " + length);
+        }
+        byte[] body = new byte[length];
+        reader.readFully(body);
+        return body;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+package org.example.network;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Кодек кадров для передачи сообщений по сети.
+ * Каждый кадр состоит из 4-байтовой длины и тела сообщения,
+ * что позволяет собирать сообщения из неблокирующего канала по частям.
+ * Тело начинается с байта версии протокола, 8-байтового идентификатора корреляции,
+ * по которому клиент сопоставляет ответы с запросами внутри одного долгоживущего соединения,
+ * и байта вида кадра.
+ *
+ * <p>Большой ответ передается потоком: кадр {@link #KIND_STREAM} с заголовком ответа,
+ * кадры {@link #KIND_CHUNK} со строками результата ограниченного размера и кадр {@link #KIND_END}.
+ * Все кадры потока несут идентификатор корреляции запроса.</p>
+ */
+public class FrameCodec {
+
+    /** Размер заголовка кадра (длина тела) в байтах */
+    public static final int HEADER_SIZE = 4;
+
+    /** Размер идентификатора корреляции в теле кадра */
+    public static final int CORRELATION_SIZE = 8;
+
+    /** Текущая версия бинарного протокола */
+    public static final byte PROTOCOL_VERSION = 7;
+
+    /** Вид кадра: запрос, ответ или уведомление целиком */
+    public static final byte KIND_MESSAGE = 0;
+
+    /** Вид кадра: заголовок потокового ответа */
+    public static final byte KIND_STREAM = 1;
+
+    /** Вид кадра: часть потокового ответа - строки, завершенные строкой null */
+    public static final byte KIND_CHUNK = 2;
+
+    /** Вид кадра: завершение потокового ответа с текстом ошибки или null */
+    public static final byte KIND_END = 3;
+
+    /** Идентификатор корреляции кадров, которые сервер отправляет по своей инициативе */
+    public static final long PUSH_CORRELATION_ID = 0;
+
+    /** Максимально допустимый размер тела кадра */
+    public static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Начинает запись нового кадра.
+     *
+     * @param correlationId идентификатор, связывающий запрос и ответ
+     * @return поток для записи содержимого кадра
+     * @throws IOException при ошибке записи заголовка
+     */
+    public static Output newFrame(long correlationId) throws IOException {
+        return newFrame(correlationId, KIND_MESSAGE);
+    }
+
+    /**
+     * Начинает запись нового кадра заданного вида.
+     *
+     * @param correlationId идентификатор, связывающий запрос и ответ
+     * @param kind вид кадра
+     * @return поток для записи содержимого кадра
+     * @throws IOException при ошибке записи заголовка
+     */
+    public static Output newFrame(long correlationId, byte kind) throws IOException {
+        Output out = new Output(new FrameBuffer());
+        out.writeInt(0);
+        out.writeByte(PROTOCOL_VERSION);
+        out.writeLong(correlationId);
+        out.writeByte(kind);
+        return out;
+    }
+
+    /**
+     * Открывает тело полученного кадра для чтения и проверяет версию протокола.
+     *
+     * @param body тело кадра без заголовка
+     * @return поток для чтения содержимого кадра
+     * @throws IOException если версия протокола не поддерживается
+     */
+    public static Input openFrame(byte[] body) throws IOException {
+        Input in = new Input(body);
+        byte version = in.readByte();
+        if (version != PROTOCOL_VERSION) {
+            throw new IOException("Неподдерживаемая версия протокола: " + version);
+        }
+        in.correlationId = in.readLong();
+        in.kind = in.readByte();
+        return in;
+    }
+
+    /**
+     * Буфер кадра с доступом к внутреннему массиву, чтобы не копировать его при отправке.
+     */
+    private static class FrameBuffer extends ByteArrayOutputStream {
+        FrameBuffer() {
+            super(256);
+        }
+
+        ByteBuffer toFrame() {
+            int length = count - HEADER_SIZE;
+            buf[0] = (byte) (length >>> 24);
+            buf[1] = (byte) (length >>> 16);
+            buf[2] = (byte) (length >>> 8);
+            buf[3] = (byte) length;
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    /**
+     * Поток записи содержимого кадра.
+     */
+    public static class Output extends DataOutputStream {
+
+        private Output(FrameBuffer buffer) {
+            super(buffer);
+        }
+
+        /**
+         * Записывает строку в UTF-8 с префиксом длины; null кодируется длиной -1.
+         *
+         * @param value строка или null
+         * @throws IOException при ошибке записи
+         */
+        public void writeString(String value) throws IOException {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            write(bytes);
+        }
+
+        /**
+         * Завершает кадр и проставляет его длину в заголовке.
+         *
+         * @return буфер кадра, подготовленный для записи в канал
+         * @throws IOException если кадр превышает допустимый размер
+         */
+        public ByteBuffer toFrame() throws IOException {
+            flush();
+            if (size() - HEADER_SIZE > MAX_FRAME_SIZE) {
+                throw new IOException("Недопустимый размер кадра: " + (size() - HEADER_SIZE));
+            }
+            return ((FrameBuffer) out).toFrame();
+        }
+    }
+
+    /**
+     * Поток чтения содержимого кадра.
+     */
+    public static class Input extends DataInputStream {
+
+        /** Идентификатор корреляции кадра */
+        private long correlationId;
+
+        /** Вид кадра */
+        private byte kind;
+
+        private Input(byte[] body) {
+            super(new ByteArrayInputStream(body));
+        }
+
+        /**
+         * Возвращает идентификатор корреляции кадра.
+         *
+         * @return идентификатор корреляции
+         */
+        public long getCorrelationId() {
+            return correlationId;
+        }
+
+        /**
+         * Возвращает вид кадра.
+         *
+         * @return один из кодов KIND_*
+         */
+        public byte getKind() {
+            return kind;
+        }
+
+        /**
+         * Читает строку, записанную {@link Output#writeString(String)}.
+         *
+         * @return строка или null
+         * @throws IOException если данные повреждены
+         */
+        public String readString() throws IOException {
+            int length = readInt();
+            if (length == -1) {
+                return null;
+            }
+            if (length < 0 || length > available()) {
+                throw new IOException("Недопустимая длина строки: " + length);
+            }
+            byte[] bytes = new byte[length];
+            readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -4,5 +4,6 @@ package org.example.network;
  * Класс-помощник для отловки ошибок входа
  */
 public enum LoginError {
-    LOGIN_ERROR;
+    LOGIN_ERROR,
+    SESSION_EXPIRED;
 }
@@ -0,0 +1,93 @@
+package org.example.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Однобайтовые коды команд бинарного протокола.
+ * Вместо сериализованного объекта команды по сети передается только ее код.
+ */
+public enum Opcode {
+    ADD(1, "add"),
+    CLEAR(2, "clear"),
+    EXECUTE_SCRIPT(3, "execute_script"),
+    GROUP_COUNTING_BY_LABEL(4, "group_counting_by_label"),
+    HELP(5, "help"),
+    INFO(6, "info"),
+    PRINT_DESCENDING(7, "print_descending"),
+    PRINT_FIELD_ASCENDING_LABEL(8, "print_field_ascending_label"),
+    REMOVE_AT(9, "remove_at"),
+    REMOVE_BY_ID(10, "remove_by_id"),
+    REMOVE_FIRST(11, "remove_first"),
+    SHOW(12, "show"),
+    SHUFFLE(13, "shuffle"),
+    UPDATE(14, "update"),
+    LOGIN(15, "login"),
+    REGISTER(16, "register"),
+    CHANGES_SINCE(17, "changes_since"),
+    SUBSCRIBE(18, "subscribe"),
+    BATCH(19, "batch"),
+    ADD_BATCH(20, "add_batch");
+
+    /** Таблица кодов для поиска по байту */
+    private static final Opcode[] BY_CODE = new Opcode[128];
+
+    /** Таблица кодов для поиска по имени команды */
+    private static final Map<String, Opcode> BY_NAME = new HashMap<>();
+
+    static {
+        for (Opcode opcode : values()) {
+            BY_CODE[opcode.code] = opcode;
+            BY_NAME.put(opcode.commandName, opcode);
+        }
+    }
+
+    /** Код команды */
+    private final byte code;
+
+    /** Имя команды, которому соответствует код */
+    private final String commandName;
+
+    Opcode(int code, String commandName) {
+        this.code = (byte) code;
+        this.commandName = commandName;
+    }
+
+    /**
+     * Возвращает байтовый код команды.
+     *
+     * @return код команды
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Возвращает имя команды.
+     *
+     * @return имя команды
+     */
+    public String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * Ищет код по байту.
+     *
+     * @param code байтовый код
+     * @return код команды или null, если он неизвестен
+     */
+    public static Opcode fromCode(byte code) {
+        return code < 0 ? null : BY_CODE[code];
+    }
+
+    /**
+     * Ищет код по имени команды.
+     *
+     * @param commandName имя команды
+     * @return код команды или null, если команда неизвестна
+     */
+    public static Opcode fromName(String commandName) {
+        return BY_NAME.get(commandName);
+    }
+}
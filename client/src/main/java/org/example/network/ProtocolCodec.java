@@ -0,0 +1,276 @@
+package org.example.network;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Бинарный кодек запросов и ответов.
+ * Заменяет Java-сериализацию: команда передается однобайтовым кодом {@link Opcode},
+ * а объекты предметной области кодируются вручную полями фиксированного формата.
+ */
+public class ProtocolCodec {
+
+    /** Тег аргумента: аргумент отсутствует */
+    static final byte ARG_NONE = 0;
+
+    /** Тег аргумента: число типа long */
+    static final byte ARG_LONG = 1;
+
+    /** Тег аргумента: строка */
+    static final byte ARG_STRING = 2;
+
+    /** Жанры в порядке их номеров */
+    private static final MusicGenre[] GENRES = MusicGenre.values();
+
+    /** Возможные ошибки входа в порядке их номеров */
+    private static final LoginError[] LOGIN_ERRORS = LoginError.values();
+
+    /**
+     * Кодирует запрос клиента в кадр.
+     *
+     * @param correlationId идентификатор запроса
+     * @param request запрос
+     * @return буфер кадра, подготовленный для записи в канал
+     * @throws IOException если команда неизвестна или аргумент не поддерживается
+     */
+    public static ByteBuffer encodeRequest(long correlationId, Request request) throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(correlationId);
+        writeCommand(out, request);
+
+        User user = request.getUser();
+        out.writeBoolean(user != null);
+        if (user != null) {
+            String token = user.getToken();
+            out.writeString(user.getLogin());
+            out.writeString(token == null ? user.getPassword() : null);
+            out.writeString(token);
+        }
+        writeBody(out, request);
+
+        List<Request> requests = request.getRequests();
+        out.writeInt(requests == null ? -1 : requests.size());
+        if (requests != null) {
+            for (Request nested : requests) {
+                writeCommand(out, nested);
+                writeBody(out, nested);
+            }
+        }
+        return out.toFrame();
+    }
+
+    private static void writeCommand(FrameCodec.Output out, Request request) throws IOException {
+        Opcode opcode = request.getCommand() == null ? null : Opcode.fromName(request.getCommand().getName());
+        out.writeByte(opcode == null ? -1 : opcode.getCode());
+    }
+
+    private static void writeBody(FrameCodec.Output out, Request request) throws IOException {
+        Object args = request.getArgs();
+        if (args == null) {
+            out.writeByte(ARG_NONE);
+        } else if (args instanceof Number number) {
+            out.writeByte(ARG_LONG);
+            out.writeLong(number.longValue());
+        } else if (args instanceof String string) {
+            out.writeByte(ARG_STRING);
+            out.writeString(string);
+        } else {
+            throw new IOException("Неподдерживаемый аргумент запроса: " + args.getClass().getSimpleName());
+        }
+
+        MusicBand band = request.getMusicBand();
+        out.writeBoolean(band != null);
+        if (band != null) {
+            writeBand(out, band);
+        }
+
+        Collection<MusicBand> bands = request.getMusicBands();
+        out.writeInt(bands == null ? -1 : bands.size());
+        if (bands != null) {
+            for (MusicBand nested : bands) {
+                writeBand(out, nested);
+            }
+        }
+    }
+
+    /**
+     * Декодирует ответ сервера.
+     *
+     * @param in открытый кадр ответа
+     * @return ответ сервера
+     * @throws IOException если данные повреждены
+     */
+    public static Response decodeResponse(FrameCodec.Input in) throws IOException {
+        String result = in.readString();
+        String token = in.readString();
+        byte loginErrorCode = in.readByte();
+        LoginError loginError = loginErrorCode < 0 || loginErrorCode >= LOGIN_ERRORS.length
+                ? null : LOGIN_ERRORS[loginErrorCode];
+        boolean operationflag = in.readBoolean();
+        long revision = in.readLong();
+        boolean snapshot = in.readBoolean();
+
+        List<MusicBand> bands = null;
+        int bandCount = in.readInt();
+        if (bandCount >= 0) {
+            bands = new ArrayList<>(bandCount);
+            for (int i = 0; i < bandCount; i++) {
+                bands.add(readBand(in));
+            }
+        }
+
+        List<Long> ids = null;
+        int idCount = in.readInt();
+        if (idCount >= 0) {
+            ids = new ArrayList<>(idCount);
+            for (int i = 0; i < idCount; i++) {
+                ids.add(in.readLong());
+            }
+        }
+        long total = in.readLong();
+
+        List<Response> responses = null;
+        int responseCount = in.readInt();
+        if (responseCount >= 0) {
+            responses = new ArrayList<>(responseCount);
+            for (int i = 0; i < responseCount; i++) {
+                responses.add(decodeResponse(in));
+            }
+        }
+        return new Response(result, loginError, operationflag, revision, snapshot, bands, ids, token, total,
+                responses);
+    }
+
+    /**
+     * Кодирует музыкальную группу.
+     *
+     * @param out поток кадра
+     * @param band музыкальная группа
+     * @throws IOException при ошибке записи
+     */
+    public static void writeBand(FrameCodec.Output out, MusicBand band) throws IOException {
+        out.writeLong(band.getId());
+        out.writeString(band.getName());
+        writeCoordinates(out, band.getCoordinates());
+        out.writeInt(band.getNumberOfParticipants());
+        LocalDateTime creationDate = band.getCreationDate();
+        out.writeLong(creationDate.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(creationDate.getNano());
+        Date establishmentDate = band.getEstablishmentDate();
+        out.writeBoolean(establishmentDate != null);
+        if (establishmentDate != null) {
+            out.writeLong(establishmentDate.getTime());
+        }
+        writeGenre(out, band.getGenre());
+        writeLabel(out, band.getLabel());
+        out.writeString(band.getUserLogin());
+    }
+
+    /**
+     * Декодирует музыкальную группу.
+     *
+     * @param in поток кадра
+     * @return музыкальная группа
+     * @throws IOException если данные повреждены
+     */
+    public static MusicBand readBand(FrameCodec.Input in) throws IOException {
+        long id = in.readLong();
+        String name = in.readString();
+        Coordinates coordinates = readCoordinates(in);
+        int participants = in.readInt();
+        LocalDateTime creationDate = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        Date establishmentDate = in.readBoolean() ? new Date(in.readLong()) : null;
+        MusicGenre genre = readGenre(in);
+        Label label = readLabel(in);
+        MusicBand band = new MusicBand(id, name, coordinates, participants, creationDate, genre, label,
+                in.readString());
+        band.setEstablishmentDate(establishmentDate);
+        return band;
+    }
+
+    /**
+     * Кодирует координаты.
+     *
+     * @param out поток кадра
+     * @param coordinates координаты
+     * @throws IOException при ошибке записи
+     */
+    public static void writeCoordinates(FrameCodec.Output out, Coordinates coordinates) throws IOException {
+        out.writeFloat(coordinates.getX());
+        out.writeLong(coordinates.getY());
+    }
+
+    /**
+     * Декодирует координаты.
+     *
+     * @param in поток кадра
+     * @return координаты
+     * @throws IOException если данные повреждены
+     */
+    public static Coordinates readCoordinates(FrameCodec.Input in) throws IOException {
+        return new Coordinates(in.readFloat(), in.readLong());
+    }
+
+    /**
+     * Кодирует лейбл.
+     *
+     * @param out поток кадра
+     * @param label лейбл
+     * @throws IOException при ошибке записи
+     */
+    public static void writeLabel(FrameCodec.Output out, Label label) throws IOException {
+        out.writeString(label.getName());
+        out.writeInt(label.getBands());
+        out.writeLong(label.getSales());
+    }
+
+    /**
+     * Декодирует лейбл.
+     *
+     * @param in поток кадра
+     * @return лейбл
+     * @throws IOException если данные повреждены
+     */
+    public static Label readLabel(FrameCodec.Input in) throws IOException {
+        return new Label(in.readString(), in.readInt(), in.readLong());
+    }
+
+    /**
+     * Кодирует жанр порядковым номером; null кодируется как -1.
+     *
+     * @param out поток кадра
+     * @param genre жанр или null
+     * @throws IOException при ошибке записи
+     */
+    public static void writeGenre(FrameCodec.Output out, MusicGenre genre) throws IOException {
+        out.writeByte(genre == null ? -1 : genre.ordinal());
+    }
+
+    /**
+     * Декодирует жанр.
+     *
+     * @param in поток кадра
+     * @return жанр или null
+     * @throws IOException если данные повреждены
+     */
+    public static MusicGenre readGenre(FrameCodec.Input in) throws IOException {
+        byte ordinal = in.readByte();
+        if (ordinal == -1) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= GENRES.length) {
+            throw new IOException("Неизвестный жанр: " + ordinal);
+        }
+        return GENRES[ordinal];
+    }
+}
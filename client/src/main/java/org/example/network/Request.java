@@ -5,6 +5,8 @@ import org.example.mainClasses.MusicBand;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Класс, представляющий запрос клиента к серверу.
@@ -29,6 +31,12 @@ public class Request implements Serializable {
     /** Пользователь, отправивший запрос */
     User user;
 
+    /** Вложенные запросы пакета (null - запрос не пакетный) */
+    List<Request> requests;
+
+    /** Музыкальные группы для пакетного добавления (null - не передаются) */
+    Collection<MusicBand> musicBands;
+
     /**
      * Конструктор запроса с командой и пользователем.
      *
@@ -102,6 +110,33 @@ public class Request implements Serializable {
         this.user = user;
     }
 
+    /**
+     * Конструктор пакетного запроса.
+     * Вложенные запросы выполняются сервером по порядку от имени пользователя пакета.
+     *
+     * @param command команда пакета
+     * @param requests вложенные запросы
+     * @param user пользователь, отправивший запрос
+     */
+    public Request(Command command, List<Request> requests, User user) {
+        this.command = command;
+        this.requests = requests;
+        this.user = user;
+    }
+
+    /**
+     * Конструктор запроса с набором музыкальных групп.
+     *
+     * @param command команда для выполнения
+     * @param musicBands музыкальные группы
+     * @param user пользователь, отправивший запрос
+     */
+    public Request(Command command, Collection<MusicBand> musicBands, User user) {
+        this.command = command;
+        this.musicBands = musicBands;
+        this.user = user;
+    }
+
     /**
      * Получить команду из запроса.
      *
@@ -137,4 +172,31 @@ public class Request implements Serializable {
     public Object getArgs() {
         return args;
     }
+
+    /**
+     * Получить набор музыкальных групп из запроса.
+     *
+     * @return музыкальные группы или null
+     */
+    public Collection<MusicBand> getMusicBands() {
+        return musicBands;
+    }
+
+    /**
+     * Получить вложенные запросы пакета.
+     *
+     * @return список запросов или null
+     */
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    /**
+     * Получить пользователя, отправившего запрос.
+     *
+     * @return пользователь
+     */
+    public User getUser() {
+        return user;
+    }
 }
@@ -9,6 +9,7 @@ import org.example.managers.CommandManager;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 /**
@@ -145,10 +146,12 @@ public class RequestManager {
                     MusicBand band = new MusicBandsBuilder(user).create();
                     band.setUserLogin(user.getLogin());
                     System.out.println(client.sendRequest(new Request(command, band, user)).getResult());
+                } else if (input[0].equals("show")) {
+                    showPages(command, user);
                 } else {
                     try {
                         Request request = new Request(command, user);
-                        System.out.println(client.sendRequest(request).getResult());
+                        printResponse(client.sendRequest(request));
                     } catch (NullPointerException e) {
                         System.out.println("Клиент не смог подключиться к серверу");
                         System.exit(505);
@@ -191,6 +194,55 @@ public class RequestManager {
         }
     }
 
+    /**
+     * Выводит коллекцию постранично: сервер возвращает ограниченную страницу,
+     * и следующая страница запрашивается после вывода предыдущей.
+     *
+     * @param command команда show
+     * @param user пользователь, от имени которого выполняется команда
+     * @throws InterruptedException если поток был прерван
+     */
+    private void showPages(Command command, User user) throws InterruptedException {
+        long offset = 0;
+        while (true) {
+            Response response = client.sendRequest(new Request(command, offset, user));
+            if (response == null) {
+                System.out.println("Клиент не смог подключиться к серверу");
+                return;
+            }
+            System.out.println(response.getResult());
+            List<Long> ids = response.getIds();
+            if (ids == null || ids.isEmpty()) {
+                return;
+            }
+            offset += ids.size();
+            if (offset >= response.getTotal()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Выводит результат команды. Строки потокового ответа выводятся по мере получения,
+     * не собирая весь ответ в памяти.
+     *
+     * @param response ответ сервера
+     */
+    private void printResponse(Response response) {
+        System.out.println(response.getResult());
+        Iterator<String> lines = response.getLines();
+        if (lines == null) {
+            return;
+        }
+        try {
+            lines.forEachRemaining(System.out::println);
+        } catch (UncheckedIOException e) {
+            System.err.println("Ответ сервера прерван: " + e.getCause().getMessage());
+        } finally {
+            response.closeLines();
+        }
+    }
+
     public boolean checkLogin(User user) throws InterruptedException {
         Response response = client.sendRequest(new Request(new Login(), user));
         if (response.getLoginError() == LoginError.LOGIN_ERROR) {
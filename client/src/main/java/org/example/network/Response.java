@@ -5,6 +5,7 @@ import org.example.mainClasses.MusicBand;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 
@@ -39,6 +40,24 @@ public class Response implements Serializable {
 
     private boolean operationflag;
 
+    /** Ревизия коллекции, до которой синхронизирован клиент после этого ответа */
+    private long revision;
+
+    /** Признак того, что musicBands содержит всю коллекцию, а не только изменения */
+    private boolean snapshot;
+
+    /** Токен сессии, выданный при входе или регистрации */
+    private String token;
+
+    /** Общее количество элементов, из которых выбрана переданная страница */
+    private long total;
+
+    /** Ответы на вложенные запросы пакета в порядке запросов */
+    private List<Response> responses;
+
+    /** Строки потокового ответа, которые еще передаются сервером */
+    private transient Iterator<String> lines;
+
     /**
      * Возвращает текст результата выполнения команды.
      *
@@ -77,6 +96,135 @@ public class Response implements Serializable {
         this.result = result;
         this.ids = ids;
     }
+
+    /**
+     * Конструктор полного ответа, используемый при декодировании кадра.
+     *
+     * @param result результат выполнения команды
+     * @param loginError тип ошибки входа или null
+     * @param operationflag признак успешного выполнения операции
+     * @param revision ревизия коллекции или 0
+     * @param snapshot true если musicBands содержит всю коллекцию
+     * @param musicBands элементы коллекции или null
+     * @param ids идентификаторы затронутых элементов или null
+     * @param token токен сессии или null
+     * @param total количество элементов во всей коллекции или 0
+     * @param responses ответы на вложенные запросы пакета или null
+     */
+    public Response(String result, LoginError loginError, boolean operationflag, long revision,
+                    boolean snapshot, Collection<MusicBand> musicBands, List<Long> ids, String token,
+                    long total, List<Response> responses) {
+        this.result = result;
+        this.token = token;
+        this.total = total;
+        this.responses = responses;
+        this.loginError = loginError;
+        this.operationflag = operationflag;
+        this.revision = revision;
+        this.snapshot = snapshot;
+        this.musicBands = musicBands;
+        this.ids = ids;
+    }
+
+    /**
+     * Возвращает ревизию коллекции.
+     *
+     * @return ревизия коллекции или 0, если ответ ее не содержит
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Возвращает токен сессии.
+     *
+     * @return токен или null, если ответ его не содержит
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Возвращает общее количество элементов, из которых выбрана страница.
+     *
+     * @return количество элементов или 0, если ответ не содержит страницы
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Возвращает строки потокового ответа.
+     * Строки приходят частями по мере чтения итератора; прочитать их можно только один раз.
+     *
+     * @return итератор строк или null, если ответ не потоковый
+     */
+    public Iterator<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * Устанавливает строки потокового ответа. Вызывается клиентом при получении заголовка потока.
+     *
+     * @param lines итератор строк
+     */
+    void setLines(Iterator<String> lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * Отказывается от непрочитанных строк потокового ответа: полученные части отбрасываются,
+     * и следующие части не накапливаются в памяти.
+     */
+    public void closeLines() {
+        if (lines instanceof ChunkedLines chunked) {
+            chunked.close();
+        }
+        lines = null;
+    }
+
+    /**
+     * Возвращает результат вместе со всеми строками потокового ответа, дочитывая поток.
+     *
+     * @return полный текст результата
+     */
+    public String getFullResult() {
+        if (lines == null) {
+            return result;
+        }
+        StringBuilder text = new StringBuilder(result);
+        lines.forEachRemaining(line -> text.append('\n').append(line));
+        lines = null;
+        result = text.toString();
+        return result;
+    }
+
+    /**
+     * Возвращает ответы на вложенные запросы пакета.
+     *
+     * @return список ответов или null, если ответ не пакетный
+     */
+    public List<Response> getResponses() {
+        return responses;
+    }
+
+    /**
+     * Проверяет, содержит ли ответ всю коллекцию.
+     *
+     * @return true если передан полный снимок коллекции
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Возвращает идентификаторы элементов, затронутых командой.
+     *
+     * @return список идентификаторов или null
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
     /**
      * Возвращает информацию об ошибке входа.
      *
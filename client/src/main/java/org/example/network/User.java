@@ -21,6 +21,9 @@ public class User implements Serializable {
     /** Пароль пользователя */
     private String password;
 
+    /** Токен сессии; пока он есть, пароль на сервер не отправляется */
+    private volatile String token;
+
     /**
      * Запрашивает у пользователя информацию о наличии зарегистрированного аккаунта.
      * Метод продолжает запрашивать ввод до получения корректного ответа.
@@ -76,6 +79,24 @@ public class User implements Serializable {
         return password;
     }
 
+    /**
+     * Возвращает токен сессии.
+     *
+     * @return токен или null, если вход еще не выполнен
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Устанавливает токен сессии.
+     *
+     * @param token токен сессии или null
+     */
+    public void setToken(String token) {
+        this.token = token;
+    }
+
     /**
      * Устанавливает логин пользователя.
      *
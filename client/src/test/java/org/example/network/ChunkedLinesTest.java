@@ -0,0 +1,71 @@
+package org.example.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки {@link ChunkedLines}: поток чтения ответов не ждет получателя строк.
+ */
+class ChunkedLinesTest {
+
+    @Test
+    void readerIsNeverBlockedByUnreadChunks() {
+        ChunkedLines lines = new ChunkedLines();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int chunk = 0; chunk < 10000; chunk++) {
+                assertTrue(lines.addChunk(List.of("line-" + chunk)));
+            }
+            lines.finish(null);
+        });
+
+        List<String> read = new ArrayList<>();
+        lines.forEachRemaining(read::add);
+        assertEquals(10000, read.size());
+        assertEquals("line-0", read.get(0));
+        assertEquals("line-9999", read.get(9999));
+    }
+
+    @Test
+    void closedLinesDropLaterChunks() {
+        ChunkedLines lines = new ChunkedLines();
+        lines.addChunk(List.of("a", "b"));
+        assertEquals("a", lines.next());
+
+        lines.close();
+
+        assertTrue(lines.isClosed());
+        assertFalse(lines.addChunk(List.of("c")));
+        assertFalse(lines.hasNext());
+    }
+
+    @Test
+    void errorIsReportedAfterReceivedLines() {
+        ChunkedLines lines = new ChunkedLines();
+        lines.addChunk(List.of("a"));
+        lines.finish("Ошибка формирования ответа");
+
+        assertEquals("a", lines.next());
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, lines::hasNext);
+        assertEquals("Ошибка формирования ответа", e.getCause().getMessage());
+    }
+
+    @Test
+    void failDropsUnreadChunks() {
+        ChunkedLines lines = new ChunkedLines();
+        lines.addChunk(List.of("a"));
+        lines.fail("Соединение с сервером разорвано");
+
+        assertThrows(UncheckedIOException.class, lines::hasNext);
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.network;
+
+import org.example.commands.Batch;
+import org.example.commands.Show;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверки конвейерной отправки и пакетов запросов {@link Client} на тестовом сервере.
+ */
+class ClientBatchTest {
+
+    private static final byte BATCH_OPCODE = Opcode.fromName(new Batch().getName()).getCode();
+
+    /** Размеры полученных сервером пакетов */
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    /** Отвечает на одиночные запросы с задержкой, чтобы ответы приходили не по порядку */
+    private final ScheduledExecutorService delays = Executors.newSingleThreadScheduledExecutor();
+
+    private ServerSocket server;
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                serve(socket);
+            } catch (IOException e) {
+                // сервер закрыт
+            }
+        }, "fake-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        client = new Client("localhost", server.getLocalPort(), 100, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.disconnect();
+        server.close();
+        delays.shutdownNow();
+    }
+
+    @Test
+    void batchIsSplitIntoChunksAndAnswersKeepOrder() throws Exception {
+        User user = new User("user", "password");
+        List<Request> requests = new ArrayList<>();
+        for (long i = 0; i < 2500; i++) {
+            requests.add(new Request(new Show(), i, user));
+        }
+
+        List<Response> responses = client.sendBatch(requests, user);
+
+        assertEquals(List.of(Client.BATCH_SIZE, Client.BATCH_SIZE, 500), batchSizes);
+        assertEquals(2500, responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals("ok-" + i, responses.get(i).getResult());
+        }
+    }
+
+    @Test
+    void pipelinedRequestsAreMatchedByCorrelationId() throws Exception {
+        List<CompletableFuture<Response>> futures = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            futures.add(client.sendAsync(new Request(new Show(), i, null)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals("ok-" + i, futures.get(i).get(10, TimeUnit.SECONDS).getResult());
+        }
+    }
+
+    private void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        while (true) {
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            FrameCodec.Input frame = FrameCodec.openFrame(body);
+            long correlationId = frame.getCorrelationId();
+            byte opcode = frame.readByte();
+            if (frame.readBoolean()) {
+                frame.readString();
+                frame.readString();
+                frame.readString();
+            }
+            Object args = readBody(frame);
+            int count = frame.readInt();
+            if (opcode != BATCH_OPCODE) {
+                // последние запросы отвечаются первыми
+                long delay = 100 - (Long) args;
+                delays.schedule(() -> write(out, response(correlationId, "ok-" + args, List.of())),
+                        delay, TimeUnit.MILLISECONDS);
+                continue;
+            }
+            batchSizes.add(count);
+            List<String> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                frame.readByte();
+                results.add("ok-" + readBody(frame));
+            }
+            write(out, response(correlationId, "Выполнено команд: " + count, results));
+        }
+    }
+
+    private static Object readBody(FrameCodec.Input frame) throws IOException {
+        Object args = switch (frame.readByte()) {
+            case ProtocolCodec.ARG_LONG -> frame.readLong();
+            case ProtocolCodec.ARG_STRING -> frame.readString();
+            default -> null;
+        };
+        if (frame.readBoolean()) {
+            ProtocolCodec.readBand(frame);
+        }
+        for (int i = frame.readInt(); i > 0; i--) {
+            ProtocolCodec.readBand(frame);
+        }
+        return args;
+    }
+
+    private static ByteBuffer response(long correlationId, String result, List<String> nested) {
+        try {
+            FrameCodec.Output out = FrameCodec.newFrame(correlationId);
+            writeResponse(out, result);
+            out.writeInt(nested.isEmpty() ? -1 : nested.size());
+            for (String line : nested) {
+                writeResponse(out, line);
+                out.writeInt(-1);
+            }
+            return out.toFrame();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeResponse(FrameCodec.Output out, String result) throws IOException {
+        out.writeString(result);
+        out.writeString(null);
+        out.writeByte(-1);
+        out.writeBoolean(true);
+        out.writeLong(0);
+        out.writeBoolean(false);
+        out.writeInt(-1);
+        out.writeInt(-1);
+        out.writeLong(0);
+    }
+
+    private static void write(DataOutputStream out, ByteBuffer frame) {
+        synchronized (out) {
+            try {
+                out.write(frame.array(), 0, frame.limit());
+                out.flush();
+            } catch (IOException e) {
+                // клиент отключился
+            }
+        }
+    }
+}
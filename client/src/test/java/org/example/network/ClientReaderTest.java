@@ -0,0 +1,145 @@
+package org.example.network;
+
+import org.example.commands.Info;
+import org.example.commands.PrintDescending;
+import org.example.commands.Show;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверки потока чтения ответов {@link Client}: ошибка получателя уведомлений не останавливает
+ * чтение, а ответ, который не удалось разобрать, закрывает соединение и завершает ожидающие запросы.
+ */
+class ClientReaderTest {
+
+    private static final byte INFO_OPCODE = Opcode.fromName(new Info().getName()).getCode();
+
+    private static final byte MALFORMED_OPCODE = Opcode.fromName(new PrintDescending().getName()).getCode();
+
+    private ServerSocket server;
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                serve(socket);
+            } catch (IOException e) {
+                // сервер закрыт
+            }
+        }, "fake-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        client = new Client("localhost", server.getLocalPort(), 100, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.disconnect();
+        server.close();
+    }
+
+    @Test
+    void failingPushListenerDoesNotStopReading() throws Exception {
+        AtomicInteger pushes = new AtomicInteger();
+        client.setPushListener(push -> {
+            pushes.incrementAndGet();
+            throw new IllegalStateException("сбой получателя");
+        });
+
+        for (int i = 0; i < 3; i++) {
+            Response response = client.sendAsync(new Request(new Info(), null)).get(10, TimeUnit.SECONDS);
+            assertEquals("ok", response.getResult());
+        }
+        assertEquals(3, pushes.get());
+    }
+
+    @Test
+    void malformedResponseFailsPendingRequestsAndDisconnects() throws Exception {
+        CompletableFuture<Response> unanswered = client.sendAsync(new Request(new Show(), null));
+        CompletableFuture<Response> malformed = client.sendAsync(new Request(new PrintDescending(), null));
+
+        assertThrows(ExecutionException.class, () -> malformed.get(10, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> unanswered.get(10, TimeUnit.SECONDS));
+        assertFalse(client.isConnected());
+    }
+
+    /**
+     * На {@link Info} отправляет уведомление и ответ "ok", на {@link PrintDescending} - ответ
+     * с недопустимой датой создания группы, на остальные запросы не отвечает.
+     */
+    private void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        while (true) {
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            FrameCodec.Input frame = FrameCodec.openFrame(body);
+            long correlationId = frame.getCorrelationId();
+            byte opcode = frame.readByte();
+            if (opcode == INFO_OPCODE) {
+                write(out, response(FrameCodec.PUSH_CORRELATION_ID, "push"));
+                write(out, response(correlationId, "ok"));
+            } else if (opcode == MALFORMED_OPCODE) {
+                write(out, malformed(correlationId));
+            }
+        }
+    }
+
+    private static ByteBuffer response(long correlationId, String result) throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(correlationId);
+        writeHeader(out, result);
+        out.writeInt(-1);
+        out.writeInt(-1);
+        out.writeLong(0);
+        out.writeInt(-1);
+        return out.toFrame();
+    }
+
+    private static ByteBuffer malformed(long correlationId) throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(correlationId);
+        writeHeader(out, "группы");
+        out.writeInt(1);
+        out.writeLong(1);
+        out.writeString("band");
+        out.writeFloat(1f);
+        out.writeLong(2);
+        out.writeInt(3);
+        out.writeLong(0);
+        out.writeInt(-1);
+        return out.toFrame();
+    }
+
+    private static void writeHeader(FrameCodec.Output out, String result) throws IOException {
+        out.writeString(result);
+        out.writeString(null);
+        out.writeByte(-1);
+        out.writeBoolean(true);
+        out.writeLong(0);
+        out.writeBoolean(false);
+    }
+
+    private static void write(DataOutputStream out, ByteBuffer frame) throws IOException {
+        out.write(frame.array(), 0, frame.limit());
+        out.flush();
+    }
+}
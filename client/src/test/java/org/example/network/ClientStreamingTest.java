@@ -0,0 +1,223 @@
+package org.example.network;
+
+import org.example.commands.Info;
+import org.example.commands.PrintDescending;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Проверки потоковых ответов {@link Client} на тестовом сервере, который отправляет все части
+ * потока сразу, не дожидаясь клиента. Непрочитанный поток не должен задерживать
+ * ответы на другие запросы того же соединения.
+ */
+class ClientStreamingTest {
+
+    /** Частей в потоковом ответе тестового сервера */
+    private static final int CHUNKS = 500;
+
+    /** Строк в части */
+    private static final int LINES_PER_CHUNK = 20;
+
+    private FakeServer server;
+
+    private Client client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeServer();
+        client = new Client("localhost", server.getPort(), 100, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.disconnect();
+        server.close();
+    }
+
+    @Test
+    void unreadStreamDoesNotBlockOtherResponses() throws Exception {
+        Response stream = client.sendRequest(new Request(new PrintDescending(), null));
+        assertNotNull(stream.getLines());
+
+        Response info = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> client.sendRequest(new Request(new Info(), null)));
+        assertNotNull(info);
+        assertEquals("ok", info.getResult());
+
+        List<String> lines = new ArrayList<>();
+        stream.getLines().forEachRemaining(lines::add);
+        assertEquals(CHUNKS * LINES_PER_CHUNK, lines.size());
+        assertEquals("line-0-0", lines.get(0));
+        assertEquals("line-" + (CHUNKS - 1) + "-" + (LINES_PER_CHUNK - 1), lines.get(lines.size() - 1));
+    }
+
+    @Test
+    void closedStreamIsDroppedAndConnectionKeepsWorking() throws Exception {
+        Response stream = client.sendRequest(new Request(new PrintDescending(), null));
+        Iterator<String> lines = stream.getLines();
+        assertEquals("line-0-0", lines.next());
+
+        stream.closeLines();
+
+        Response info = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> client.sendRequest(new Request(new Info(), null)));
+        assertEquals("ok", info.getResult());
+    }
+
+    /**
+     * Нагрузочная проверка: несколько потоков одновременно получают потоковые ответы,
+     * не читая или бросая их, и обычные ответы; все ответы приходят, соединение не зависает.
+     */
+    @Test
+    void concurrentUnreadStreamsUnderLoad() throws Exception {
+        int threads = 8;
+        int rounds = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            boolean close = thread % 2 == 0;
+            results.add(executor.submit(() -> {
+                int answered = 0;
+                for (int round = 0; round < rounds; round++) {
+                    Response stream = client.sendAsync(new Request(new PrintDescending(), null))
+                            .get(30, TimeUnit.SECONDS);
+                    if (close) {
+                        stream.closeLines();
+                    }
+                    Response info = client.sendAsync(new Request(new Info(), null)).get(30, TimeUnit.SECONDS);
+                    if ("ok".equals(info.getResult())) {
+                        answered++;
+                    }
+                }
+                return answered;
+            }));
+        }
+        try {
+            for (Future<Integer> result : results) {
+                assertEquals(rounds, result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Тестовый сервер: на {@link PrintDescending} отвечает потоком из {@link #CHUNKS} частей,
+     * отправляя их подряд без ожидания клиента, на остальные запросы - ответом "ok".
+     */
+    private static class FakeServer implements AutoCloseable {
+
+        private static final byte STREAM_OPCODE = Opcode.fromName(new PrintDescending().getName()).getCode();
+
+        private final ServerSocket socket = new ServerSocket(0);
+
+        private final List<Socket> connections = new ArrayList<>();
+
+        FakeServer() throws IOException {
+            Thread acceptor = new Thread(() -> {
+                try {
+                    while (true) {
+                        Socket connection = socket.accept();
+                        synchronized (connections) {
+                            connections.add(connection);
+                        }
+                        Thread handler = new Thread(() -> serve(connection), "fake-server-connection");
+                        handler.setDaemon(true);
+                        handler.start();
+                    }
+                } catch (IOException e) {
+                    // сервер закрыт
+                }
+            }, "fake-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return socket.getLocalPort();
+        }
+
+        private void serve(Socket connection) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+                while (true) {
+                    byte[] body = new byte[in.readInt()];
+                    in.readFully(body);
+                    FrameCodec.Input frame = FrameCodec.openFrame(body);
+                    long correlationId = frame.getCorrelationId();
+                    if (frame.readByte() != STREAM_OPCODE) {
+                        write(out, response(correlationId, FrameCodec.KIND_MESSAGE, "ok"));
+                    } else {
+                        write(out, response(correlationId, FrameCodec.KIND_STREAM, "Элементов: "
+                                + CHUNKS * LINES_PER_CHUNK));
+                        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                            FrameCodec.Output lines = FrameCodec.newFrame(correlationId, FrameCodec.KIND_CHUNK);
+                            for (int line = 0; line < LINES_PER_CHUNK; line++) {
+                                lines.writeString("line-" + chunk + "-" + line);
+                            }
+                            lines.writeString(null);
+                            write(out, lines.toFrame());
+                        }
+                        FrameCodec.Output end = FrameCodec.newFrame(correlationId, FrameCodec.KIND_END);
+                        end.writeString(null);
+                        write(out, end.toFrame());
+                    }
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // клиент отключился
+            }
+        }
+
+        private static ByteBuffer response(long correlationId, byte kind, String result) throws IOException {
+            FrameCodec.Output out = FrameCodec.newFrame(correlationId, kind);
+            out.writeString(result);
+            out.writeString(null);
+            out.writeByte(-1);
+            out.writeBoolean(true);
+            out.writeLong(0);
+            out.writeBoolean(false);
+            out.writeInt(-1);
+            out.writeInt(-1);
+            out.writeLong(0);
+            out.writeInt(-1);
+            return out.toFrame();
+        }
+
+        private static void write(DataOutputStream out, ByteBuffer frame) throws IOException {
+            out.write(frame.array(), 0, frame.limit());
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+            synchronized (connections) {
+                for (Socket connection : connections) {
+                    connection.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.network;
+
+import org.example.commands.Add;
+import org.example.commands.Batch;
+import org.example.commands.Show;
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки бинарного протокола на стороне клиента: запросы кодируются в формате,
+ * который декодирует сервер, а ответы сервера декодируются без потерь.
+ */
+class ProtocolCodecTest {
+
+    @Test
+    void bandRoundTrip() throws IOException {
+        MusicBand band = band(42, "Кино");
+        band.setEstablishmentDate(new Date(123456789000L));
+
+        FrameCodec.Output out = FrameCodec.newFrame(1);
+        ProtocolCodec.writeBand(out, band);
+        MusicBand decoded = ProtocolCodec.readBand(open(out.toFrame()));
+
+        assertEquals(band.getId(), decoded.getId());
+        assertEquals(band.getName(), decoded.getName());
+        assertEquals(band.getCoordinates().getX(), decoded.getCoordinates().getX());
+        assertEquals(band.getCoordinates().getY(), decoded.getCoordinates().getY());
+        assertEquals(band.getNumberOfParticipants(), decoded.getNumberOfParticipants());
+        assertEquals(band.getCreationDate(), decoded.getCreationDate());
+        assertEquals(band.getEstablishmentDate(), decoded.getEstablishmentDate());
+        assertEquals(band.getGenre(), decoded.getGenre());
+        assertEquals(band.getLabel().getName(), decoded.getLabel().getName());
+        assertEquals(band.getLabel().getSales(), decoded.getLabel().getSales());
+        assertEquals("user", decoded.getUserLogin());
+    }
+
+    @Test
+    void encodesRequestWithSessionToken() throws IOException {
+        User user = new User("user", "password");
+        user.setToken("token");
+        Request request = new Request(new Add(), band(3, "band"), user);
+
+        FrameCodec.Input in = open(ProtocolCodec.encodeRequest(5, request));
+
+        assertEquals(5, in.getCorrelationId());
+        assertEquals(FrameCodec.KIND_MESSAGE, in.getKind());
+        assertEquals(Opcode.fromName(new Add().getName()).getCode(), in.readByte());
+        assertTrue(in.readBoolean());
+        assertEquals("user", in.readString());
+        // при наличии токена пароль не передается
+        assertNull(in.readString());
+        assertEquals("token", in.readString());
+        assertEquals(ProtocolCodec.ARG_NONE, in.readByte());
+        assertTrue(in.readBoolean());
+        assertEquals("band", ProtocolCodec.readBand(in).getName());
+        assertEquals(-1, in.readInt());
+        assertEquals(-1, in.readInt());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    void encodesBatchOfRequests() throws IOException {
+        User user = new User("user", "password");
+        List<Request> requests = List.of(new Request(new Show(), 0L, user), new Request(new Show(), 50L, user));
+
+        FrameCodec.Input in = open(ProtocolCodec.encodeRequest(6, new Request(new Batch(), requests, user)));
+
+        assertEquals(Opcode.fromName(new Batch().getName()).getCode(), in.readByte());
+        assertTrue(in.readBoolean());
+        assertEquals("user", in.readString());
+        assertEquals("password", in.readString());
+        assertNull(in.readString());
+        assertEquals(ProtocolCodec.ARG_NONE, in.readByte());
+        assertFalse(in.readBoolean());
+        assertEquals(-1, in.readInt());
+        assertEquals(2, in.readInt());
+        for (long offset : new long[]{0, 50}) {
+            assertEquals(Opcode.fromName(new Show().getName()).getCode(), in.readByte());
+            assertEquals(ProtocolCodec.ARG_LONG, in.readByte());
+            assertEquals(offset, in.readLong());
+            assertFalse(in.readBoolean());
+            assertEquals(-1, in.readInt());
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    void rejectsUnsupportedArgument() {
+        Request request = new Request(new Show(), List.of(1), null);
+
+        assertThrows(IOException.class, () -> ProtocolCodec.encodeRequest(7, request));
+    }
+
+    @Test
+    void decodesServerResponse() throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(8);
+        writeResponseHeader(out, "Изменения", "token", LoginError.SESSION_EXPIRED.ordinal(), 15, true);
+        out.writeInt(2);
+        ProtocolCodec.writeBand(out, band(1, "a"));
+        ProtocolCodec.writeBand(out, band(2, "b"));
+        out.writeInt(1);
+        out.writeLong(9);
+        out.writeLong(120);
+        out.writeInt(1);
+        writeResponseHeader(out, "вложенный", null, -1, 0, false);
+        out.writeInt(-1);
+        out.writeInt(-1);
+        out.writeLong(0);
+        out.writeInt(-1);
+
+        Response response = ProtocolCodec.decodeResponse(open(out.toFrame()));
+
+        assertEquals("Изменения", response.getResult());
+        assertEquals("token", response.getToken());
+        assertEquals(LoginError.SESSION_EXPIRED, response.getLoginError());
+        assertEquals(15, response.getRevision());
+        assertTrue(response.isSnapshot());
+        assertEquals(List.of("a", "b"), response.getMusicBands().stream().map(MusicBand::getName).toList());
+        assertEquals(List.of(9L), response.getIds());
+        assertEquals(120, response.getTotal());
+        assertEquals(1, response.getResponses().size());
+        Response nested = response.getResponses().get(0);
+        assertEquals("вложенный", nested.getResult());
+        assertNull(nested.getLoginError());
+        assertNull(nested.getMusicBands());
+        assertNull(nested.getResponses());
+    }
+
+    private static void writeResponseHeader(FrameCodec.Output out, String result, String token, int loginError,
+                                            long revision, boolean snapshot) throws IOException {
+        out.writeString(result);
+        out.writeString(token);
+        out.writeByte(loginError);
+        out.writeBoolean(true);
+        out.writeLong(revision);
+        out.writeBoolean(snapshot);
+    }
+
+    private static FrameCodec.Input open(ByteBuffer frame) throws IOException {
+        byte[] body = new byte[frame.remaining() - FrameCodec.HEADER_SIZE];
+        frame.position(frame.position() + FrameCodec.HEADER_SIZE);
+        frame.get(body);
+        return FrameCodec.openFrame(body);
+    }
+
+    private static MusicBand band(long id, String name) {
+        return new MusicBand(id, name, new Coordinates(1.5f, 2L), 4,
+                LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123456789), MusicGenre.HIP_HOP, new Label("label", 3, 1000),
+                "user");
+    }
+}
@@ -3,7 +3,9 @@ package org.example.commands;
 import org.example.builders.MusicBandsBuilder;
 import org.example.mainClasses.MusicBand;
 import org.example.managers.CollectionManager;
+import org.example.exceptions.DuplicateIdException;
 import org.example.exceptions.InvalidDataException;
+import org.example.exceptions.PersistenceException;
 import org.example.managers.DataBaseManager;
 import org.example.network.Request;
 import org.example.network.Response;
@@ -41,6 +43,8 @@ public class Add extends Command implements Serializable {
     /**
      * Выполняет команду добавления.
      * Получает объект MusicBand из запроса, добавляет его в базу данных и в коллекцию.
+     * При отложенной записи ID берется из зарезервированного блока, а в базу группа
+     * записывается фоновым потоком.
      *
      * @param request объект запроса, содержащий данные и пользователя
      * @return объект ответа с результатом выполнения
@@ -49,15 +53,35 @@ public class Add extends Command implements Serializable {
     public Response execute(Request request) {
         try {
             MusicBand band = request.getMusicBand(); // Получение музыкальной группы из запроса
+            if (collectionManager.isWriteBehind()) {
+                band.setId(collectionManager.nextIds(1).get(0)); // ID из последовательности базы
+                band.setUserLogin(request.getUser().getLogin());
+                collectionManager.add(band); // Добавление в коллекцию и очередь записи
+                return new Response("Объект добавлен в коллекцию!");
+            }
+            if (!band.validateFields()) { // Проверка до записи в базу: после нее добавление не должно падать
+                throw new InvalidDataException();
+            }
             int id = dataBaseManager.addbands(band, request.getUser()); // Добавление в базу данных
             if (id == -1) {
                 return new Response("Не удалось добавить объект"); // Ошибка при добавлении
             }
             request.musicBand.setId((long) id); // Установка ID, полученного из базы
-            collectionManager.add(band); // Добавление в локальную коллекцию
+            band.setUserLogin(request.getUser().getLogin()); // Владелец объекта
+            try {
+                collectionManager.add(band); // Добавление в локальную коллекцию
+            } catch (DuplicateIdException e) {
+                // Группа уже в базе, а коллекция с ней разошлась: коллекция перечитывается из базы
+                System.err.println("Коллекция расходится с базой данных (" + e.getMessage() + "), перезагрузка");
+                if (collectionManager.loadCollection() < 0) {
+                    return new Response("Объект добавлен в базу данных, но коллекцию не удалось обновить");
+                }
+            }
             return new Response("Объект добавлен в коллекцию!");
         } catch (InvalidDataException e) {
             return new Response("Объект не создан. Проверьте правильность данных"); // Исключение при некорректных данных
+        } catch (PersistenceException | DuplicateIdException e) {
+            return new Response("Объект не добавлен: " + e.getMessage());
         }
     }
 }
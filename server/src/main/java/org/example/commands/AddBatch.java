@@ -0,0 +1,100 @@
+package org.example.commands;
+
+import org.example.exceptions.DuplicateIdException;
+import org.example.exceptions.InvalidDataException;
+import org.example.exceptions.PersistenceException;
+import org.example.mainClasses.MusicBand;
+import org.example.managers.CollectionManager;
+import org.example.managers.DataBaseManager;
+import org.example.network.Request;
+import org.example.network.Response;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Класс команды "add_batch", реализует добавление набора элементов в коллекцию.
+ * Все группы проверяются до записи в базу данных, добавляются в нее одним запросом
+ * в одной транзакции, а затем атомарно появляются в коллекции.
+ */
+public class AddBatch extends Command implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1354L;
+
+    /** Менеджер коллекции, управляющий всеми музыкальными группами в памяти */
+    private final CollectionManager collectionManager;
+
+    /** Менеджер базы данных, обрабатывающий взаимодействие с базой */
+    private final DataBaseManager dataBaseManager;
+
+    /**
+     * Конструктор команды пакетного добавления.
+     *
+     * @param collectionManager менеджер коллекции
+     * @param dataBaseManager менеджер базы данных
+     */
+    public AddBatch(CollectionManager collectionManager, DataBaseManager dataBaseManager) {
+        super("add_batch", "add_batch {elements} : добавить несколько новых элементов в коллекцию");
+        this.collectionManager = collectionManager;
+        this.dataBaseManager = dataBaseManager;
+    }
+
+    /**
+     * Выполняет команду пакетного добавления.
+     * Если хотя бы одна группа невалидна, не добавляется ни одна.
+     *
+     * @param request объект запроса, содержащий группы и пользователя
+     * @return объект ответа с ID добавленных групп в порядке запроса
+     */
+    @Override
+    public Response execute(Request request) {
+        Collection<MusicBand> received = request.getMusicBands();
+        if (received == null || received.isEmpty()) {
+            return new Response("Нет объектов для добавления");
+        }
+        List<MusicBand> bands = new ArrayList<>(received);
+        for (MusicBand band : bands) {
+            if (!band.validateFields()) { // ID еще не назначен базой данных
+                return new Response("Объекты не созданы. Проверьте правильность данных");
+            }
+        }
+
+        List<Long> ids;
+        try {
+            ids = collectionManager.isWriteBehind()
+                    ? collectionManager.nextIds(bands.size()) // ID из последовательности, запись в базу позже
+                    : dataBaseManager.addBands(bands, request.getUser()); // Добавление в базу данных
+        } catch (PersistenceException e) {
+            return new Response("Объекты не добавлены: " + e.getMessage());
+        }
+        if (ids == null) {
+            return new Response("Не удалось добавить объекты");
+        }
+        for (int i = 0; i < bands.size(); i++) {
+            bands.get(i).setId(ids.get(i)); // Установка ID, полученных из базы
+            bands.get(i).setUserLogin(request.getUser().getLogin());
+        }
+        try {
+            collectionManager.addAll(bands); // Добавление в локальную коллекцию
+        } catch (InvalidDataException e) {
+            // Поля проверены до записи, а ID назначены, поэтому сюда попасть нельзя
+            return new Response("Объекты не созданы. Проверьте правильность данных");
+        } catch (PersistenceException e) {
+            return new Response("Объекты не добавлены: " + e.getMessage());
+        } catch (DuplicateIdException e) {
+            if (collectionManager.isWriteBehind()) {
+                return new Response("Объекты не добавлены: " + e.getMessage());
+            }
+            // Группы уже в базе, а коллекция с ней разошлась: коллекция перечитывается из базы
+            System.err.println("Коллекция расходится с базой данных (" + e.getMessage() + "), перезагрузка");
+            if (collectionManager.loadCollection() < 0) {
+                return new Response("Объекты добавлены в базу данных, но коллекцию не удалось обновить");
+            }
+        }
+        return new Response("Добавлено объектов: " + ids.size(), ids);
+    }
+}
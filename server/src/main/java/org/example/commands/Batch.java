@@ -0,0 +1,100 @@
+package org.example.commands;
+
+import org.example.managers.CommandManager;
+import org.example.network.Request;
+import org.example.network.Response;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Команда для выполнения пакета запросов за один обмен с клиентом.
+ * Вложенные запросы выполняются строго по порядку, каждый - только после завершения предыдущего,
+ * и проходят ту же проверку сессии, что и обычные запросы.
+ * Ответ содержит ответы на вложенные запросы в том же порядке.
+ */
+public class Batch extends Command implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1353L;
+
+    // Менеджер команд, через который выполняются вложенные запросы
+    private final CommandManager commandManager;
+
+    /**
+     * Конструктор команды.
+     *
+     * @param commandManager менеджер команд
+     */
+    public Batch(CommandManager commandManager) {
+        super("batch", "batch : выполнить несколько команд за один запрос");
+        this.commandManager = commandManager;
+    }
+
+    /**
+     * Выполняет пакет, ожидая завершения всех вложенных запросов.
+     *
+     * @param request пакетный запрос
+     * @return ответ с ответами на вложенные запросы
+     */
+    @Override
+    public Response execute(Request request) {
+        return executeAsync(request).join();
+    }
+
+    /**
+     * Выполняет вложенные запросы по порядку без блокировки вызывающего потока.
+     *
+     * @param request пакетный запрос
+     * @return future с ответом, содержащим ответы на вложенные запросы
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync(Request request) {
+        List<Request> requests = request.getRequests();
+        if (requests == null) {
+            return CompletableFuture.completedFuture(new Response("Пакет не содержит запросов"));
+        }
+        return executeFrom(requests, 0, new ArrayList<>(requests.size()))
+                .thenApply(responses -> new Response(true, "Выполнено команд: " + responses.size(), responses));
+    }
+
+    /**
+     * Выполняет запросы начиная с index.
+     * Уже завершенные ответы собираются в цикле, поэтому длинный пакет из быстрых команд
+     * не строит глубокую цепочку future.
+     */
+    private CompletableFuture<List<Response>> executeFrom(List<Request> requests, int index, List<Response> responses) {
+        for (int i = index; i < requests.size(); i++) {
+            CompletableFuture<Response> future = executeOne(requests.get(i));
+            if (!future.isDone()) {
+                int next = i + 1;
+                return future.thenCompose(response -> {
+                    responses.add(response);
+                    return executeFrom(requests, next, responses);
+                });
+            }
+            responses.add(future.join());
+        }
+        return CompletableFuture.completedFuture(responses);
+    }
+
+    private CompletableFuture<Response> executeOne(Request request) {
+        if (request.getCommand() instanceof Batch) {
+            return CompletableFuture.completedFuture(new Response("Вложенные пакеты не поддерживаются"));
+        }
+        CompletableFuture<Response> future;
+        try {
+            future = commandManager.executeAsync(request);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            return new Response("Ошибка выполнения команды: " + cause.getMessage());
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.commands;
+
+import org.example.managers.CollectionManager;
+import org.example.network.Request;
+import org.example.network.Response;
+import org.example.utility.ChangeLog;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Команда для получения изменений коллекции после известной клиенту ревизии.
+ * Вместо всей коллекции возвращает только добавленные, измененные и удаленные элементы;
+ * если разницу построить нельзя, возвращает полный снимок коллекции.
+ */
+public class ChangesSince extends Command implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1351L;
+
+    /**
+     * Менеджер коллекции, из журнала которого берутся изменения.
+     */
+    private final CollectionManager collectionManager;
+
+    /**
+     * Конструктор команды.
+     *
+     * @param collectionManager менеджер коллекции
+     */
+    public ChangesSince(CollectionManager collectionManager) {
+        super("changes_since", "changes_since revision : получить изменения коллекции после указанной ревизии");
+        this.collectionManager = collectionManager;
+    }
+
+    /**
+     * Возвращает изменения коллекции после ревизии из аргумента запроса.
+     *
+     * @param request запрос с ревизией клиента (0 - запросить всю коллекцию)
+     * @return ответ с ревизией, измененными элементами и ID удаленных элементов
+     */
+    @Override
+    public Response execute(Request request) {
+        long revision = request.getArgs() instanceof Long value ? value : 0;
+        ChangeLog.Delta delta = collectionManager.changesSince(revision);
+        return new Response(delta.revision(), delta.snapshot(), delta.upserted(), delta.deleted());
+    }
+}
@@ -1,7 +1,7 @@
 package org.example.commands;
 
 import org.example.exceptions.AlreadyEmptyException;
-import org.example.mainClasses.MusicBand;
+import org.example.exceptions.PersistenceException;
 import org.example.managers.CollectionManager;
 import org.example.managers.DataBaseManager;
 import org.example.network.Request;
@@ -10,6 +10,7 @@ import org.example.network.Response;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Команда для очистки всех элементов коллекции, принадлежащих пользователю.
@@ -47,16 +48,25 @@ public class Clear extends Command implements Serializable {
     @Override
     public Response execute(Request request) {
         // Получаем все ID объектов в коллекции, принадлежащих пользователю
-        List<Long> ids = collectionManager.getBands().stream()
-                .filter(musicBand -> musicBand.getUserLogin().equals(request.getUser().getLogin()))
-                .map(MusicBand::getId)
-                .toList();
+        List<Long> ids = collectionManager.getUserIds(request.getUser().getLogin());
 
-        // Удаляем эти объекты из базы данных
-        if (dataBaseManager.deleteUserObjects(request.getUser(), ids)) {
-            // Если успешно удалено из БД, удаляем и из памяти
-            collectionManager.removeElements(ids);
-            return new Response("Элементы удалены!");
+        try {
+            if (collectionManager.isWriteBehind()) {
+                // При отложенной записи объекты удаляются из коллекции, а из БД - фоновой записью
+                if (collectionManager.removeElements(ids) > 0) {
+                    return new Response("Элементы удалены!");
+                }
+            } else {
+                // Удаляем эти объекты из базы данных одним запросом
+                Set<Long> deleted = dataBaseManager.deleteUserObjects(request.getUser(), ids);
+                if (!deleted.isEmpty()) {
+                    // Из памяти удаляем ровно те объекты, которые удалены из БД
+                    collectionManager.removeElements(deleted);
+                    return new Response("Элементы удалены!");
+                }
+            }
+        } catch (PersistenceException e) {
+            return new Response("Коллекция не очищена: " + e.getMessage());
         }
 
         // Если в коллекции нет объектов пользователя
@@ -5,6 +5,7 @@ import org.example.network.Response;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Абстрактный класс для реализации шаблона "Команда".
@@ -58,4 +59,16 @@ public abstract class Command implements Serializable {
      * @return объект ответа, содержащий результат выполнения
      */
     public abstract Response execute(Request request);
+
+    /**
+     * Выполняет команду без блокировки вызывающего потока.
+     * По умолчанию выполняет {@link #execute(Request)} в текущем потоке; команды с долгими
+     * операциями переопределяют метод и завершают future в другом потоке.
+     *
+     * @param request объект запроса, содержащий данные от клиента
+     * @return future с ответом
+     */
+    public CompletableFuture<Response> executeAsync(Request request) {
+        return CompletableFuture.completedFuture(execute(request));
+    }
 }
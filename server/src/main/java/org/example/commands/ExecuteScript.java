@@ -91,7 +91,7 @@ public class ExecuteScript extends Command implements Serializable {
                         break;
                 }
 
-                stringBuilder.append(response.getResult()).append("\n\n");
+                stringBuilder.append(response.getFullResult()).append("\n\n");
 
                 if (cmd[0].equals("execute_script")) {
                     ScriptExecuteManager.popfile();
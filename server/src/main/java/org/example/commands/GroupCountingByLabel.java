@@ -1,12 +1,17 @@
 package org.example.commands;
 
 import org.example.exceptions.EmptyCollectionException;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
 import org.example.managers.CollectionManager;
 import org.example.network.Request;
 import org.example.network.Response;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Команда, выполняющая группировку элементов коллекции по значению поля label.
@@ -40,7 +45,11 @@ public class GroupCountingByLabel extends Command implements Serializable {
     @Override
     public Response execute(Request request) {
         try {
-            return new Response(collectionManager.groupByLabel()); // Выполнение логики группировки
+            Map<Label, List<MusicBand>> groups = collectionManager.groupByLabel(); // Выполнение логики группировки
+            return new Response("Групп: " + groups.size(), groups.entrySet().stream()
+                    .flatMap(entry -> Stream.concat(
+                            Stream.of(entry.getKey() + ", Count: " + entry.getValue().size()),
+                            entry.getValue().stream().map(MusicBand::toString))));
         } catch (EmptyCollectionException e) {
             return new Response("Коллекция пуста!"); // Возвращает сообщение, если коллекция не содержит элементов
         }
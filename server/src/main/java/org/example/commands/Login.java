@@ -1,16 +1,21 @@
 package org.example.commands;
 
 import org.example.managers.DataBaseManager;
+import org.example.managers.SessionManager;
 import org.example.network.LoginError;
 import org.example.network.Request;
 import org.example.network.Response;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Команда для входа пользователя в систему.
- * Проверяет наличие пользователя в базе данных и возвращает соответствующий ответ.
+ * Проверяет наличие пользователя в базе данных и выдает токен сессии,
+ * которым аутентифицируются следующие запросы.
  */
 public class Login extends Command implements Serializable {
 
@@ -20,19 +25,24 @@ public class Login extends Command implements Serializable {
     // Менеджер работы с базой данных, используется для проверки существования пользователя
     private final DataBaseManager dataBaseManager;
 
+    // Менеджер сессий, выдающий токен после успешной проверки пароля
+    private final SessionManager sessionManager;
+
     /**
      * Конструктор команды login.
      *
      * @param dataBaseManager менеджер базы данных, через который производится проверка пользователя
+     * @param sessionManager менеджер сессий
      */
-    public Login(DataBaseManager dataBaseManager) {
+    public Login(DataBaseManager dataBaseManager, SessionManager sessionManager) {
         super("login", "Войти в аккаунт");
         this.dataBaseManager = dataBaseManager;
+        this.sessionManager = sessionManager;
     }
 
     /**
      * Выполняет проверку существования пользователя в базе данных.
-     * Если пользователь найден — возвращается сообщение об успешной авторизации.
+     * Если пользователь найден — возвращается сообщение об успешной авторизации и токен сессии.
      * В противном случае — сообщение об ошибке авторизации.
      *
      * @param request объект запроса, содержащий пользователя для проверки
@@ -40,10 +50,44 @@ public class Login extends Command implements Serializable {
      */
     @Override
     public Response execute(Request request) {
-        if (dataBaseManager.existUser(request.getUser())) {
-            return new Response("Авторизация успешна!");
-        } else {
-            return new Response(LoginError.LOGIN_ERROR, "Авторизация не прошла");
+        return executeAsync(request).join();
+    }
+
+    /**
+     * Проверяет пароль в пуле хеширования, не занимая поток обработки запросов.
+     *
+     * @param request объект запроса, содержащий пользователя для проверки
+     * @return future с ответом
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync(Request request) {
+        Response denied = new Response(LoginError.LOGIN_ERROR, "Авторизация не прошла");
+        if (request.getUser() == null) {
+            return CompletableFuture.completedFuture(denied);
+        }
+        return CompletableFuture.completedFuture(request.getUser())
+                .thenCompose(user -> dataBaseManager.existUser(user))
+                .thenApply(exists -> exists
+                        ? new Response("Авторизация успешна!", sessionManager.open(request.getUser().getLogin()))
+                        : denied)
+                .exceptionally(e -> failure(e, "вход"));
+    }
+
+    /**
+     * Формирует ответ на ошибку проверки учетных данных.
+     * Переполнение пула хеширования сообщается клиенту как перегрузка,
+     * остальные ошибки записываются в журнал и сообщаются как ошибка сервера.
+     *
+     * @param error ошибка выполнения
+     * @param action повторяемое действие для сообщения клиенту
+     * @return ответ с ошибкой входа
+     */
+    static Response failure(Throwable error, String action) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return new Response(LoginError.LOGIN_ERROR, "Сервер перегружен, повторите " + action);
         }
+        System.err.println("Ошибка проверки учетных данных: " + cause);
+        return new Response(LoginError.LOGIN_ERROR, "Ошибка сервера, повторите " + action);
     }
 }
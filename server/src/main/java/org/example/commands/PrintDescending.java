@@ -1,12 +1,14 @@
 package org.example.commands;
 
 import org.example.exceptions.EmptyCollectionException;
+import org.example.mainClasses.MusicBand;
 import org.example.managers.CollectionManager;
 import org.example.network.Request;
 import org.example.network.Response;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Команда, выводящая элементы коллекции в порядке убывания.
@@ -40,8 +42,9 @@ public class PrintDescending extends Command implements Serializable {
     @Override
     public Response execute(Request request) {
         try {
-            // Получаем и возвращаем отсортированные в порядке убывания элементы
-            return new Response(collectionManager.printAscend());
+            // Элементы форматируются по мере отправки клиенту
+            List<MusicBand> bands = collectionManager.printAscend();
+            return new Response("Элементов: " + bands.size(), bands.stream().map(MusicBand::toString));
         } catch (EmptyCollectionException e) {
             // Если коллекция пуста — возвращаем соответствующее сообщение
             return new Response("Коллекция пуста!");
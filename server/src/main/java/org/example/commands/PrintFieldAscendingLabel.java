@@ -7,6 +7,7 @@ import org.example.network.Response;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Команда, выводящая значения поля "label" всех элементов коллекции
@@ -41,8 +42,9 @@ public class PrintFieldAscendingLabel extends Command implements Serializable {
     @Override
     public Response execute(Request request) {
         try {
-            // Получаем отсортированные значения поля label и возвращаем их
-            return new Response(collectionManager.printLabelField());
+            // Получаем отсортированные значения поля label и передаем их потоком
+            List<String> labels = collectionManager.printLabelField();
+            return new Response("Лейблов: " + labels.size(), labels.stream());
         } catch (EmptyCollectionException e) {
             // Возвращаем сообщение об ошибке, если коллекция пуста
             return new Response("Коллекция пуста!");
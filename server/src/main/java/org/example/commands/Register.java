@@ -1,12 +1,14 @@
 package org.example.commands;
 
 import org.example.managers.DataBaseManager;
+import org.example.managers.SessionManager;
 import org.example.network.LoginError;
 import org.example.network.Request;
 import org.example.network.Response;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Команда 'register' - регистрирует нового пользователя в системе.
@@ -28,14 +30,21 @@ public class Register extends Command implements Serializable {
      */
     private final DataBaseManager dataBaseManager;
 
+    /**
+     * Менеджер сессий, выдающий токен зарегистрированному пользователю
+     */
+    private final SessionManager sessionManager;
+
     /**
      * Конструктор команды register.
      *
      * @param dataBaseManager менеджер для работы с базой данных пользователей
+     * @param sessionManager менеджер сессий
      */
-    public Register(DataBaseManager dataBaseManager) {
+    public Register(DataBaseManager dataBaseManager, SessionManager sessionManager) {
         super("register", "Зарегистрировать пользователя");
         this.dataBaseManager = dataBaseManager;
+        this.sessionManager = sessionManager;
     }
 
     /**
@@ -44,15 +53,35 @@ public class Register extends Command implements Serializable {
      *
      * @param request объект запроса, содержащий данные пользователя
      * @return объект Response с результатом выполнения операции:
-     *         - сообщение об успешной регистрации
+     *         - сообщение об успешной регистрации и токен сессии
      *         - сообщение об ошибке, если логин уже занят
      */
     @Override
     public Response execute(Request request) {
-        if (!dataBaseManager.existUser(request.getUser())) {
-            dataBaseManager.addUser(request.getUser());
-            return new Response("Регистрация успешна!");
+        return executeAsync(request).join();
+    }
+
+    /**
+     * Выполняет регистрацию, хешируя пароль в пуле хеширования.
+     *
+     * @param request объект запроса, содержащий данные пользователя
+     * @return future с ответом
+     */
+    @Override
+    public CompletableFuture<Response> executeAsync(Request request) {
+        Response taken = new Response(LoginError.LOGIN_ERROR, "Логин уже занят, введите новые данные");
+        if (request.getUser() == null) {
+            return CompletableFuture.completedFuture(
+                    new Response(LoginError.LOGIN_ERROR, "Регистрация не прошла"));
         }
-        return new Response(LoginError.LOGIN_ERROR, "Логин уже занят, введите новые данные");
+        return CompletableFuture.completedFuture(request.getUser())
+                .thenCompose(user -> dataBaseManager.existUser(user))
+                .thenCompose(exists -> exists
+                        ? CompletableFuture.completedFuture(false)
+                        : dataBaseManager.addUser(request.getUser()))
+                .thenApply(added -> added
+                        ? new Response("Регистрация успешна!", sessionManager.open(request.getUser().getLogin()))
+                        : taken)
+                .exceptionally(e -> Login.failure(e, "регистрацию"));
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.example.commands;
 
 import org.example.exceptions.NoElementException;
+import org.example.exceptions.PersistenceException;
 import org.example.mainClasses.MusicBand;
 import org.example.managers.CollectionManager;
 import org.example.managers.DataBaseManager;
@@ -64,10 +65,15 @@ public class RemoveAt extends Command implements Serializable {
     public Response execute(Request request) {
         try {
             long num = (long) request.getArgs();
-            MusicBand band = collectionManager.getBands().get((int) num);
+            MusicBand band = collectionManager.getAt((int) num);
 
-            if (dataBaseManager.deleteObject(request.getUser(), band.getId())) {
-                collectionManager.removeAt((int) num);
+            // При отложенной записи права проверяются по владельцу в коллекции
+            boolean allowed = collectionManager.isWriteBehind()
+                    ? request.getUser().getLogin().equals(band.getUserLogin())
+                    : dataBaseManager.deleteObject(request.getUser(), band.getId());
+            if (allowed) {
+                // Удаляем по ID: пока шел запрос к БД, позиции могли сдвинуться
+                collectionManager.removeById(band.getId());
                 return new Response("Объект успешно удален!");
             } else {
                 return new Response("Объект не удален");
@@ -76,6 +82,8 @@ public class RemoveAt extends Command implements Serializable {
             return new Response("Элемента под этим индексом нет!");
         } catch (NumberFormatException e) {
             return new Response("Введите число!");
+        } catch (PersistenceException e) {
+            return new Response("Объект не удален: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.example.commands;
 
 import org.example.exceptions.NoElementException;
+import org.example.exceptions.PersistenceException;
 import org.example.managers.CollectionManager;
 import org.example.managers.DataBaseManager;
 import org.example.network.Request;
@@ -46,6 +47,14 @@ public class RemoveById extends Command implements Serializable {
     @Override
     public Response execute(Request request) {
         try {
+            // При отложенной записи права проверяются по владельцу в коллекции, а из БД элемент удалится позже
+            if (collectionManager.isWriteBehind()) {
+                if (!collectionManager.isOwnedBy((long) request.getArgs(), request.getUser().getLogin())) {
+                    return new Response("Элемент не удален");
+                }
+                collectionManager.removeById((long) request.getArgs());
+                return new Response("Элемент успешно удален");
+            }
             // Пытаемся удалить элемент в базе данных по id и пользователю
             if (dataBaseManager.deleteObject(request.getUser(), (long) request.getArgs())) {
                 // Удаляем элемент из коллекции в памяти
@@ -57,6 +66,8 @@ public class RemoveById extends Command implements Serializable {
         } catch (NoElementException e) {
             // Если элемент с заданным id не найден
             return new Response("Элемента с таким айди нет");
+        } catch (PersistenceException e) {
+            return new Response("Элемент не удален: " + e.getMessage());
         }
     }
 }
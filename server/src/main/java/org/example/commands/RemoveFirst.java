@@ -1,6 +1,8 @@
 package org.example.commands;
 
 import org.example.exceptions.EmptyCollectionException;
+import org.example.exceptions.NoElementException;
+import org.example.exceptions.PersistenceException;
 import org.example.managers.CollectionManager;
 import org.example.managers.DataBaseManager;
 import org.example.network.Request;
@@ -47,16 +49,29 @@ public class RemoveFirst extends Command implements Serializable {
     public Response execute(Request request) {
         try {
             // Получаем ID первого элемента и пробуем удалить его из базы данных
-            if (dataBaseManager.deleteObject(request.getUser(), collectionManager.getFirstId())) {
-                // Если успешно удалено из БД, удаляем также из коллекции в памяти
-                collectionManager.removeFirst();
+            long id = collectionManager.getFirstId();
+            if (id == 0) {
+                throw new EmptyCollectionException();
+            }
+            // При отложенной записи права проверяются по владельцу в коллекции
+            boolean allowed = collectionManager.isWriteBehind()
+                    ? collectionManager.isOwnedBy(id, request.getUser().getLogin())
+                    : dataBaseManager.deleteObject(request.getUser(), id);
+            if (allowed) {
+                // Если успешно удалено из БД, удаляем этот же элемент из коллекции в памяти
+                collectionManager.removeById(id);
                 return new Response("Элемент успешно удален!");
             } else {
                 return new Response("Элемент не удален");
             }
+        } catch (NoElementException e) {
+            // Элемент уже удален другим запросом
+            return new Response("Элемент успешно удален!");
         } catch (EmptyCollectionException e) {
             // Обработка случая, когда коллекция пуста
             return new Response("Коллекция пуста!");
+        } catch (PersistenceException e) {
+            return new Response("Элемент не удален: " + e.getMessage());
         }
     }
 }
@@ -1,20 +1,27 @@
 package org.example.commands;
 
-import org.example.exceptions.EmptyCollectionException;
+import org.example.mainClasses.MusicBand;
 import org.example.managers.CollectionManager;
 import org.example.network.Request;
 import org.example.network.Response;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Команда для вывода всех элементов коллекции в строковом представлении.
+ * Команда для вывода элементов коллекции в строковом представлении.
+ * Коллекция выводится страницами, чтобы размер ответа не зависел от размера коллекции.
  */
 public class Show extends Command implements Serializable {
 
     @Serial
     private static final long serialVersionUID = 1348L;
+
+    /** Максимальное количество элементов в одном ответе */
+    private static final int PAGE_SIZE = 100;
+
     /**
      * Менеджер коллекции, используемый для управления элементами.
      */
@@ -26,16 +33,40 @@ public class Show extends Command implements Serializable {
      * @param collectionManager менеджер коллекции, который будет использоваться для получения данных
      */
     public Show(CollectionManager collectionManager) {
-        super("show", "show : вывести в стандартный поток вывода все элементы коллекции в строковом представлении");
+        super("show", "show [offset] : вывести в стандартный поток вывода элементы коллекции в строковом представлении");
         this.collectionManager = collectionManager;
     }
 
+    /**
+     * Выводит одну страницу коллекции.
+     * Аргумент запроса - позиция первого элемента (по умолчанию 0).
+     *
+     * @param request запрос клиента
+     * @return ответ с элементами страницы, их ID и размером коллекции
+     */
     @Override
     public Response execute(Request request) {
-        try {
-            return new Response(collectionManager.show());
-        } catch (EmptyCollectionException e) {
+        long offset = request.getArgs() instanceof Number number ? number.longValue() : 0;
+        if (offset < 0) {
+            return new Response("Позиция не может быть отрицательной");
+        }
+        CollectionManager.Page page = collectionManager.page((int) Math.min(offset, Integer.MAX_VALUE), PAGE_SIZE);
+        if (page.total() == 0) {
             return new Response("Коллекция пуста!");
         }
+        if (page.bands().isEmpty()) {
+            return new Response("Нет элементов с позиции " + offset + ", всего элементов: " + page.total(),
+                    List.of(), page.total());
+        }
+
+        StringBuilder result = new StringBuilder();
+        List<Long> ids = new ArrayList<>(page.bands().size());
+        for (MusicBand band : page.bands()) {
+            result.append(band).append('\n');
+            ids.add(band.getId());
+        }
+        result.append("Элементы ").append(offset + 1).append('-').append(offset + ids.size())
+                .append(" из ").append(page.total());
+        return new Response(result.toString(), ids, page.total());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package org.example.commands;
+
+import org.example.network.Request;
+import org.example.network.Response;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Команда для подписки на изменения коллекции.
+ * После успешного выполнения сервер рассылает соединению клиента уведомления
+ * о каждом изменении коллекции; регистрацию соединения выполняет сервер.
+ */
+public class Subscribe extends Command implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1352L;
+
+    /**
+     * Конструктор команды.
+     */
+    public Subscribe() {
+        super("subscribe", "subscribe : получать уведомления об изменениях коллекции");
+    }
+
+    /**
+     * Подтверждает подписку.
+     *
+     * @param request запрос клиента
+     * @return ответ с признаком успешной подписки
+     */
+    @Override
+    public Response execute(Request request) {
+        return new Response(true, "Подписка на изменения оформлена");
+    }
+}
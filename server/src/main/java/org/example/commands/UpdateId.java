@@ -2,6 +2,7 @@ package org.example.commands;
 
 import org.example.exceptions.InvalidDataException;
 import org.example.exceptions.NoElementException;
+import org.example.exceptions.PersistenceException;
 import org.example.managers.CollectionManager;
 import org.example.managers.DataBaseManager;
 import org.example.network.Request;
@@ -49,9 +50,20 @@ public class UpdateId extends Command implements Serializable {
         try {
             Long id = (Long) request.getArgs();
 
+            // При отложенной записи права проверяются по владельцу в коллекции, а в БД объект запишется позже
+            if (collectionManager.isWriteBehind()) {
+                if (!collectionManager.isOwnedBy(id, request.getUser().getLogin())) {
+                    return new Response("Объект не изменен");
+                }
+                request.getMusicBand().setUserLogin(request.getUser().getLogin());
+                collectionManager.updateId(id, request.getMusicBand());
+                return new Response("Объект успешно изменен");
+            }
+
             // Сначала пробуем обновить объект в БД
             if (dataBaseManager.updateObject(id, request.getUser(), request.getMusicBand())) {
                 // Если обновление в БД прошло успешно — обновляем в памяти
+                request.getMusicBand().setUserLogin(request.getUser().getLogin());
                 collectionManager.updateId(id, request.getMusicBand());
                 return new Response("Объект успешно изменен");
             }
@@ -64,6 +76,8 @@ public class UpdateId extends Command implements Serializable {
             return new Response("Объекта с таким id нет!");
         } catch (NumberFormatException e) {
             return new Response("Введите значение типа long");
+        } catch (PersistenceException e) {
+            return new Response("Объект не изменен: " + e.getMessage());
         }
     }
 }
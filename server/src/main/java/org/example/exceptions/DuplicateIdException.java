@@ -0,0 +1,17 @@
+package org.example.exceptions;
+
+/**
+ * Исключение, которое выбрасывается, когда ID добавляемой группы уже занят в коллекции.
+ * Коллекция в этом случае не изменяется.
+ */
+public class DuplicateIdException extends Exception {
+
+    /**
+     * Конструктор исключения.
+     *
+     * @param id занятый ID
+     */
+    public DuplicateIdException(long id) {
+        super("ID " + id + " уже есть в коллекции");
+    }
+}
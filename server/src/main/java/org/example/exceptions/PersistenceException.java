@@ -0,0 +1,28 @@
+package org.example.exceptions;
+
+/**
+ * Исключение, которое выбрасывается, когда изменение коллекции не может быть принято
+ * к отложенной записи в базу данных (очередь записи переполнена или журнал недоступен).
+ * Коллекция в этом случае не изменяется.
+ */
+public class PersistenceException extends Exception {
+
+    /**
+     * Конструктор исключения.
+     *
+     * @param message причина отказа
+     */
+    public PersistenceException(String message) {
+        super(message);
+    }
+
+    /**
+     * Конструктор исключения с исходной ошибкой.
+     *
+     * @param message причина отказа
+     * @param cause исходная ошибка
+     */
+    public PersistenceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
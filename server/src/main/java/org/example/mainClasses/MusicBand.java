@@ -118,10 +118,46 @@ public class MusicBand implements Validatable, Comparable<MusicBand>, Serializab
         return creationDate.toString();
     }
 
+    /**
+     * Возвращает дату создания записи о музыкальной группе.
+     *
+     * @return дата создания
+     */
+    public LocalDateTime getCreationDateTime() {
+        return creationDate;
+    }
+
     public String getUserLogin() {
         return userLogin;
     }
 
+    /**
+     * Устанавливает логин пользователя, создавшего элемент.
+     *
+     * @param userLogin логин владельца
+     */
+    public void setUserLogin(String userLogin) {
+        this.userLogin = userLogin;
+    }
+
+    /**
+     * Возвращает дату основания музыкальной группы.
+     *
+     * @return дата основания или null
+     */
+    public Date getEstablishmentDate() {
+        return establishmentDate;
+    }
+
+    /**
+     * Устанавливает дату основания музыкальной группы.
+     *
+     * @param establishmentDate дата основания
+     */
+    public void setEstablishmentDate(Date establishmentDate) {
+        this.establishmentDate = establishmentDate;
+    }
+
 
     /**
      * Возвращает лейбл музыкальной группы.
@@ -132,6 +168,15 @@ public class MusicBand implements Validatable, Comparable<MusicBand>, Serializab
         return label;
     }
 
+    /**
+     * Заменяет лейбл равным ему общим объектом из словаря лейблов хранилища.
+     *
+     * @param label лейбл группы
+     */
+    public void setLabel(Label label) {
+        this.label = label;
+    }
+
     /**
      * Возвращает название лейбла музыкальной группы.
      *
@@ -193,6 +238,16 @@ public class MusicBand implements Validatable, Comparable<MusicBand>, Serializab
     @Override
     public boolean validate() {
         if (id <= 0) return false;
+        return validateFields();
+    }
+
+    /**
+     * Проверяет поля, которые задает пользователь, то есть все, кроме ID.
+     * Позволяет проверить группу до того, как база данных назначит ей ID.
+     *
+     * @return true, если поля валидны, иначе false
+     */
+    public boolean validateFields() {
         if (name == null || name.isEmpty()) return false;
         if (coordinates == null) return false;
         if (numberOfParticipants != null && numberOfParticipants <= 0) return false;
@@ -229,6 +284,15 @@ public class MusicBand implements Validatable, Comparable<MusicBand>, Serializab
         return this.genre;
     }
 
+    /**
+     * Возвращает название жанра музыкальной группы.
+     *
+     * @return название жанра или null, если жанр не задан
+     */
+    public String getGenreName() {
+        return genre == null ? null : genre.name();
+    }
+
     /**
      * Возвращает количество участников музыкальной группы.
      *
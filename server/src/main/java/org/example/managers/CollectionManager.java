@@ -1,48 +1,161 @@
 package org.example.managers;
 
 import org.example.exceptions.AlreadyEmptyException;
+import org.example.exceptions.DuplicateIdException;
 import org.example.exceptions.EmptyCollectionException;
 import org.example.exceptions.InvalidDataException;
 import org.example.exceptions.NoElementException;
+import org.example.exceptions.PersistenceException;
 import org.example.mainClasses.Label;
 import org.example.mainClasses.MusicBand;
-import org.example.network.Response;
+import org.example.utility.ChangeLog;
+import org.example.utility.BandStore;
+import org.example.utility.MusicBandStore;
 
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
 
 /**
  * Менеджер коллекции музыкальных групп.
  * Обеспечивает хранение и управление коллекцией объектов MusicBand.
  * Поддерживает основные CRUD операции, сортировку, фильтрацию и другие операции с коллекцией.
+ * Операции по ID выполняются за O(1) благодаря индексу хранилища {@link BandStore};
+ * хранилище задается фабрикой: объектное {@link MusicBandStore} или столбцовое.
+ * Методы потокобезопасны: чтения выполняются параллельно под общей блокировкой,
+ * изменения - под исключительной.
+ * Каждое изменение записывается в журнал {@link ChangeLog}, по которому клиенты
+ * получают только разницу с известной им ревизией.
+ * Если включена отложенная запись, изменение под той же блокировкой ставится
+ * в очередь {@link WriteBehindQueue}, а метод возвращается после сброса журнала очереди на диск.
+ * Если задан {@link CollectionRecovery}, изменения записываются и в локальный журнал,
+ * а при перемешивании, очистке и замене коллекции и при заполнении журнала сохраняется ее снимок,
+ * чтобы после перезапуска собрать коллекцию без загрузки из базы.
+ * Под блокировкой коллекция для снимка только копируется, а записывается копия уже без блокировки.
  */
 public class CollectionManager {
-    /** Коллекция музыкальных групп (стек) */
-    private Stack<MusicBand> bands = new Stack<MusicBand>();
+    /** Количество последних изменений, по которым можно построить разницу */
+    private static final int CHANGE_LOG_CAPACITY = 4096;
+
+    /** Фабрика хранилищ по ожидаемому количеству групп */
+    private final IntFunction<BandStore> storeFactory;
+
+    /** Коллекция музыкальных групп с индексом по ID */
+    private BandStore bands;
+
+    /** Блокировка коллекции: чтение для просмотра, запись для изменений */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Блокировка на чтение */
+    private final Lock readLock = lock.readLock();
+
+    /** Блокировка на запись */
+    private final Lock writeLock = lock.writeLock();
+
+    /** Журнал изменений коллекции */
+    private final ChangeLog changeLog = new ChangeLog(CHANGE_LOG_CAPACITY);
 
     /** Дата инициализации коллекции */
     private LocalDate date;
 
     /** Менеджер для работы с базой данных */
-    private DataBaseManager dataBaseManager = new DataBaseManager();
+    private final DataBaseManager dataBaseManager;
+
+    /** Очередь отложенной записи или null, если изменения записываются в базу командами */
+    private final WriteBehindQueue writeBehind;
+
+    /** Локальные снимок и журнал коллекции или null, если коллекция восстанавливается только из базы */
+    private final CollectionRecovery recovery;
+
+    /** Запрошен ли снимок после заполнения локального журнала */
+    private final AtomicBoolean snapshotRequested = new AtomicBoolean();
+
+    /** Блокировка записи снимков: снимки записываются по одному */
+    private final Object snapshotLock = new Object();
 
     /**
      * Конструктор менеджера коллекции.
      * Инициализирует дату создания коллекции текущей датой.
-     * @throws SQLException при ошибках работы с базой данных
+     * @param dataBaseManager менеджер базы данных, из которой загружается коллекция
+     */
+    public CollectionManager(DataBaseManager dataBaseManager) {
+        this(dataBaseManager, null);
+    }
+
+    /**
+     * Конструктор менеджера коллекции с локальным восстановлением.
+     * @param dataBaseManager менеджер базы данных, из которой загружается коллекция
+     * @param recovery локальные снимок и журнал коллекции или null
      */
-    public CollectionManager() throws SQLException {
+    public CollectionManager(DataBaseManager dataBaseManager, CollectionRecovery recovery) {
+        this(dataBaseManager, recovery, MusicBandStore::new);
+    }
+
+    /**
+     * Конструктор менеджера коллекции с заданным хранилищем.
+     * @param dataBaseManager менеджер базы данных, из которой загружается коллекция
+     * @param recovery локальные снимок и журнал коллекции или null
+     * @param storeFactory фабрика хранилищ по ожидаемому количеству групп
+     */
+    public CollectionManager(DataBaseManager dataBaseManager, CollectionRecovery recovery,
+                             IntFunction<BandStore> storeFactory) {
+        this.dataBaseManager = dataBaseManager;
+        this.storeFactory = storeFactory;
+        this.bands = storeFactory.apply(0);
+        this.writeBehind = dataBaseManager != null ? dataBaseManager.getWriteBehind() : null;
+        this.recovery = recovery;
         this.date = LocalDate.parse(LocalDate.now().toString());
     }
 
     /**
-     * Возвращает текущую коллекцию музыкальных групп.
-     * @return стек объектов MusicBand
+     * Проверяет, записываются ли изменения коллекции в базу отложенно.
+     * В этом режиме команды изменяют только коллекцию, а права проверяют по владельцу в памяти.
+     * @return true если включена отложенная запись
+     */
+    public boolean isWriteBehind() {
+        return writeBehind != null;
+    }
+
+    /**
+     * Выдает ID для новых групп при отложенной записи.
+     * @param count количество ID
+     * @return ID в порядке возрастания
+     * @throws PersistenceException если ID не удалось зарезервировать
      */
-    public Stack<MusicBand> getBands() {
-        return this.bands;
+    public List<Long> nextIds(int count) throws PersistenceException {
+        return writeBehind.nextIds(count);
+    }
+
+    /**
+     * Проверяет, принадлежит ли группа пользователю.
+     * @param id ID группы
+     * @param login логин пользователя
+     * @return true если владелец группы - пользователь
+     * @throws NoElementException если группа не найдена
+     */
+    public boolean isOwnedBy(long id, String login) throws NoElementException {
+        MusicBand band = getById(id);
+        if (band == null) {
+            throw new NoElementException();
+        }
+        return login.equals(band.getUserLogin());
+    }
+
+    /**
+     * Возвращает ID элементов, принадлежащих пользователю.
+     * @param login логин владельца
+     * @return список ID элементов пользователя
+     */
+    public List<Long> getUserIds(String login) {
+        readLock.lock();
+        try {
+            return bands.idsOwnedBy(login);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -50,34 +163,32 @@ public class CollectionManager {
      * @return ID первого элемента или 0, если коллекция пуста
      */
     public long getFirstId() {
-        for (MusicBand band : this.bands) {
-            return band.getId();
+        readLock.lock();
+        try {
+            MusicBand first = bands.first();
+            return first == null ? 0 : first.getId();
+        } finally {
+            readLock.unlock();
         }
-        return 0;
     }
 
     /**
-     * Группирует элементы коллекции по лейблу и возвращает статистику.
-     * @return строку с группировкой по лейблам и количеством элементов
+     * Группирует элементы коллекции по лейблу.
+     * Группировка выполняется по номерам словаря лейблов хранилища, без хеширования лейблов.
+     * Возвращает снимок коллекции без форматирования элементов, поэтому блокировка удерживается недолго.
+     * @return группы элементов по лейблам
      * @throws EmptyCollectionException если коллекция пуста
      */
-    public String groupByLabel() throws EmptyCollectionException {
-        if (bands.isEmpty()) {
-            throw new EmptyCollectionException();
+    public Map<Label, List<MusicBand>> groupByLabel() throws EmptyCollectionException {
+        readLock.lock();
+        try {
+            if (bands.isEmpty()) {
+                throw new EmptyCollectionException();
+            }
+            return bands.groupByLabel();
+        } finally {
+            readLock.unlock();
         }
-
-        return bands.stream()
-                .collect(Collectors.groupingBy(MusicBand::getLabel))
-                .entrySet().stream()
-                .map(entry -> {
-                    String label = entry.getKey().toString();
-                    List<MusicBand> musicBands = entry.getValue();
-                    return label + ", Count: " + musicBands.size() + "\n" +
-                            musicBands.stream()
-                                    .map(MusicBand::toString)
-                                    .collect(Collectors.joining("\n"));
-                })
-                .collect(Collectors.joining("\n"));
     }
 
     /**
@@ -102,12 +213,12 @@ public class CollectionManager {
      * @return true если ID уникален, иначе false
      */
     public boolean checkId(MusicBand musicBand) {
-        for (MusicBand band : bands) {
-            if (musicBand.getId() == band.getId()) {
-                return false;
-            }
+        readLock.lock();
+        try {
+            return !bands.contains(musicBand.getId());
+        } finally {
+            readLock.unlock();
         }
-        return true;
     }
 
     /**
@@ -115,24 +226,37 @@ public class CollectionManager {
      * @return true если все ID уникальны, иначе false
      */
     public boolean checkSameId() {
-        Set<Long> ids = new HashSet<>();
-        for (MusicBand band : bands) {
-            if (!ids.add(band.getId())) {
-                return false;
+        readLock.lock();
+        try {
+            Set<Long> ids = new HashSet<>();
+            for (MusicBand band : bands) {
+                if (!ids.add(band.getId())) {
+                    return false;
+                }
             }
+            return true;
+        } finally {
+            readLock.unlock();
         }
-        return true;
     }
 
     /**
      * Добавляет коллекцию музыкальных групп в текущую коллекцию.
      * @param collection коллекция для добавления
      * @throws InvalidDataException если данные группы невалидны
+     * @throws DuplicateIdException если ID группы уже есть в коллекции
+     * @throws PersistenceException если изменение не принято к отложенной записи
      */
-    public void addElem(Collection<MusicBand> collection) throws InvalidDataException {
+    public void addElem(Collection<MusicBand> collection) throws InvalidDataException, DuplicateIdException,
+            PersistenceException {
         if (collection == null) return;
-        for (MusicBand band : collection) {
-            add(band);
+        writeLock.lock();
+        try {
+            for (MusicBand band : collection) {
+                add(band);
+            }
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -140,16 +264,54 @@ public class CollectionManager {
      * Добавляет музыкальную группу в коллекцию.
      * @param band группа для добавления
      * @throws InvalidDataException если данные группы невалидны
+     * @throws DuplicateIdException если ID группы уже есть в коллекции
+     * @throws PersistenceException если изменение не принято к отложенной записи
      */
-    public void add(MusicBand band) throws InvalidDataException {
-        if (!band.validate()) {
-            throw new InvalidDataException();
+    public void add(MusicBand band) throws InvalidDataException, DuplicateIdException, PersistenceException {
+        addAll(List.of(band));
+    }
+
+    /**
+     * Добавляет набор музыкальных групп атомарно: читатели коллекции видят либо все группы, либо ни одной.
+     * @param added группы для добавления
+     * @throws InvalidDataException если данные хотя бы одной группы невалидны; тогда коллекция не изменяется
+     * @throws DuplicateIdException если ID группы уже есть в коллекции или повторяется в наборе;
+     *                              тогда коллекция не изменяется
+     * @throws PersistenceException если изменение не принято к отложенной записи; тогда коллекция не изменяется
+     */
+    public void addAll(Collection<MusicBand> added) throws InvalidDataException, DuplicateIdException,
+            PersistenceException {
+        Set<Long> ids = new HashSet<>();
+        for (MusicBand band : added) {
+            if (!band.validate()) {
+                throw new InvalidDataException();
+            }
+            if (!ids.add(band.getId())) {
+                throw new DuplicateIdException(band.getId());
+            }
         }
-        while (!checkId(band)) {
-            MusicBand.idcounter++;
-            band.setId(MusicBand.idcounter);
+        long sequence = 0;
+        writeLock.lock();
+        try {
+            for (MusicBand band : added) {
+                if (bands.contains(band.getId())) {
+                    throw new DuplicateIdException(band.getId());
+                }
+            }
+            if (writeBehind != null) {
+                // ID выданы последовательностью базы данных и не совпадают с ID коллекции
+                sequence = writeBehind.upsert(added);
+            }
+            for (MusicBand band : added) {
+                bands.add(band);
+                changeLog.upsert(band);
+                logUpsert(band);
+            }
+        } finally {
+            writeLock.unlock();
         }
-        bands.add(band);
+        syncJournal(sequence);
+        snapshotIfRequested();
     }
 
     /**
@@ -158,23 +320,33 @@ public class CollectionManager {
      * @return найденная группа или null, если не найдена
      */
     public MusicBand getById(long id) {
-        for (MusicBand band : bands) {
-            if (band.getId() == id) return band;
+        readLock.lock();
+        try {
+            return bands.getById(id);
+        } finally {
+            readLock.unlock();
         }
-        return null;
     }
 
     /**
      * Удаляет музыкальную группу по ID.
      * @param id ID группы для удаления
      * @throws NoElementException если группа не найдена
+     * @throws PersistenceException если изменение не принято к отложенной записи
      */
-    public void removeById(long id) throws NoElementException {
-        MusicBand band = getById(id);
-        if (band == null) {
-            throw new NoElementException();
+    public void removeById(long id) throws NoElementException, PersistenceException {
+        long sequence = 0;
+        writeLock.lock();
+        try {
+            if (!bands.contains(id)) {
+                throw new NoElementException();
+            }
+            sequence = delete(id);
+        } finally {
+            writeLock.unlock();
         }
-        bands.remove(band);
+        syncJournal(sequence);
+        snapshotIfRequested();
     }
 
     /**
@@ -189,12 +361,27 @@ public class CollectionManager {
     /**
      * Очищает коллекцию.
      * @throws AlreadyEmptyException если коллекция уже пуста
+     * @throws PersistenceException если удаление не принято к отложенной записи
      */
-    public void clear() throws AlreadyEmptyException {
-        if (bands.isEmpty()) {
-            throw new AlreadyEmptyException();
+    public void clear() throws AlreadyEmptyException, PersistenceException {
+        long sequence = 0;
+        SnapshotCut cut;
+        writeLock.lock();
+        try {
+            if (bands.isEmpty()) {
+                throw new AlreadyEmptyException();
+            }
+            if (writeBehind != null) {
+                sequence = writeBehind.delete(bands.stream().map(MusicBand::getId).toList());
+            }
+            bands.clear();
+            changeLog.reset();
+            cut = cutSnapshot(true);
+        } finally {
+            writeLock.unlock();
         }
-        bands.clear();
+        syncJournal(sequence);
+        writeSnapshot(cut);
     }
 
     /**
@@ -207,10 +394,10 @@ public class CollectionManager {
 
     /**
      * Возвращает тип коллекции.
-     * @return тип коллекции (Stack)
+     * @return тип коллекции
      */
     public String getTypeOfCollection() {
-        return "Stack";
+        return bands.getClass().getSimpleName();
     }
 
     /**
@@ -218,7 +405,12 @@ public class CollectionManager {
      * @return количество элементов
      */
     public int size() {
-        return bands.size();
+        readLock.lock();
+        try {
+            return bands.size();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -226,9 +418,14 @@ public class CollectionManager {
      * @return строка с типом, датой создания и размером коллекции
      */
     public String info() {
-        return "Тип: " + getTypeOfCollection() + "\n" +
-                "Дата Создания: " + getDate() + "\n" +
-                "Размер: " + size();
+        readLock.lock();
+        try {
+            return "Тип: " + getTypeOfCollection() + "\n" +
+                    "Дата Создания: " + getDate() + "\n" +
+                    "Размер: " + bands.size();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -236,14 +433,19 @@ public class CollectionManager {
      * @throws EmptyCollectionException если коллекция пуста
      */
     public void shuffle() throws EmptyCollectionException {
-        if (bands.isEmpty()) {
-            throw new EmptyCollectionException();
+        SnapshotCut cut;
+        writeLock.lock();
+        try {
+            if (bands.isEmpty()) {
+                throw new EmptyCollectionException();
+            }
+            bands.shuffle();
+            changeLog.reset();
+            cut = cutSnapshot(true);
+        } finally {
+            writeLock.unlock();
         }
-        List<MusicBand> newCollection = new ArrayList<>(bands);
-        Collections.shuffle(newCollection);
-        Stack<MusicBand> shuffled = new Stack<>();
-        shuffled.addAll(newCollection);
-        this.bands = shuffled;
+        writeSnapshot(cut);
     }
 
     /**
@@ -252,104 +454,427 @@ public class CollectionManager {
      * @param band новые данные группы
      * @throws NoElementException если группа не найдена
      * @throws InvalidDataException если данные невалидны
+     * @throws PersistenceException если изменение не принято к отложенной записи
      */
-    public void updateId(long id, MusicBand band) throws NoElementException, InvalidDataException {
-        MusicBand oldElem = getById(id);
-        if (oldElem == null) {
-            throw new NoElementException();
-        }
+    public void updateId(long id, MusicBand band) throws NoElementException, InvalidDataException,
+            PersistenceException {
         if (!band.validate()) {
             throw new InvalidDataException();
         }
-        bands.remove(oldElem);
-        band.setId(id);
-        bands.add(band);
+        long sequence = 0;
+        writeLock.lock();
+        try {
+            if (!bands.contains(id)) {
+                throw new NoElementException();
+            }
+            band.setId(id);
+            if (writeBehind != null) {
+                sequence = writeBehind.upsert(List.of(band));
+            }
+            bands.replace(id, band);
+            changeLog.upsert(band);
+            logUpsert(band);
+        } finally {
+            writeLock.unlock();
+        }
+        syncJournal(sequence);
+        snapshotIfRequested();
     }
 
     /**
      * Возвращает названия лейблов в обратном алфавитном порядке.
-     * @return строку с названиями лейблов
+     * @return названия лейблов
      */
-    public String printLabelField() {
-        return bands.stream()
-                .map(MusicBand::getLabelName)
-                .sorted(Comparator.nullsLast(Comparator.reverseOrder()))
-                .collect(Collectors.joining("\n"));
+    public List<String> printLabelField() {
+        readLock.lock();
+        try {
+            return bands.stream()
+                    .map(MusicBand::getLabelName)
+                    .sorted(Comparator.nullsLast(Comparator.reverseOrder()))
+                    .toList();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
      * Возвращает элементы коллекции в порядке возрастания.
-     * @return строковое представление отсортированной коллекции
+     * Возвращает снимок коллекции без форматирования элементов, поэтому блокировка удерживается недолго.
+     * @return отсортированные элементы
      * @throws EmptyCollectionException если коллекция пуста
      */
-    public String printAscend() throws EmptyCollectionException {
-        if (bands.isEmpty()) {
-            throw new EmptyCollectionException();
+    public List<MusicBand> printAscend() throws EmptyCollectionException {
+        readLock.lock();
+        try {
+            if (bands.isEmpty()) {
+                throw new EmptyCollectionException();
+            }
+            return bands.stream()
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        } finally {
+            readLock.unlock();
         }
-        return bands.stream()
-                .sorted(Comparator.naturalOrder())
-                .map(MusicBand::toString)
-                .collect(Collectors.joining("\n"));
     }
 
     /**
-     * Возвращает все элементы коллекции.
-     * @return строковое представление коллекции
-     * @throws EmptyCollectionException если коллекция пуста
+     * Возвращает страницу элементов коллекции в порядке хранения.
+     * Копируется только сама страница, поэтому память на запрос не зависит от размера коллекции.
+     * @param offset позиция первого элемента от 0
+     * @param limit максимальное количество элементов
+     * @return элементы страницы и размер коллекции
      */
-    public String show() throws EmptyCollectionException {
-        if (bands.isEmpty()) {
-            throw new EmptyCollectionException();
+    public Page page(int offset, int limit) {
+        readLock.lock();
+        try {
+            return new Page(bands.range(offset, limit), bands.size());
+        } finally {
+            readLock.unlock();
         }
-
-        return bands.stream()
-                .map(MusicBand::toString)
-                .collect(Collectors.joining("\n"));
     }
 
     /**
      * Удаляет первый элемент коллекции.
      * @throws EmptyCollectionException если коллекция пуста
+     * @throws PersistenceException если удаление не принято к отложенной записи
      */
-    public void removeFirst() throws EmptyCollectionException {
-        if (bands.isEmpty()) {
-            throw new EmptyCollectionException();
+    public void removeFirst() throws EmptyCollectionException, PersistenceException {
+        long sequence;
+        writeLock.lock();
+        try {
+            MusicBand first = bands.first();
+            if (first == null) {
+                throw new EmptyCollectionException();
+            }
+            sequence = delete(first.getId());
+        } finally {
+            writeLock.unlock();
         }
-        bands.remove(bands.lastElement());
+        syncJournal(sequence);
+        snapshotIfRequested();
     }
 
     /**
      * Удаляет элемент по индексу.
      * @param num индекс элемента
      * @throws NoElementException если индекс невалиден
+     * @throws PersistenceException если удаление не принято к отложенной записи
      */
-    public void removeAt(int num) throws NoElementException {
-        if (num < 0 || num >= bands.size()) {
-            throw new NoElementException();
+    public void removeAt(int num) throws NoElementException, PersistenceException {
+        long sequence;
+        writeLock.lock();
+        try {
+            MusicBand band = bands.getAt(num);
+            if (band == null) {
+                throw new NoElementException();
+            }
+            sequence = delete(band.getId());
+        } finally {
+            writeLock.unlock();
+        }
+        syncJournal(sequence);
+        snapshotIfRequested();
+    }
+
+    /**
+     * Удаляет группу из коллекции, журнала изменений и базы данных. Вызывается под блокировкой на запись.
+     * @param id ID удаляемой группы, которая есть в коллекции
+     * @return номер записи журнала отложенной записи или 0
+     * @throws PersistenceException если удаление не принято к отложенной записи
+     */
+    private long delete(long id) throws PersistenceException {
+        long sequence = writeBehind == null ? 0 : writeBehind.delete(List.of(id));
+        bands.removeById(id);
+        changeLog.delete(id);
+        logDelete(id);
+        return sequence;
+    }
+
+    /**
+     * Возвращает элемент по индексу.
+     * Берет блокировку на запись, так как хранилище может уплотнить ячейки.
+     * @param num индекс элемента
+     * @return элемент коллекции
+     * @throws NoElementException если индекс невалиден
+     */
+    public MusicBand getAt(int num) throws NoElementException {
+        writeLock.lock();
+        try {
+            MusicBand band = bands.getAt(num);
+            if (band == null) {
+                throw new NoElementException();
+            }
+            return band;
+        } finally {
+            writeLock.unlock();
         }
-        bands.remove(num);
     }
 
     /**
      * Устанавливает новую коллекцию.
+     * Хранилище заполняется целиком и только затем подменяет текущее.
      * @param bands новая коллекция музыкальных групп
      */
-    public void setBands(Stack<MusicBand> bands) {
-        this.bands = bands;
+    public void setBands(Collection<MusicBand> bands) {
+        BandStore store = storeFactory.apply(bands.size());
+        for (MusicBand band : bands) {
+            store.add(band);
+        }
+        SnapshotCut cut;
+        writeLock.lock();
+        try {
+            this.bands = store;
+            changeLog.reset();
+            cut = cutSnapshot(true);
+        } finally {
+            writeLock.unlock();
+        }
+        writeSnapshot(cut);
     }
 
     /**
      * Загружает коллекцию из базы данных.
+     * Группы добавляются в новое хранилище по мере чтения без блокировки коллекции;
+     * текущая коллекция подменяется целиком, только если загрузка прошла успешно.
+     * @return количество загруженных групп или -1, если загрузка не удалась
+     */
+    public long loadCollection() {
+        if (writeBehind != null && !writeBehind.flushNow()) {
+            System.err.println("Не удалось записать в базу изменения из журнала отложенной записи");
+            return -1;
+        }
+        BandStore store = storeFactory.apply(0);
+        long loaded = dataBaseManager.loadBands(store::add);
+        if (loaded < 0) {
+            return loaded;
+        }
+        SnapshotCut cut;
+        writeLock.lock();
+        try {
+            this.bands = store;
+            changeLog.reset();
+            cut = cutSnapshot(true);
+        } finally {
+            writeLock.unlock();
+        }
+        writeSnapshot(cut);
+        return loaded;
+    }
+
+    /**
+     * Восстанавливает коллекцию из локальных снимка и журнала, а если их нет или они
+     * повреждены - загружает из базы данных.
+     * @return количество групп или -1, если коллекцию не удалось ни восстановить, ни загрузить
+     */
+    public long recoverCollection() {
+        BandStore store = recovery != null ? recovery.load(storeFactory) : null;
+        if (store == null) {
+            return loadCollection();
+        }
+        writeLock.lock();
+        try {
+            this.bands = store;
+            changeLog.reset();
+        } finally {
+            writeLock.unlock();
+        }
+        return store.size();
+    }
+
+    /**
+     * Сохраняет снимок коллекции и удаляет локальные журналы, вошедшие в него.
+     * Под блокировкой на чтение коллекция только копируется, поэтому изменения
+     * не ждут записи снимка на диск.
+     * @param force записать снимок, даже если после прошлого снимка изменений не было
+     * @return true если снимок записан или не требовался
+     */
+    public boolean saveSnapshot(boolean force) {
+        if (recovery == null) {
+            return false;
+        }
+        synchronized (snapshotLock) {
+            SnapshotCut cut;
+            readLock.lock();
+            try {
+                if (!force && !recovery.hasChanges()) {
+                    return true;
+                }
+                cut = cutSnapshot(false);
+            } finally {
+                readLock.unlock();
+            }
+            return writeSnapshot(cut);
+        }
+    }
+
+    /**
+     * Сохраняет снимок коллекции и закрывает локальный журнал.
+     */
+    public void close() {
+        if (recovery != null) {
+            saveSnapshot(false);
+            recovery.close();
+        }
+    }
+
+    /**
+     * Удаляет элементы по набору ID за один проход.
+     * @param ids набор ID для удаления
+     * @return количество удаленных элементов
+     * @throws PersistenceException если изменение не принято к отложенной записи
+     */
+    public int removeElements(Collection<Long> ids) throws PersistenceException {
+        long sequence = 0;
+        List<Long> removed = new ArrayList<>(ids.size());
+        writeLock.lock();
+        try {
+            for (long id : ids) {
+                if (bands.contains(id)) {
+                    removed.add(id);
+                }
+            }
+            if (writeBehind != null && !removed.isEmpty()) {
+                sequence = writeBehind.delete(removed);
+            }
+            for (long id : removed) {
+                bands.removeById(id);
+                changeLog.delete(id);
+                logDelete(id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        syncJournal(sequence);
+        snapshotIfRequested();
+        return removed.size();
+    }
+
+    /**
+     * Устанавливает получателя изменений коллекции.
+     * @param listener получатель, вызываемый при каждом изменении под блокировкой коллекции
+     */
+    public void setChangeListener(ChangeLog.Listener listener) {
+        writeLock.lock();
+        try {
+            changeLog.setListener(listener);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает текущую ревизию коллекции.
+     * @return ревизия, увеличивающаяся при каждом изменении
+     */
+    public long getRevision() {
+        readLock.lock();
+        try {
+            return changeLog.getRevision();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает изменения коллекции после заданной ревизии.
+     * Если разницу построить нельзя (ревизия слишком старая или из прошлого запуска сервера),
+     * возвращается полный снимок коллекции.
+     * @param revision ревизия, известная клиенту
+     * @return разница или снимок коллекции
+     */
+    public ChangeLog.Delta changesSince(long revision) {
+        readLock.lock();
+        try {
+            ChangeLog.Delta delta = changeLog.changesSince(revision);
+            if (delta != null) {
+                return delta;
+            }
+            return new ChangeLog.Delta(changeLog.getRevision(), true, bands.stream().toList(), List.of());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Записывает изменение группы в локальный журнал. Вызывается под блокировкой на запись.
+     * @param band добавленная или измененная группа
+     */
+    private void logUpsert(MusicBand band) {
+        if (recovery != null && recovery.logUpsert(band)) {
+            snapshotRequested.set(true);
+        }
+    }
+
+    /**
+     * Записывает удаление группы в локальный журнал. Вызывается под блокировкой на запись.
+     * @param id ID удаленной группы
+     */
+    private void logDelete(long id) {
+        if (recovery != null && recovery.logDelete(id)) {
+            snapshotRequested.set(true);
+        }
+    }
+
+    /**
+     * Начинает новое поколение локального журнала и копирует коллекцию для снимка.
+     * Вызывается под блокировкой коллекции, чтобы копия точно соответствовала началу журнала.
+     * @param reset true если изменение нельзя повторить по журналу (очистка, перемешивание, замена)
+     * @return точка снимка или null, если локального восстановления нет или журнал не удалось создать
+     */
+    private SnapshotCut cutSnapshot(boolean reset) {
+        if (recovery == null) {
+            return null;
+        }
+        long generation = recovery.rotate(reset);
+        return generation < 0 ? null : new SnapshotCut(generation, bands.copy());
+    }
+
+    /**
+     * Записывает снимок по точке, сделанной {@link #cutSnapshot(boolean)}. Вызывается без блокировки коллекции.
+     * @param cut точка снимка или null
+     * @return true если снимок записан
+     */
+    private boolean writeSnapshot(SnapshotCut cut) {
+        if (cut == null) {
+            return false;
+        }
+        synchronized (snapshotLock) {
+            return recovery.writeSnapshot(cut.generation(), cut.bands());
+        }
+    }
+
+    /**
+     * Сохраняет снимок, если локальный журнал заполнился. Вызывается после снятия блокировки коллекции.
+     */
+    private void snapshotIfRequested() {
+        if (snapshotRequested.compareAndSet(true, false)) {
+            saveSnapshot(true);
+        }
+    }
+
+    /**
+     * Ожидает сброса журнала отложенной записи на диск после снятия блокировки коллекции.
+     * @param sequence номер записи журнала или 0, если запись не добавлялась
+     */
+    private void syncJournal(long sequence) {
+        if (sequence > 0) {
+            writeBehind.sync(sequence);
+        }
+    }
+
+    /**
+     * Страница элементов коллекции.
+     * @param bands элементы страницы
+     * @param total количество элементов во всей коллекции
      */
-    public void loadCollection() {
-        this.setBands(dataBaseManager.createCollection());
+    public record Page(List<MusicBand> bands, int total) {
     }
 
     /**
-     * Удаляет элементы по списку ID.
-     * @param ids список ID для удаления
+     * Точка снимка: поколение журнала и копия коллекции на момент его начала.
+     * @param generation поколение журнала, с которого начинаются изменения после снимка
+     * @param bands копия коллекции
      */
-    public void removeElements(List<Long> ids) {
-        ids.forEach(id -> bands.remove(getById((id))));
+    private record SnapshotCut(long generation, List<MusicBand> bands) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,342 @@
+package org.example.managers;
+
+import org.example.mainClasses.MusicBand;
+import org.example.utility.CollectionSnapshot;
+import org.example.utility.BandStore;
+import org.example.utility.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Локальное восстановление коллекции без загрузки из базы данных.
+ * Хранит в каталоге снимки коллекции {@link CollectionSnapshot} и журналы {@link WriteAheadLog}
+ * изменений, сделанных после снимка. При запуске коллекция собирается из снимка
+ * и повтора журналов; повтор идемпотентен, так как запись журнала - это итоговое состояние группы
+ * или ее удаление.
+ *
+ * <p>Журналы и снимки нумеруются поколениями: {@code collection-<поколение>.wal}
+ * и {@code collection-<поколение>.snapshot}. Снимок поколения N содержит все изменения
+ * журналов до N, а журнал N и следующие за ним - изменения после снимка.
+ * Снимок делается в два шага: под блокировкой коллекции {@link #rotate(boolean)} начинает
+ * журнал нового поколения, а коллекция копируется; затем копия записывается
+ * {@link #writeSnapshot(long, List)} без блокировки коллекции, пока изменения идут в новый журнал.
+ * Прежние снимки и журналы удаляются только после записи нового снимка, поэтому при падении
+ * во время записи коллекция собирается из прежнего снимка и всех журналов после него.</p>
+ *
+ * <p>Изменения, которые нельзя записать в журнал по группам (очистка, перемешивание, замена коллекции),
+ * начинают поколение со сбросом: прежние снимки и журналы удаляются сразу, и до записи нового снимка
+ * локальной копии нет - следующий запуск загрузит коллекцию из базы данных.
+ * Так же локальная копия считается недействительной, если снимок не удалось записать.</p>
+ */
+public class CollectionRecovery implements AutoCloseable {
+
+    /** Префикс имен файлов снимков и журналов */
+    private static final String PREFIX = "collection-";
+
+    /** Суффикс имени файла снимка */
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    /** Суффикс имени файла журнала */
+    private static final String LOG_SUFFIX = ".wal";
+
+    /** Каталог снимков и журналов */
+    private final Path directory;
+
+    /** Размер файла журнала (байт) */
+    private final int logCapacity;
+
+    /** Журнал текущего поколения или null, если он еще не открыт */
+    private WriteAheadLog log;
+
+    /** Текущее поколение журнала */
+    private long generation;
+
+    /** Поколение последнего записанного снимка */
+    private long snapshotGeneration = -1;
+
+    /** Соответствуют ли снимок и журналы коллекции */
+    private boolean valid;
+
+    /**
+     * Открывает каталог восстановления, создавая его при необходимости.
+     *
+     * @param directory каталог снимков и журналов
+     * @param logCapacity размер файла журнала (байт)
+     * @throws IOException если каталог не удалось создать или прочитать
+     */
+    public CollectionRecovery(Path directory, int logCapacity) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.logCapacity = logCapacity;
+        for (long index : generations(SNAPSHOT_SUFFIX)) {
+            generation = Math.max(generation, index);
+        }
+        for (long index : generations(LOG_SUFFIX)) {
+            generation = Math.max(generation, index);
+        }
+    }
+
+    /**
+     * Собирает коллекцию из последнего снимка и журналов начиная с его поколения.
+     *
+     * @param storeFactory создает хранилище по ожидаемому количеству групп
+     * @return коллекция или null, если снимка нет, он поврежден или цепочка журналов после него неполна
+     */
+    public synchronized BandStore load(IntFunction<BandStore> storeFactory) {
+        BandStore store;
+        long base;
+        try {
+            List<Long> snapshots = generations(SNAPSHOT_SUFFIX);
+            if (snapshots.isEmpty()) {
+                return null;
+            }
+            CollectionSnapshot snapshot = CollectionSnapshot.open(snapshotPath(snapshots.get(snapshots.size() - 1)));
+            base = snapshot.getGeneration();
+            store = storeFactory.apply(snapshot.size());
+            for (int i = 0; i < snapshot.size(); i++) {
+                store.add(snapshot.getBand(i));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Не удалось прочитать снимок коллекции: " + e.getMessage());
+            return null;
+        }
+
+        WriteAheadLog last = null;
+        long index = base;
+        int replayed = 0;
+        try {
+            for (; Files.exists(logPath(index)); index++) {
+                if (last != null) {
+                    last.close();
+                }
+                last = WriteAheadLog.open(logPath(index), logCapacity);
+                if (last.getGeneration() != index) {
+                    throw new IOException("журнал " + logPath(index) + " относится к поколению "
+                            + last.getGeneration());
+                }
+                replayed += last.replay((id, band) -> {
+                    if (band == null) {
+                        store.removeById(id);
+                    } else if (!store.replace(id, band)) {
+                        store.add(band);
+                    }
+                });
+            }
+            if (last == null || index <= generation) {
+                throw new IOException("цепочка журналов после снимка поколения " + base + " неполна");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Журналы коллекции не согласованы со снимком: " + e.getMessage());
+            closeQuietly(last);
+            return null;
+        }
+        if (replayed > 0) {
+            System.err.println("Из журналов коллекции повторено изменений: " + replayed);
+        }
+        log = last;
+        generation = index - 1;
+        snapshotGeneration = base;
+        valid = true;
+        deleteBefore(base);
+        return store;
+    }
+
+    /**
+     * Записывает в журнал добавленную или измененную группу.
+     * Если журнал заполнен, начинает журнал следующего поколения; тогда нужно сохранить снимок,
+     * чтобы прежние журналы можно было удалить.
+     * Вызывается под блокировкой коллекции на запись.
+     *
+     * @param band группа
+     * @return true если начат новый журнал и нужен снимок
+     */
+    public synchronized boolean logUpsert(MusicBand band) {
+        if (!valid || log == null || log.upsert(band)) {
+            return false;
+        }
+        if (rotate(false) < 0) {
+            return false;
+        }
+        if (!log.upsert(band)) {
+            System.err.println("Изменение группы " + band.getId() + " больше журнала коллекции");
+            invalidate();
+        }
+        return true;
+    }
+
+    /**
+     * Записывает в журнал удаление группы.
+     * Если журнал заполнен, начинает журнал следующего поколения; тогда нужно сохранить снимок.
+     * Вызывается под блокировкой коллекции на запись.
+     *
+     * @param id ID группы
+     * @return true если начат новый журнал и нужен снимок
+     */
+    public synchronized boolean logDelete(long id) {
+        if (!valid || log == null || log.delete(id)) {
+            return false;
+        }
+        if (rotate(false) < 0) {
+            return false;
+        }
+        log.delete(id);
+        return true;
+    }
+
+    /**
+     * Проверяет, есть ли изменения, не вошедшие в снимок.
+     *
+     * @return true если есть записи журнала после снимка или снимок недействителен;
+     *         false если коллекция еще не загружена
+     */
+    public synchronized boolean hasChanges() {
+        return log != null && (!valid || log.getRecords() > 0 || generation > snapshotGeneration);
+    }
+
+    /**
+     * Начинает журнал следующего поколения. Вызывается под блокировкой коллекции вместе
+     * с копированием коллекции, которую затем нужно записать {@link #writeSnapshot(long, List)}
+     * с возвращенным поколением.
+     *
+     * @param reset true если изменение коллекции нельзя повторить по журналам: тогда прежние
+     *              снимки и журналы удаляются сразу
+     * @return поколение нового журнала или -1, если журнал не удалось создать
+     */
+    public synchronized long rotate(boolean reset) {
+        long next = generation + 1;
+        WriteAheadLog nextLog;
+        try {
+            Files.deleteIfExists(logPath(next));
+            nextLog = WriteAheadLog.create(logPath(next), logCapacity, next);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Не удалось создать журнал коллекции: " + e.getMessage());
+            invalidate();
+            return -1;
+        }
+        closeQuietly(log);
+        log = nextLog;
+        generation = next;
+        if (reset || !valid) {
+            // Прежние журналы без снимка этого поколения не восстанавливают коллекцию
+            snapshotGeneration = -1;
+            deleteBefore(next);
+        }
+        valid = true;
+        return next;
+    }
+
+    /**
+     * Записывает снимок коллекции и удаляет прежние снимки и журналы.
+     * Не удерживает блокировку коллекции: пишется копия, сделанная при {@link #rotate(boolean)}.
+     *
+     * @param generation поколение, которое вернул {@link #rotate(boolean)}
+     * @param bands копия коллекции на момент смены поколения
+     * @return true если снимок записан
+     */
+    public boolean writeSnapshot(long generation, List<MusicBand> bands) {
+        try {
+            Files.deleteIfExists(snapshotPath(generation));
+            CollectionSnapshot.write(snapshotPath(generation), generation, bands);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Не удалось записать снимок коллекции: " + e.getMessage());
+            synchronized (this) {
+                invalidate();
+            }
+            return false;
+        }
+        synchronized (this) {
+            if (valid && generation > snapshotGeneration) {
+                snapshotGeneration = generation;
+                deleteBefore(generation);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Сбрасывает журнал на диск и закрывает его.
+     */
+    @Override
+    public synchronized void close() {
+        closeQuietly(log);
+        log = null;
+    }
+
+    private void invalidate() {
+        valid = false;
+        snapshotGeneration = -1;
+        delete(SNAPSHOT_SUFFIX, Long.MAX_VALUE);
+    }
+
+    /**
+     * Удаляет снимки и журналы поколений младше заданного.
+     *
+     * @param generation поколение, начиная с которого файлы сохраняются
+     */
+    private void deleteBefore(long generation) {
+        delete(SNAPSHOT_SUFFIX, generation);
+        delete(LOG_SUFFIX, generation);
+    }
+
+    /**
+     * Удаляет файлы поколений младше заданного. Снимок, который еще отображен в память
+     * и поэтому не удаляется, будет удален после следующего снимка.
+     */
+    private void delete(String suffix, long generation) {
+        try {
+            for (long index : generations(suffix)) {
+                if (index < generation) {
+                    try {
+                        Files.deleteIfExists(directory.resolve(PREFIX + index + suffix));
+                    } catch (IOException e) {
+                        // файл еще отображен в память
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось удалить устаревшие файлы коллекции: " + e.getMessage());
+        }
+    }
+
+    private Path snapshotPath(long generation) {
+        return directory.resolve(PREFIX + generation + SNAPSHOT_SUFFIX);
+    }
+
+    private Path logPath(long generation) {
+        return directory.resolve(PREFIX + generation + LOG_SUFFIX);
+    }
+
+    private List<Long> generations(String suffix) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(name.substring(PREFIX.length(),
+                            name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // посторонний файл в каталоге
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private static void closeQuietly(WriteAheadLog log) {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.err.println("Ошибка закрытия журнала коллекции: " + e.getMessage());
+        }
+    }
+}
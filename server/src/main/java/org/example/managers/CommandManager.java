@@ -1,10 +1,13 @@
 package org.example.managers;
 
 import org.example.commands.*;
+import org.example.network.LoginError;
 import org.example.network.Request;
 import org.example.network.Response;
+import org.example.network.User;
 
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Менеджер команд - центральный класс для управления всеми командами приложения.
@@ -15,6 +18,9 @@ public class CommandManager {
     /** Хранилище зарегистрированных команд (имя команды -> объект команды) */
     private HashMap<String, Command> commands = new HashMap<>();
 
+    /** Менеджер сессий; если не задан, запросы не проверяются */
+    private SessionManager sessionManager;
+
     /**
      * Добавляет команду в менеджер.
      * @param command команда для добавления
@@ -36,8 +42,11 @@ public class CommandManager {
      * @param commandManager экземпляр менеджера команд
      * @param collectionManager менеджер коллекции
      * @param dataBaseManager менеджер базы данных
+     * @param sessionManager менеджер сессий пользователей
      */
-    public void init(CommandManager commandManager, CollectionManager collectionManager, DataBaseManager dataBaseManager) {
+    public void init(CommandManager commandManager, CollectionManager collectionManager,
+                     DataBaseManager dataBaseManager, SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
         this.addCommand(new Add(collectionManager, dataBaseManager));
         commandManager.addCommand(new Clear(collectionManager, dataBaseManager));
         commandManager.addCommand(new ExecuteScript(commandManager));
@@ -52,21 +61,66 @@ public class CommandManager {
         commandManager.addCommand(new Show(collectionManager));
         commandManager.addCommand(new Shuffle(collectionManager));
         commandManager.addCommand(new UpdateId(collectionManager, dataBaseManager));
-        commandManager.addCommand(new Login(dataBaseManager));
-        commandManager.addCommand(new Register(dataBaseManager));
+        commandManager.addCommand(new Login(dataBaseManager, sessionManager));
+        commandManager.addCommand(new Register(dataBaseManager, sessionManager));
+        commandManager.addCommand(new ChangesSince(collectionManager));
+        commandManager.addCommand(new Subscribe());
+        commandManager.addCommand(new Batch(commandManager));
+        commandManager.addCommand(new AddBatch(collectionManager, dataBaseManager));
     }
 
     /**
      * Выполняет команду на основе полученного запроса.
+     * Все команды, кроме входа и регистрации, выполняются только по действующему токену сессии;
+     * логин пользователя берется из сессии, а не из запроса.
      * @param request запрос, содержащий команду и аргументы
      * @return результат выполнения команды
      */
     public Response execute(Request request) {
-        Command command = this.commands.get(request.getCommand().getName());
-        if (command != null) {
-            return command.execute(request);
-        } else {
+        Command command = findCommand(request);
+        if (command == null) {
             return new Response("Команды нет");
         }
+        Response denied = authenticate(command, request);
+        return denied != null ? denied : command.execute(request);
+    }
+
+    /**
+     * Выполняет команду, не дожидаясь долгих операций в вызывающем потоке.
+     * @param request запрос, содержащий команду и аргументы
+     * @return future с результатом выполнения команды
+     * @see #execute(Request)
+     */
+    public CompletableFuture<Response> executeAsync(Request request) {
+        Command command = findCommand(request);
+        if (command == null) {
+            return CompletableFuture.completedFuture(new Response("Команды нет"));
+        }
+        Response denied = authenticate(command, request);
+        return denied != null ? CompletableFuture.completedFuture(denied) : command.executeAsync(request);
+    }
+
+    private Command findCommand(Request request) {
+        return request.getCommand() == null ? null : this.commands.get(request.getCommand().getName());
+    }
+
+    /**
+     * Проверяет токен сессии и подставляет логин из сессии в запрос.
+     * @param command выполняемая команда
+     * @param request запрос клиента
+     * @return ответ с ошибкой или null, если команду можно выполнять
+     */
+    private Response authenticate(Command command, Request request) {
+        if (sessionManager == null || command instanceof Login || command instanceof Register) {
+            return null;
+        }
+        User user = request.getUser();
+        String login = user == null ? null : sessionManager.resolve(user.getToken());
+        if (login == null) {
+            return new Response(LoginError.SESSION_EXPIRED, "Сессия недействительна, войдите заново");
+        }
+        user.setLogin(login);
+        user.setPassword(null);
+        return null;
     }
 }
\ No newline at end of file
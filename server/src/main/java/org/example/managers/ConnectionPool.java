@@ -0,0 +1,320 @@
+package org.example.managers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченный пул соединений с базой данных.
+ * Держит не меньше {@code minSize} и не больше {@code maxSize} соединений,
+ * проверяет соединение при выдаче, закрывает долго простаивающие соединения
+ * и ограничивает ожидание свободного соединения таймаутом.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Адрес базы данных */
+    private final String url;
+
+    /** Пользователь базы данных */
+    private final String user;
+
+    /** Пароль пользователя базы данных */
+    private final String password;
+
+    /** Минимальное количество открытых соединений */
+    private final int minSize;
+
+    /** Максимальное количество открытых соединений */
+    private final int maxSize;
+
+    /** Таймаут ожидания свободного соединения (мс) */
+    private final long acquireTimeout;
+
+    /** Время простоя, после которого соединение закрывается (мс) */
+    private final long idleTimeout;
+
+    /** Таймаут проверки соединения при выдаче (с) */
+    private final int validationTimeout;
+
+    /** Разрешения на выдачу соединений (не больше maxSize одновременно) */
+    private final Semaphore permits;
+
+    /** Свободные соединения; последнее возвращенное выдается первым */
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+    /** Поток вытеснения простаивающих соединений */
+    private final ScheduledExecutorService evictor;
+
+    /** Количество открытых физических соединений */
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    /** Счетчик созданных соединений */
+    private final AtomicLong created = new AtomicLong();
+
+    /** Счетчик закрытых соединений */
+    private final AtomicLong destroyed = new AtomicLong();
+
+    /** Счетчик выдач соединений */
+    private final AtomicLong acquired = new AtomicLong();
+
+    /** Счетчик превышений таймаута ожидания */
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /** Суммарное время ожидания соединений (нс) */
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    /** Закрыт ли пул */
+    private volatile boolean closed;
+
+    /**
+     * Конструктор пула. Соединения открываются и вытеснение запускается в {@link #start()}.
+     *
+     * @param url адрес базы данных
+     * @param user пользователь базы данных
+     * @param password пароль
+     * @param minSize минимальное количество соединений
+     * @param maxSize максимальное количество соединений
+     * @param acquireTimeout таймаут ожидания соединения (мс)
+     * @param idleTimeout время простоя до закрытия соединения (мс)
+     * @param validationTimeout таймаут проверки соединения (с)
+     */
+    private ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                           long acquireTimeout, long idleTimeout, int validationTimeout) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Недопустимые размеры пула: " + minSize + ".." + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeout = acquireTimeout;
+        this.idleTimeout = idleTimeout;
+        this.validationTimeout = validationTimeout;
+        this.permits = new Semaphore(maxSize, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Открывает минимальное количество соединений и запускает вытеснение простаивающих.
+     * Если база недоступна, пул остается без соединений, а поток вытеснения
+     * досоздает их до минимального количества, когда база станет доступна.
+     */
+    private void start() {
+        try {
+            for (int i = 0; i < minSize; i++) {
+                idle.addLast(open());
+            }
+        } catch (SQLException e) {
+            // Сервер может работать с локальной копией коллекции, пока база недоступна
+            System.err.println("Не удалось открыть соединения пула: " + e.getMessage());
+        }
+        long period = Math.max(1000, idleTimeout / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Создает пул по настройкам из файла свойств.
+     * Адрес и учетные данные берутся из db.url, db.user и db.password,
+     * параметры пула - из db.pool.* (если не заданы, используются значения по умолчанию).
+     *
+     * @param properties свойства подключения
+     * @return пул соединений
+     */
+    public static ConnectionPool fromProperties(Properties properties) {
+        ConnectionPool pool = new ConnectionPool(
+                properties.getProperty("db.url"),
+                properties.getProperty("db.user"),
+                properties.getProperty("db.password"),
+                Integer.parseInt(properties.getProperty("db.pool.minSize", "2")),
+                Integer.parseInt(properties.getProperty("db.pool.maxSize", "10")),
+                Long.parseLong(properties.getProperty("db.pool.acquireTimeout", "5000")),
+                Long.parseLong(properties.getProperty("db.pool.idleTimeout", "60000")),
+                Integer.parseInt(properties.getProperty("db.pool.validationTimeout", "2")));
+        pool.start();
+        return pool;
+    }
+
+    /**
+     * Выдает соединение из пула, при необходимости открывая новое.
+     * Неработоспособные свободные соединения закрываются и заменяются.
+     *
+     * @return соединение пула; его нужно закрыть, чтобы вернуть в пул
+     * @throws SQLException если пул закрыт, истек таймаут ожидания или не удалось открыть соединение
+     */
+    public PooledConnection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Пул соединений закрыт");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTimeoutException("Нет свободного соединения за " + acquireTimeout + " мс");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Ожидание соединения прервано", e);
+        } finally {
+            waitNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollLast()) != null) {
+                if (isValid(pooled)) {
+                    break;
+                }
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                pooled = open();
+            }
+            pooled.borrow();
+            acquired.incrementAndGet();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает соединение в пул.
+     *
+     * @param pooled возвращаемое соединение
+     */
+    void release(PooledConnection pooled) {
+        try {
+            if (closed || !isOpen(pooled)) {
+                destroy(pooled);
+            } else {
+                pooled.touch();
+                idle.addLast(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Возвращает количество соединений, выданных в данный момент.
+     *
+     * @return количество занятых соединений
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * Возвращает количество свободных соединений.
+     *
+     * @return количество свободных соединений
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Возвращает количество потоков, ожидающих соединение.
+     *
+     * @return длина очереди ожидания
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Возвращает сводку метрик пула.
+     *
+     * @return строка с метриками
+     */
+    public String getStats() {
+        long count = acquired.get();
+        return "Пул соединений: открыто " + openConnections.get() + " (" + minSize + ".." + maxSize + ")"
+                + ", занято " + getActiveCount()
+                + ", свободно " + getIdleCount()
+                + ", ожидают " + getWaitingCount()
+                + ", создано " + created.get()
+                + ", закрыто " + destroyed.get()
+                + ", выдано " + count
+                + ", таймаутов " + timeouts.get()
+                + ", среднее ожидание " + (count == 0 ? 0 : waitNanos.get() / count / 1000) + " мкс";
+    }
+
+    /**
+     * Закрывает пул и все свободные соединения.
+     * Выданные соединения закрываются при возврате.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    /**
+     * Закрывает соединения, простаивающие дольше idleTimeout, сохраняя не меньше minSize открытых,
+     * и досоздает соединения до minSize.
+     */
+    private void evictIdle() {
+        long deadline = System.currentTimeMillis() - idleTimeout;
+        Iterator<PooledConnection> iterator = idle.iterator();
+        while (iterator.hasNext() && openConnections.get() > minSize) {
+            PooledConnection pooled = iterator.next();
+            if (pooled.getLastUsed() < deadline && idle.removeFirstOccurrence(pooled)) {
+                destroy(pooled);
+            }
+        }
+        try {
+            while (!closed && openConnections.get() < minSize) {
+                idle.addFirst(open());
+            }
+        } catch (SQLException e) {
+            System.err.println("Не удалось восстановить соединения пула: " + e.getMessage());
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        openConnections.incrementAndGet();
+        created.incrementAndGet();
+        return new PooledConnection(this, connection);
+    }
+
+    private void destroy(PooledConnection pooled) {
+        pooled.closePhysically();
+        openConnections.decrementAndGet();
+        destroyed.incrementAndGet();
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.getConnection().isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isOpen(PooledConnection pooled) {
+        try {
+            return !pooled.getConnection().isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
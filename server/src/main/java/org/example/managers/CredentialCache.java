@@ -0,0 +1,137 @@
+package org.example.managers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кеш учетных данных пользователей (логин -> хеш пароля и соль).
+ * Позволяет проверять пароль активных пользователей без обращения к базе данных.
+ * Ограничен по размеру (вытесняются давно не использованные записи) и по времени жизни записи.
+ */
+public class CredentialCache {
+
+    /** Максимальное количество записей */
+    private final int maxSize;
+
+    /** Время жизни записи (мс) */
+    private final long ttl;
+
+    /** Записи кеша в порядке обращения */
+    private final Map<String, Entry> entries;
+
+    /** Счетчик попаданий */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** Счетчик промахов */
+    private final AtomicLong misses = new AtomicLong();
+
+    /** Счетчик вытесненных и истекших записей */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Конструктор кеша.
+     *
+     * @param maxSize максимальное количество записей
+     * @param ttl время жизни записи (мс)
+     */
+    public CredentialCache(int maxSize, long ttl) {
+        if (maxSize < 1 || ttl <= 0) {
+            throw new IllegalArgumentException("Недопустимые параметры кеша: " + maxSize + ", " + ttl);
+        }
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CredentialCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Возвращает учетные данные пользователя из кеша.
+     *
+     * @param login логин пользователя
+     * @return учетные данные или null, если записи нет или она истекла
+     */
+    public Credentials get(String login) {
+        synchronized (entries) {
+            Entry entry = entries.get(login);
+            if (entry != null && entry.expiresAt >= System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return entry.credentials;
+            }
+            if (entry != null) {
+                entries.remove(login);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Сохраняет учетные данные пользователя.
+     *
+     * @param login логин пользователя
+     * @param credentials учетные данные из базы данных
+     */
+    public void put(String login, Credentials credentials) {
+        synchronized (entries) {
+            entries.put(login, new Entry(credentials, System.currentTimeMillis() + ttl));
+        }
+    }
+
+    /**
+     * Удаляет учетные данные пользователя, например после их изменения в базе данных.
+     *
+     * @param login логин пользователя
+     */
+    public void invalidate(String login) {
+        synchronized (entries) {
+            entries.remove(login);
+        }
+    }
+
+    /**
+     * Возвращает сводку метрик кеша.
+     *
+     * @return строка с метриками
+     */
+    public String getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return "Кеш учетных данных: записей " + size + " из " + maxSize
+                + ", попаданий " + hitCount
+                + ", промахов " + misses.get()
+                + ", вытеснено " + evictions.get()
+                + ", доля попаданий " + (total == 0 ? 0 : hitCount * 100 / total) + "%";
+    }
+
+    /**
+     * Учетные данные пользователя в том виде, в котором они хранятся в базе данных.
+     *
+     * @param hash хеш пароля с солью
+     * @param salt соль
+     */
+    public record Credentials(String hash, String salt) {
+    }
+
+    /**
+     * Запись кеша.
+     *
+     * @param credentials учетные данные
+     * @param expiresAt момент истечения записи (мс)
+     */
+    private record Entry(Credentials credentials, long expiresAt) {
+    }
+}
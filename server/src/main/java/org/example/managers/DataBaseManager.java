@@ -8,100 +8,244 @@ import org.example.network.User;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Менеджер для работы с базой данных приложения.
  * Обеспечивает все операции с базой данных: аутентификацию пользователей,
- * CRUD операции с музыкальными группами, управление соединением с БД.
+ * CRUD операции с музыкальными группами, управление соединениями с БД.
+ * Каждая операция берет соединение из пула {@link ConnectionPool} и возвращает его по завершении,
+ * поэтому запросы разных потоков выполняются параллельно. Подготовленные запросы берутся
+ * из кеша соединения, а результаты закрываются сразу после чтения.
  */
 public class DataBaseManager {
-    /** Соединение с базой данных */
-    private final Connection connection;
+    /** Пул соединений с базой данных */
+    private final ConnectionPool connectionPool;
 
     /** Менеджер SQL-запросов */
     private final QueryManager queryManager = new QueryManager();
 
+    /** Количество строк, получаемых с сервера БД за раз при загрузке коллекции */
+    private final int fetchSize;
+
+    /** Кеш учетных данных пользователей */
+    private final CredentialCache credentialCache;
+
+    /** Менеджер хеширования паролей */
+    private final PasswordManager passwordManager;
+
     /**
-     * Конструктор менеджера БД.
-     * Инициализирует соединение с базой данных на основе параметров из файла properties.txt.
-     * @throws SQLException если не удалось установить соединение с БД
+     * Очередь отложенной записи или null, если изменения записываются в базу сразу.
+     * Задается в {@link #open()} после создания менеджера, до его публикации другим потокам.
      */
-    public DataBaseManager() throws SQLException {
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream("properties.txt")) {
+    private WriteBehindQueue writeBehind;
+
+    /**
+     * Создает менеджер БД.
+     * Инициализирует пул соединений с базой данных на основе параметров из файла properties.txt.
+     * Если база недоступна, пул создается пустым и подключается, когда база станет доступна.
+     * При {@code db.writeBehind.enabled=true} изменения коллекции записываются в базу
+     * отложенно через {@link WriteBehindQueue}; параметры очереди: {@code db.writeBehind.journalDir},
+     * {@code db.writeBehind.flushInterval} (мс), {@code db.writeBehind.flushSize}
+     * и {@code db.writeBehind.maxBacklog}.
+     * @return менеджер БД
+     * @throws SQLException если не удалось прочитать конфигурацию или открыть журнал
+     */
+    public static DataBaseManager open() throws SQLException {
+        Properties prop = new Properties();
+        try (InputStream input = DataBaseManager.class.getClassLoader().getResourceAsStream("properties.txt")) {
             if (input == null) {
                 throw new SQLException("\"properties.txt\" не найден");
             }
-            Properties prop = new Properties();
             prop.load(input);
-            String url = prop.getProperty("db.url");
-            String user = prop.getProperty("db.user");
-            String password = prop.getProperty("db.password");
-            this.connection = DriverManager.getConnection(url, user, password);
         } catch (IOException e) {
             throw new SQLException("Ошибка загрузки конфигурации БД");
         }
+        DataBaseManager manager = new DataBaseManager(prop);
+        if (Boolean.parseBoolean(prop.getProperty("db.writeBehind.enabled", "false"))) {
+            // Очередь получает ссылку на менеджер, поэтому создается после конструктора
+            manager.writeBehind = manager.openWriteBehind(prop);
+        }
+        return manager;
+    }
+
+    /**
+     * Конструктор менеджера БД.
+     * @param prop параметры конфигурации
+     */
+    private DataBaseManager(Properties prop) {
+        this.fetchSize = Integer.parseInt(prop.getProperty("db.load.fetchSize", "10000"));
+        this.credentialCache = new CredentialCache(
+                Integer.parseInt(prop.getProperty("db.auth.cacheSize", "1000")),
+                Long.parseLong(prop.getProperty("db.auth.cacheTtl", "300000")));
+        this.passwordManager = new PasswordManager(
+                Integer.parseInt(prop.getProperty("db.auth.hashIterations", "100000")),
+                Integer.parseInt(prop.getProperty("db.auth.hashThreads", "2")),
+                Integer.parseInt(prop.getProperty("db.auth.hashQueue", "64")));
+        this.connectionPool = ConnectionPool.fromProperties(prop);
+    }
+
+    /**
+     * Создает очередь отложенной записи по параметрам конфигурации.
+     * @param prop параметры конфигурации
+     * @return очередь отложенной записи
+     * @throws SQLException если журнал не удалось открыть
+     */
+    private WriteBehindQueue openWriteBehind(Properties prop) throws SQLException {
+        try {
+            return new WriteBehindQueue(this,
+                    Path.of(prop.getProperty("db.writeBehind.journalDir", "write-behind")),
+                    Long.parseLong(prop.getProperty("db.writeBehind.flushInterval", "200")),
+                    Integer.parseInt(prop.getProperty("db.writeBehind.flushSize", "1000")),
+                    Integer.parseInt(prop.getProperty("db.writeBehind.maxBacklog", "100000")));
+        } catch (IOException e) {
+            passwordManager.close();
+            connectionPool.close();
+            throw new SQLException("Не удалось открыть журнал отложенной записи: " + e.getMessage(), e);
+        }
     }
 
     /**
-     * Закрывает соединение с базой данных.
-     * @throws SQLException если произошла ошибка при закрытии соединения
+     * Закрывает очередь отложенной записи, пул соединений с базой данных и пул хеширования паролей.
+     * Перед закрытием пула ожидающие изменения записываются в базу.
      */
-    public void close() throws SQLException {
-        if (this.connection != null && !this.connection.isClosed()) {
-            this.connection.close();
+    public void close() {
+        if (writeBehind != null) {
+            writeBehind.close();
         }
+        passwordManager.close();
+        connectionPool.close();
+    }
+
+    /**
+     * Возвращает пул соединений.
+     * @return пул соединений с базой данных
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * Возвращает очередь отложенной записи.
+     * @return очередь или null, если отложенная запись выключена
+     */
+    public WriteBehindQueue getWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Возвращает кеш учетных данных.
+     * @return кеш учетных данных пользователей
+     */
+    public CredentialCache getCredentialCache() {
+        return credentialCache;
     }
 
     /**
      * Проверяет существование пользователя в базе данных.
+     * Учетные данные берутся из кеша, а при промахе загружаются из базы и кешируются.
+     * Пароль проверяется в пуле хеширования; пароль, сохраненный устаревшей схемой,
+     * после успешной проверки перехешируется и обновляется в базе.
      * @param user пользователь для проверки
-     * @return true если пользователь существует и пароль верный, иначе false
+     * @return future с true, если пользователь существует и пароль верный
      */
-    public boolean existUser(User user) {
-        try {
-            PasswordManager passwordManager = new PasswordManager();
-            Connection connection = this.connection;
-            PreparedStatement preparedStatement = connection.prepareStatement(queryManager.findingUser);
-            preparedStatement.setString(1, user.getLogin());
-            ResultSet resultSet = preparedStatement.executeQuery();
-            while(resultSet.next()) {
-                String password = user.getPassword() + resultSet.getString("salt");
-                if(resultSet.getString("password").equals(passwordManager.hashPassword(password))) {
-                    resultSet.close();
-                    return true;
-                }
+    public CompletableFuture<Boolean> existUser(User user) {
+        String login = user.getLogin();
+        String password = user.getPassword();
+        if (login == null || password == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        CredentialCache.Credentials cached = credentialCache.get(login);
+        if (cached == null) {
+            cached = loadCredentials(login);
+            if (cached == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            credentialCache.put(login, cached);
+        }
+        CredentialCache.Credentials credentials = cached;
+        return passwordManager.verifyAsync(password, credentials.salt(), credentials.hash())
+                .thenCompose(valid -> {
+                    if (!valid || !passwordManager.needsRehash(credentials.hash())) {
+                        return CompletableFuture.completedFuture(valid);
+                    }
+                    return passwordManager.hashAsync(password, credentials.salt())
+                            .thenApply(hash -> {
+                                updatePassword(login, hash, credentials.salt());
+                                return true;
+                            })
+                            .exceptionally(e -> true);
+                });
+    }
+
+    /**
+     * Заменяет хеш пароля пользователя.
+     * @param login логин пользователя
+     * @param hash новый хеш пароля
+     * @param salt соль пользователя
+     */
+    private void updatePassword(String login, String hash, String salt) {
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement pr = pooled.prepare(queryManager.updatePassword);
+            pr.setString(1, hash);
+            pr.setString(2, login);
+            pr.executeUpdate();
+            credentialCache.put(login, new CredentialCache.Credentials(hash, salt));
+        } catch (SQLException e) {
+            System.err.println("Не удалось обновить хеш пароля: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Загружает хеш пароля и соль пользователя из базы данных.
+     * @param login логин пользователя
+     * @return учетные данные или null, если пользователя нет или запрос не выполнился
+     */
+    private CredentialCache.Credentials loadCredentials(String login) {
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement preparedStatement = pooled.prepare(queryManager.findingUser);
+            preparedStatement.setString(1, login);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return new CredentialCache.Credentials(resultSet.getString("password"), resultSet.getString("salt"));
+                }
             }
         } catch (SQLException e) {
             System.err.println("Ошибка выполнения запроса");
             e.printStackTrace();
-            return false;
         }
-        return false;
+        return null;
     }
 
     /**
      * Добавляет нового пользователя в базу данных.
+     * Пароль хешируется в пуле хеширования, запись пользователя в кеше учетных данных сбрасывается.
      * @param user пользователь для добавления
+     * @return future с true, если пользователь добавлен
      */
-    public void addUser(User user) {
-        try {
-            PasswordManager passwordManager = new PasswordManager();
-            String salt = saltGenerator();
-            Connection connection = this.connection;
-            String password = passwordManager.hashPassword(user.getPassword() + salt);
-            PreparedStatement pr = connection.prepareStatement(queryManager.addUser);
-            pr.setString(1, user.getLogin());
-            pr.setString(2, password);
-            pr.setString(3, salt);
-            pr.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Ошибка при выполнении запроса");
-            e.printStackTrace();
-        }
+    public CompletableFuture<Boolean> addUser(User user) {
+        String salt = saltGenerator();
+        return passwordManager.hashAsync(user.getPassword(), salt).thenApply(password -> {
+            try (PooledConnection pooled = connectionPool.acquire()) {
+                PreparedStatement pr = pooled.prepare(queryManager.addUser);
+                pr.setString(1, user.getLogin());
+                pr.setString(2, password);
+                pr.setString(3, salt);
+                return pr.executeUpdate() > 0;
+            } catch (SQLException e) {
+                System.err.println("Ошибка при выполнении запроса");
+                e.printStackTrace();
+                return false;
+            } finally {
+                credentialCache.invalidate(user.getLogin());
+            }
+        });
     }
 
     /**
@@ -111,29 +255,26 @@ public class DataBaseManager {
      * @return ID добавленной группы или -1 при ошибке
      */
     public int addbands(MusicBand band, User user) {
-        Connection connection = this.connection;
-        try {
-            PreparedStatement pr = connection.prepareStatement(queryManager.addBand);
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement pr = pooled.prepare(queryManager.addBand);
             pr.setString(1,band.getName());
             pr.setFloat(2, band.getCoordinates().getX());
             pr.setLong(3, band.getCoordinates().getY());
             pr.setInt(4,band.getNumberOfParticipants());
             pr.setString(5,band.getCreationDate());
-            pr.setString(6,band.getGenre().toString());
+            pr.setString(6,band.getGenreName());
             pr.setString(7, band.getLabelName());
             pr.setInt(8,band.getLabel().getBands());
             pr.setLong(9,band.getLabel().getSales());
             pr.setString(10,user.getLogin());
-            ResultSet resultSet = pr.executeQuery();
-            if (!resultSet.next()) {
-                System.err.println("Не удалось добавить объект");
-                resultSet.close();
-                return -1;
+            try (ResultSet resultSet = pr.executeQuery()) {
+                if (!resultSet.next()) {
+                    System.err.println("Не удалось добавить объект");
+                    return -1;
+                }
+                System.err.println("Объект успешно добавлен");
+                return resultSet.getInt(1);
             }
-            System.err.println("Объект успешно добавлен");
-            int num = resultSet.getInt(1);
-            resultSet.close();
-            return num;
         } catch (SQLException e) {
             System.err.println("Ошибка при выполнении запроса");
             e.printStackTrace();
@@ -141,6 +282,211 @@ public class DataBaseManager {
         }
     }
 
+    /**
+     * Добавляет набор музыкальных групп одним многострочным запросом в одной транзакции.
+     * Либо добавляются все группы, либо ни одной.
+     * @param bands группы для добавления
+     * @param user пользователь, добавляющий группы
+     * @return ID добавленных групп в порядке списка или null при ошибке
+     */
+    public List<Long> addBands(List<MusicBand> bands, User user) {
+        int size = bands.size();
+        String[] names = new String[size];
+        Float[] xs = new Float[size];
+        Long[] ys = new Long[size];
+        Integer[] participants = new Integer[size];
+        String[] creationDates = new String[size];
+        String[] genres = new String[size];
+        String[] labelNames = new String[size];
+        Integer[] labelBands = new Integer[size];
+        Long[] labelSales = new Long[size];
+        for (int i = 0; i < size; i++) {
+            MusicBand band = bands.get(i);
+            names[i] = band.getName();
+            xs[i] = band.getCoordinates().getX();
+            ys[i] = band.getCoordinates().getY();
+            participants[i] = band.getNumberOfParticipants();
+            creationDates[i] = band.getCreationDate();
+            genres[i] = band.getGenreName();
+            labelNames[i] = band.getLabelName();
+            labelBands[i] = band.getLabel().getBands();
+            labelSales[i] = band.getLabel().getSales();
+        }
+
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            Connection connection = pooled.getConnection();
+            Array[] arrays = {
+                    connection.createArrayOf("text", names),
+                    connection.createArrayOf("real", xs),
+                    connection.createArrayOf("bigint", ys),
+                    connection.createArrayOf("integer", participants),
+                    connection.createArrayOf("text", creationDates),
+                    connection.createArrayOf("text", genres),
+                    connection.createArrayOf("text", labelNames),
+                    connection.createArrayOf("integer", labelBands),
+                    connection.createArrayOf("bigint", labelSales)
+            };
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement pr = pooled.prepare(queryManager.addBands);
+                pr.setString(1, user.getLogin());
+                for (int i = 0; i < arrays.length; i++) {
+                    pr.setArray(i + 2, arrays[i]);
+                }
+                List<Long> ids = new ArrayList<>(size);
+                try (ResultSet resultSet = pr.executeQuery()) {
+                    while (resultSet.next()) {
+                        ids.add(resultSet.getLong(1));
+                    }
+                }
+                if (ids.size() != size) {
+                    connection.rollback();
+                    System.err.println("Не удалось добавить объекты");
+                    return null;
+                }
+                connection.commit();
+                // RETURNING не гарантирует порядок строк, но ID выданы по возрастанию в порядке вставки
+                Collections.sort(ids);
+                return ids;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+                for (Array array : arrays) {
+                    array.free();
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Ошибка при выполнении запроса");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Резервирует ID для новых музыкальных групп в последовательности таблицы bands.
+     * @param count количество ID
+     * @return зарезервированные ID в порядке возрастания или null при ошибке
+     */
+    public List<Long> reserveIds(int count) {
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement pr = pooled.prepare(queryManager.reserveIds);
+            pr.setInt(1, count);
+            List<Long> ids = new ArrayList<>(count);
+            try (ResultSet resultSet = pr.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+            }
+            Collections.sort(ids);
+            return ids;
+        } catch (SQLException e) {
+            System.err.println("Не удалось зарезервировать ID: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Записывает накопленные изменения групп одной транзакцией:
+     * добавленные и измененные группы - одним upsert, удаленные - одним DELETE.
+     * Запись идемпотентна, поэтому ее можно повторить после сбоя.
+     * @param changes последнее состояние групп по ID (null - группа удалена)
+     * @return true если транзакция зафиксирована
+     */
+    public boolean writeBands(Map<Long, MusicBand> changes) {
+        List<MusicBand> upserts = new ArrayList<>(changes.size());
+        List<Long> deletes = new ArrayList<>();
+        for (Map.Entry<Long, MusicBand> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                deletes.add(change.getKey());
+            } else {
+                upserts.add(change.getValue());
+            }
+        }
+        int size = upserts.size();
+        Long[] ids = new Long[size];
+        String[] names = new String[size];
+        Float[] xs = new Float[size];
+        Long[] ys = new Long[size];
+        Integer[] participants = new Integer[size];
+        String[] creationDates = new String[size];
+        String[] genres = new String[size];
+        String[] labelNames = new String[size];
+        Integer[] labelBands = new Integer[size];
+        Long[] labelSales = new Long[size];
+        String[] logins = new String[size];
+        for (int i = 0; i < size; i++) {
+            MusicBand band = upserts.get(i);
+            ids[i] = band.getId();
+            names[i] = band.getName();
+            xs[i] = band.getCoordinates().getX();
+            ys[i] = band.getCoordinates().getY();
+            participants[i] = band.getNumberOfParticipants();
+            creationDates[i] = band.getCreationDate();
+            genres[i] = band.getGenreName();
+            labelNames[i] = band.getLabelName();
+            labelBands[i] = band.getLabel().getBands();
+            labelSales[i] = band.getLabel().getSales();
+            logins[i] = band.getUserLogin();
+        }
+
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            Connection connection = pooled.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            Array deleted = null;
+            Array[] columns = null;
+            try {
+                if (!deletes.isEmpty()) {
+                    deleted = connection.createArrayOf("bigint", deletes.toArray());
+                    PreparedStatement pr = pooled.prepare(queryManager.deleteByIds);
+                    pr.setArray(1, deleted);
+                    pr.executeUpdate();
+                }
+                if (size > 0) {
+                    columns = new Array[]{
+                            connection.createArrayOf("bigint", ids),
+                            connection.createArrayOf("text", names),
+                            connection.createArrayOf("real", xs),
+                            connection.createArrayOf("bigint", ys),
+                            connection.createArrayOf("integer", participants),
+                            connection.createArrayOf("text", creationDates),
+                            connection.createArrayOf("text", genres),
+                            connection.createArrayOf("text", labelNames),
+                            connection.createArrayOf("integer", labelBands),
+                            connection.createArrayOf("bigint", labelSales),
+                            connection.createArrayOf("text", logins)
+                    };
+                    PreparedStatement pr = pooled.prepare(queryManager.upsertBands);
+                    for (int i = 0; i < columns.length; i++) {
+                        pr.setArray(i + 1, columns[i]);
+                    }
+                    pr.executeUpdate();
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+                if (deleted != null) {
+                    deleted.free();
+                }
+                if (columns != null) {
+                    for (Array array : columns) {
+                        array.free();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Не удалось записать изменения в базу данных: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Обновляет музыкальную группу в базе данных.
      * @param id ID группы для обновления
@@ -149,19 +495,18 @@ public class DataBaseManager {
      * @return true если обновление успешно, иначе false
      */
     public boolean updateObject(Long id, User user, MusicBand band) {
-        Connection connection = this.connection;
-        try {
-            PreparedStatement pr = connection.prepareStatement(queryManager.updateObj);
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement pr = pooled.prepare(queryManager.updateObj);
             pr.setString(1,band.getName());
             pr.setFloat(2, band.getCoordinates().getX());
             pr.setLong(3,band.getCoordinates().getY());
             pr.setInt(4,band.getNumberOfParticipants());
             pr.setString(5,band.getCreationDate());
-            pr.setString(6,band.getGenre().toString());
+            pr.setString(6,band.getGenreName());
             pr.setString(7,band.getLabelName());
             pr.setInt(8,band.getLabel().getBands());
             pr.setLong(9,band.getLabel().getSales());
-            pr.setString(10,band.getUserLogin());
+            pr.setString(10,user.getLogin());
             pr.setLong(11,id);
             int rows = pr.executeUpdate();
             return rows > 0;
@@ -172,26 +517,34 @@ public class DataBaseManager {
     }
 
     /**
-     * Удаляет музыкальные группы пользователя по списку ID.
+     * Удаляет музыкальные группы пользователя по списку ID одним запросом.
      * @param user пользователь, чьи группы удаляются
      * @param ids список ID групп для удаления
-     * @return true если удаление успешно, иначе false
+     * @return множество ID, действительно удаленных из базы (пустое при ошибке)
      */
-    public boolean deleteUserObjects(User user, List<Long> ids) {
-        Connection connection = this.connection;
-        try {
-            for (long id: ids) {
-                PreparedStatement pr = connection.prepareStatement(queryManager.deleteObj);
+    public Set<Long> deleteUserObjects(User user, Collection<Long> ids) {
+        Set<Long> deleted = new HashSet<>();
+        if (ids.isEmpty()) {
+            return deleted;
+        }
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement pr = pooled.prepare(queryManager.deleteObjs);
+            Array array = pooled.getConnection().createArrayOf("bigint", ids.toArray());
+            try {
                 pr.setString(1, user.getLogin());
-                pr.setLong(2,id);
-                ResultSet resultSet = pr.executeQuery();
-                resultSet.close();
-                return resultSet.next();
-
+                pr.setArray(2, array);
+                try (ResultSet resultSet = pr.executeQuery()) {
+                    while (resultSet.next()) {
+                        deleted.add(resultSet.getLong(1));
+                    }
+                }
+            } finally {
+                array.free();
             }
-            return false;
+            return deleted;
         } catch (SQLException e) {
-            return false;
+            System.err.println("Ошибка при выполнении запроса");
+            return Collections.emptySet();
         }
     }
 
@@ -202,50 +555,132 @@ public class DataBaseManager {
      * @return true если удаление успешно, иначе false
      */
     public Boolean deleteObject(User user, long id) {
-        Connection connection = this.connection;
-        try {
-            PreparedStatement pr = connection.prepareStatement(queryManager.deleteObj);
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            PreparedStatement pr = pooled.prepare(queryManager.deleteObj);
             pr.setString(1,user.getLogin());
             pr.setLong(2,id);
-            ResultSet resultSet = pr.executeQuery();
-            resultSet.close();
-            return resultSet.next();
+            try (ResultSet resultSet = pr.executeQuery()) {
+                return resultSet.next();
+            }
         } catch (SQLException e) {
             return false;
         }
     }
 
     /**
-     * Создает коллекцию музыкальных групп из базы данных.
-     * @return стек объектов MusicBand
+     * Потоково загружает коллекцию музыкальных групп из базы данных.
+     * Строки читаются курсором порциями по fetchSize (для этого на время загрузки
+     * отключается автокоммит), а разбор порций выполняется параллельно.
+     * Готовые группы передаются получателю по мере разбора в порядке ID.
+     * Строки с невалидными полями пропускаются.
+     * @param sink получатель загруженных групп; вызывается из текущего потока
+     * @return количество загруженных групп или -1 при ошибке запроса
      */
-    public Stack<MusicBand> createCollection() {
-        Connection connection = this.connection;
-        Stack<MusicBand> bands = new Stack<>();
-        try {
+    public long loadBands(Consumer<MusicBand> sink) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        Deque<CompletableFuture<List<MusicBand>>> inFlight = new ArrayDeque<>();
+        AtomicInteger skipped = new AtomicInteger();
+        long loaded = 0;
+        try (PooledConnection pooled = connectionPool.acquire()) {
+            Connection connection = pooled.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
             try {
-                PreparedStatement pr = connection.prepareStatement(queryManager.addObjects);
-                ResultSet resultSet = pr.executeQuery();
-                while (resultSet.next()) {
-                    bands.add(new MusicBand(resultSet.getLong(1),
-                            resultSet.getString(2),
-                            new Coordinates(resultSet.getFloat(3),resultSet.getLong(4)),
-                            resultSet.getInt(5),
-                            LocalDateTime.parse(resultSet.getString(6)),
-                            MusicGenre.valueOf(resultSet.getString(7)),
-                            new Label(resultSet.getString(8),resultSet.getInt(9),
-                                    resultSet.getLong(10))));
+                PreparedStatement pr = pooled.prepare(queryManager.loadBands);
+                pr.setFetchSize(fetchSize);
+                try (ResultSet resultSet = pr.executeQuery()) {
+                    List<BandRow> batch = new ArrayList<>(fetchSize);
+                    while (resultSet.next()) {
+                        batch.add(new BandRow(resultSet.getLong(1),
+                                resultSet.getString(2),
+                                resultSet.getFloat(3),
+                                resultSet.getLong(4),
+                                resultSet.getInt(5),
+                                resultSet.getString(6),
+                                resultSet.getString(7),
+                                resultSet.getString(8),
+                                resultSet.getInt(9),
+                                resultSet.getLong(10),
+                                resultSet.getString(11)));
+                        if (batch.size() == fetchSize) {
+                            List<BandRow> rows = batch;
+                            inFlight.addLast(CompletableFuture.supplyAsync(() -> decode(rows, skipped)));
+                            batch = new ArrayList<>(fetchSize);
+                            // Ограничиваем число неразобранных порций, чтобы не держать в памяти всю выборку
+                            while (inFlight.size() > parallelism * 2) {
+                                loaded += drain(inFlight.pollFirst(), sink);
+                            }
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        List<BandRow> rows = batch;
+                        inFlight.addLast(CompletableFuture.supplyAsync(() -> decode(rows, skipped)));
+                    }
                 }
-                resultSet.close();
-                return bands;
+                connection.commit();
             } catch (SQLException e) {
-                System.err.println("Ошибка выполнения запроса");
-                return new Stack<>();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            while (!inFlight.isEmpty()) {
+                loaded += drain(inFlight.pollFirst(), sink);
             }
-        } catch (IllegalArgumentException e) {
-            System.err.println("Поля Объектов не валидны");
-            return new Stack<>();
+        } catch (SQLException e) {
+            System.err.println("Ошибка выполнения запроса");
+            inFlight.forEach(future -> future.cancel(false));
+            return -1;
+        }
+        if (skipped.get() > 0) {
+            System.err.println("Поля Объектов не валидны, пропущено объектов: " + skipped.get());
         }
+        return loaded;
+    }
+
+    /**
+     * Необработанная строка таблицы bands.
+     */
+    private record BandRow(long id, String name, float x, long y, int participants, String creationDate,
+                           String genre, String labelName, int labelBands, long labelSales, String userLogin) {
+    }
+
+    /**
+     * Разбирает порцию строк в музыкальные группы.
+     * @param rows строки таблицы
+     * @param skipped счетчик пропущенных невалидных строк
+     * @return разобранные группы
+     */
+    private static List<MusicBand> decode(List<BandRow> rows, AtomicInteger skipped) {
+        List<MusicBand> bands = new ArrayList<>(rows.size());
+        for (BandRow row : rows) {
+            try {
+                MusicBand band = new MusicBand(row.id(),
+                        row.name(),
+                        new Coordinates(row.x(), row.y()),
+                        row.participants(),
+                        LocalDateTime.parse(row.creationDate()),
+                        row.genre() == null ? null : MusicGenre.valueOf(row.genre()),
+                        new Label(row.labelName(), row.labelBands(), row.labelSales()));
+                band.setUserLogin(row.userLogin());
+                bands.add(band);
+            } catch (RuntimeException e) {
+                skipped.incrementAndGet();
+            }
+        }
+        return bands;
+    }
+
+    /**
+     * Дожидается разбора порции и передает ее получателю.
+     * @param future разбираемая порция
+     * @param sink получатель групп
+     * @return количество переданных групп
+     */
+    private static int drain(CompletableFuture<List<MusicBand>> future, Consumer<MusicBand> sink) {
+        List<MusicBand> bands = future.join();
+        bands.forEach(sink);
+        return bands.size();
     }
 
     /**
@@ -1,39 +1,188 @@
 package org.example.managers;
 
-import java.io.UnsupportedEncodingException;
-import java.math.BigInteger;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.*;
 
 /**
  * Менеджер для хеширования паролей.
- * Обеспечивает безопасное хеширование паролей с использованием алгоритма SHA-1.
- * Используется для защиты паролей пользователей при хранении в базе данных.
+ * Новые пароли хешируются медленной функцией PBKDF2 в отдельном ограниченном пуле потоков,
+ * чтобы дорогое хеширование не занимало потоки обработки запросов.
+ * Пароли, сохраненные старой схемой SHA-1, продолжают проверяться и могут быть перехешированы
+ * после успешного входа.
+ *
+ * <p>Хеш PBKDF2 хранится в виде {@code pbkdf2$<итерации>$<base64>}, хеш SHA-1 - в виде
+ * шестнадцатеричной строки без ведущих нулей.</p>
  */
-public class PasswordManager {
+public class PasswordManager implements AutoCloseable {
+
+    /** Префикс хешей PBKDF2 */
+    private static final String PBKDF2_PREFIX = "pbkdf2$";
+
+    /** Алгоритм PBKDF2 */
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    /** Длина ключа PBKDF2 в битах */
+    private static final int KEY_LENGTH = 256;
+
+    /** Шестнадцатеричные цифры */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Экземпляр SHA-1 для каждого потока */
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 недоступен", e);
+        }
+    });
+
+    /** Фабрика ключей PBKDF2 для каждого потока пула хеширования */
+    private static final ThreadLocal<SecretKeyFactory> PBKDF2 = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(PBKDF2_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(PBKDF2_ALGORITHM + " недоступен", e);
+        }
+    });
+
+    /** Количество итераций PBKDF2 для новых хешей */
+    private final int iterations;
+
+    /** Пул потоков хеширования с ограниченной очередью */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Конструктор менеджера.
+     *
+     * @param iterations количество итераций PBKDF2
+     * @param threads количество потоков хеширования
+     * @param queueSize максимальное количество ожидающих задач хеширования
+     */
+    public PasswordManager(int iterations, int threads, int queueSize) {
+        if (iterations < 1 || threads < 1 || queueSize < 1) {
+            throw new IllegalArgumentException("Недопустимые параметры хеширования");
+        }
+        this.iterations = iterations;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
     /**
      * Хеширует переданный пароль с использованием алгоритма SHA-1.
+     * Используется только для проверки паролей, сохраненных старой схемой.
      *
      * @param password пароль для хеширования
-     * @return хеш-строка в шестнадцатеричном представлении
-     * @throws RuntimeException если возникли проблемы с алгоритмом хеширования или кодировкой
+     * @return хеш-строка в шестнадцатеричном представлении без ведущих нулей
      */
     public String hashPassword(String password) {
+        MessageDigest digest = SHA1.get();
+        byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            chars[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        int start = 0;
+        while (start < chars.length - 1 && chars[start] == '0') {
+            start++;
+        }
+        return new String(chars, start, chars.length - start);
+    }
+
+    /**
+     * Хеширует пароль функцией PBKDF2 в пуле хеширования.
+     *
+     * @param password пароль
+     * @param salt соль пользователя
+     * @return future с хешем для хранения в базе данных;
+     *         завершается с ошибкой, если очередь хеширования переполнена
+     */
+    public CompletableFuture<String> hashAsync(String password, String salt) {
+        return supply(() -> PBKDF2_PREFIX + iterations + "$"
+                + Base64.getEncoder().encodeToString(pbkdf2(password, salt, iterations)));
+    }
+
+    /**
+     * Проверяет пароль по сохраненному хешу.
+     * Хеши PBKDF2 проверяются в пуле хеширования, хеши SHA-1 - в вызывающем потоке.
+     *
+     * @param password проверяемый пароль
+     * @param salt соль пользователя
+     * @param stored хеш из базы данных
+     * @return future с результатом проверки
+     */
+    public CompletableFuture<Boolean> verifyAsync(String password, String salt, String stored) {
+        if (!stored.startsWith(PBKDF2_PREFIX)) {
+            byte[] expected = stored.getBytes(StandardCharsets.UTF_8);
+            byte[] actual = hashPassword(password + salt).getBytes(StandardCharsets.UTF_8);
+            return CompletableFuture.completedFuture(MessageDigest.isEqual(expected, actual));
+        }
+        int separator = stored.indexOf('$', PBKDF2_PREFIX.length());
+        if (separator < 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        int storedIterations;
+        byte[] expected;
         try {
+            storedIterations = Integer.parseInt(stored.substring(PBKDF2_PREFIX.length(), separator));
+            expected = Base64.getDecoder().decode(stored.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return supply(() -> MessageDigest.isEqual(expected, pbkdf2(password, salt, storedIterations)));
+    }
 
-            MessageDigest mg = MessageDigest.getInstance("SHA-1");
+    /**
+     * Проверяет, нужно ли перехешировать сохраненный пароль текущей схемой.
+     *
+     * @param stored хеш из базы данных
+     * @return true для хешей SHA-1 и хешей PBKDF2 с меньшим числом итераций
+     */
+    public boolean needsRehash(String stored) {
+        return !stored.startsWith(PBKDF2_PREFIX + iterations + "$");
+    }
 
-            // Вычисляем хеш от пароля в кодировке UTF-8
-            byte[] digest = mg.digest(password.getBytes("UTF-8"));
+    /**
+     * Останавливает пул хеширования.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
 
-            // Преобразуем байтовый массив в шестнадцатеричную строку
-            BigInteger bg = new BigInteger(1, digest);
-            return bg.toString(16);
+    private <T> CompletableFuture<T> supply(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new RejectedExecutionException("Очередь хеширования паролей переполнена", e));
+        }
+        return future;
+    }
 
-        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
-            // Преобразуем checked exceptions в unchecked для удобства использования
-            throw new RuntimeException("Ошибка при хешировании пароля", e);
+    private static byte[] pbkdf2(String password, String salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8),
+                iterations, KEY_LENGTH);
+        try {
+            return PBKDF2.get().generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
         }
     }
-}
\ No newline at end of file
+}
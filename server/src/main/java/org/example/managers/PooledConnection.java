@@ -0,0 +1,142 @@
+package org.example.managers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Соединение с базой данных, выданное пулом {@link ConnectionPool}.
+ * Закрытие возвращает соединение в пул, поэтому его удобно использовать в try-with-resources.
+ * Хранит кеш подготовленных запросов, которые переживают возврат в пул
+ * и закрываются вместе с физическим соединением.
+ */
+public class PooledConnection implements AutoCloseable {
+
+    /** Максимальное количество подготовленных запросов в кеше соединения */
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    /** Пул, которому принадлежит соединение */
+    private final ConnectionPool pool;
+
+    /** Физическое соединение с базой данных */
+    private final Connection connection;
+
+    /** Время последнего возврата в пул (мс) */
+    private volatile long lastUsed;
+
+    /** Выдано ли соединение в данный момент */
+    private boolean borrowed;
+
+    /** Кеш подготовленных запросов (текст запроса -> запрос), вытесняет давно не использованные */
+    private final Map<String, PreparedStatement> statements =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    /**
+     * Конструктор соединения пула.
+     *
+     * @param pool пул-владелец
+     * @param connection физическое соединение
+     */
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Возвращает физическое соединение.
+     *
+     * @return соединение с базой данных
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Возвращает подготовленный запрос из кеша соединения, подготавливая его при первом обращении.
+     * Запрос принадлежит соединению: его нельзя закрывать, а параметры нужно задавать заново.
+     *
+     * @param sql текст запроса из {@link QueryManager}
+     * @return подготовленный запрос с очищенными параметрами
+     * @throws SQLException при ошибке подготовки запроса
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        } else {
+            statement.clearParameters();
+        }
+        return statement;
+    }
+
+    /**
+     * Возвращает соединение в пул. Повторный вызов ничего не делает.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!borrowed) {
+                return;
+            }
+            borrowed = false;
+        }
+        pool.release(this);
+    }
+
+    /**
+     * Отмечает соединение как выданное.
+     */
+    synchronized void borrow() {
+        borrowed = true;
+    }
+
+    /**
+     * Возвращает время последнего возврата в пул.
+     *
+     * @return время в миллисекундах
+     */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Обновляет время последнего использования.
+     */
+    void touch() {
+        lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Закрывает подготовленные запросы и физическое соединение, игнорируя ошибки.
+     */
+    void closePhysically() {
+        statements.values().forEach(PooledConnection::closeQuietly);
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // соединение уже неработоспособно
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // запрос будет закрыт вместе с соединением
+        }
+    }
+}
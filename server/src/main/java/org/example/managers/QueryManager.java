@@ -30,6 +30,14 @@ public class QueryManager {
      */
     public final String addUser = "INSERT INTO users (name, password, salt) VALUES (?, ?, ?);";
 
+    /**
+     * SQL-запрос для замены хеша пароля пользователя.
+     * Параметры:
+     * 1. Хеш пароля (String)
+     * 2. Имя пользователя (String)
+     */
+    public final String updatePassword = "UPDATE users SET password = ? WHERE name = ?;";
+
     /**
      * SQL-запрос для добавления музыкальной группы.
      * Параметры:
@@ -49,6 +57,72 @@ public class QueryManager {
             + "genre, labelname, labelbands, labelsales, userlogin) "
             + "VALUES (?,?,?,?,?,?,?,?,?,?) RETURNING id;";
 
+    /**
+     * SQL-запрос для добавления набора музыкальных групп одним многострочным запросом.
+     * Строки вставляются в порядке массивов, поэтому ID из последовательности возрастают в том же порядке.
+     * Параметры:
+     * 1. Логин пользователя (String)
+     * 2. Названия групп (text[])
+     * 3. Координаты X (real[])
+     * 4. Координаты Y (bigint[])
+     * 5. Количества участников (integer[])
+     * 6. Даты создания (text[])
+     * 7. Жанры (text[])
+     * 8. Названия лейблов (text[])
+     * 9. Количества групп на лейблах (integer[])
+     * 10. Продажи лейблов (bigint[])
+     * Возвращает: ID добавленных записей
+     */
+    public final String addBands = "INSERT INTO bands(name, x, y, participantsnum, creationdate, "
+            + "genre, labelname, labelbands, labelsales, userlogin) "
+            + "SELECT name, x, y, participantsnum, creationdate, genre, labelname, labelbands, labelsales, ? "
+            + "FROM unnest(?::text[], ?::real[], ?::bigint[], ?::integer[], ?::text[], ?::text[], ?::text[], "
+            + "?::integer[], ?::bigint[]) WITH ORDINALITY "
+            + "AS t(name, x, y, participantsnum, creationdate, genre, labelname, labelbands, labelsales, ord) "
+            + "ORDER BY ord RETURNING id;";
+
+    /**
+     * SQL-запрос для резервирования ID музыкальных групп в последовательности таблицы bands.
+     * Параметры:
+     * 1. Количество ID (int)
+     * Возвращает: зарезервированные ID
+     */
+    public final String reserveIds = "SELECT nextval(pg_get_serial_sequence('bands', 'id')) "
+            + "FROM generate_series(1, ?);";
+
+    /**
+     * SQL-запрос для записи набора музыкальных групп с известными ID одним запросом:
+     * отсутствующие группы добавляются, существующие перезаписываются.
+     * Параметры:
+     * 1. ID групп (bigint[])
+     * 2. Названия групп (text[])
+     * 3. Координаты X (real[])
+     * 4. Координаты Y (bigint[])
+     * 5. Количества участников (integer[])
+     * 6. Даты создания (text[])
+     * 7. Жанры (text[])
+     * 8. Названия лейблов (text[])
+     * 9. Количества групп на лейблах (integer[])
+     * 10. Продажи лейблов (bigint[])
+     * 11. Логины владельцев (text[])
+     */
+    public final String upsertBands = "INSERT INTO bands(id, name, x, y, participantsnum, creationdate, "
+            + "genre, labelname, labelbands, labelsales, userlogin) "
+            + "SELECT * FROM unnest(?::bigint[], ?::text[], ?::real[], ?::bigint[], ?::integer[], ?::text[], "
+            + "?::text[], ?::text[], ?::integer[], ?::bigint[], ?::text[]) "
+            + "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, x = EXCLUDED.x, y = EXCLUDED.y, "
+            + "participantsnum = EXCLUDED.participantsnum, creationdate = EXCLUDED.creationdate, "
+            + "genre = EXCLUDED.genre, labelname = EXCLUDED.labelname, labelbands = EXCLUDED.labelbands, "
+            + "labelsales = EXCLUDED.labelsales, userlogin = EXCLUDED.userlogin;";
+
+    /**
+     * SQL-запрос для удаления набора музыкальных групп по ID без проверки владельца.
+     * Используется отложенной записью: права проверяются до изменения коллекции.
+     * Параметры:
+     * 1. Массив ID групп (bigint[])
+     */
+    public final String deleteByIds = "DELETE FROM bands WHERE id = ANY(?);";
+
     /**
      * SQL-запрос для удаления музыкальной группы.
      * Параметры:
@@ -58,6 +132,15 @@ public class QueryManager {
      */
     public final String deleteObj = "DELETE FROM bands WHERE (userlogin = ?) AND (id = ?) RETURNING id;";
 
+    /**
+     * SQL-запрос для удаления набора музыкальных групп пользователя одним запросом.
+     * Параметры:
+     * 1. Логин пользователя (String)
+     * 2. Массив ID групп (bigint[])
+     * Возвращает: ID удаленных записей
+     */
+    public final String deleteObjs = "DELETE FROM bands WHERE userlogin = ? AND id = ANY(?) RETURNING id;";
+
     /**
      * SQL-запрос для обновления информации о музыкальной группе.
      * Параметры:
@@ -78,8 +161,10 @@ public class QueryManager {
             + "labelsales = ? WHERE userlogin = ? AND id = ?";
 
     /**
-     * SQL-запрос для получения всех музыкальных групп.
-     * Возвращает все поля таблицы bands.
+     * SQL-запрос для потоковой загрузки всех музыкальных групп.
+     * Возвращает столбцы в порядке, в котором их читает загрузчик коллекции:
+     * id, name, x, y, participantsnum, creationdate, genre, labelname, labelbands, labelsales, userlogin.
      */
-    public final String addObjects = "SELECT * FROM bands;";
+    public final String loadBands = "SELECT id, name, x, y, participantsnum, creationdate, genre, "
+            + "labelname, labelbands, labelsales, userlogin FROM bands ORDER BY id;";
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.example.utility.UserScanner;
 
 import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 
 public class RunManager  {
     private final CommandManager commandManager;
@@ -13,9 +14,17 @@ public class RunManager  {
         this.commandManager = commandManager;
     }
 
+    public CommandManager getCommandManager() {
+        return commandManager;
+    }
+
     public Response run(Request request) {
         return commandManager.execute(request);
 
     }
+
+    public CompletableFuture<Response> runAsync(Request request) {
+        return commandManager.executeAsync(request);
+    }
     }
 
@@ -0,0 +1,164 @@
+package org.example.managers;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Менеджер сессий пользователей.
+ * После входа пользователь получает непрозрачный токен, по которому следующие запросы
+ * аутентифицируются поиском в памяти, без обращения к базе данных и хеширования пароля.
+ * Сессия продлевается при каждом использовании и удаляется после ttl простоя.
+ */
+public class SessionManager implements AutoCloseable {
+
+    /** Длина токена в байтах до кодирования */
+    private static final int TOKEN_BYTES = 32;
+
+    /** Время простоя, после которого сессия истекает (мс) */
+    private final long ttl;
+
+    /** Максимальное количество одновременных сессий */
+    private final int maxSessions;
+
+    /** Активные сессии (токен -> сессия) */
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /** Генератор токенов */
+    private final SecureRandom random = new SecureRandom();
+
+    /** Поток удаления истекших сессий */
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Конструктор менеджера сессий.
+     *
+     * @param ttl время простоя до истечения сессии (мс)
+     * @param maxSessions максимальное количество сессий
+     */
+    public SessionManager(long ttl, int maxSessions) {
+        if (ttl <= 0 || maxSessions < 1) {
+            throw new IllegalArgumentException("Недопустимые параметры сессий: " + ttl + ", " + maxSessions);
+        }
+        this.ttl = ttl;
+        this.maxSessions = maxSessions;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, ttl / 4);
+        evictor.scheduleWithFixedDelay(this::evictExpired, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Открывает сессию для пользователя, прошедшего проверку пароля.
+     * Если сессий слишком много, вытесняется дольше всех не использовавшаяся.
+     *
+     * @param login логин пользователя
+     * @return токен сессии
+     */
+    public String open(String login) {
+        if (sessions.size() >= maxSessions) {
+            evictExpired();
+            if (sessions.size() >= maxSessions) {
+                evictOldest();
+            }
+        }
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(login, System.currentTimeMillis() + ttl));
+        return token;
+    }
+
+    /**
+     * Возвращает логин владельца сессии и продлевает ее.
+     *
+     * @param token токен сессии
+     * @return логин или null, если сессии нет или она истекла
+     */
+    public String resolve(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (session.expiresAt < now) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.expiresAt = now + ttl;
+        return session.login;
+    }
+
+    /**
+     * Закрывает сессию.
+     *
+     * @param token токен сессии
+     */
+    public void close(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    /**
+     * Возвращает количество активных сессий.
+     *
+     * @return количество сессий
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Останавливает удаление истекших сессий и закрывает все сессии.
+     */
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        sessions.clear();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        sessions.entrySet().removeIf(entry -> entry.getValue().expiresAt < now);
+    }
+
+    private void evictOldest() {
+        Map.Entry<String, Session> oldest = null;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (oldest == null || entry.getValue().expiresAt < oldest.getValue().expiresAt) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null) {
+            sessions.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    /**
+     * Сессия пользователя.
+     */
+    private static final class Session {
+
+        /** Логин владельца */
+        private final String login;
+
+        /** Момент истечения сессии (мс) */
+        private volatile long expiresAt;
+
+        private Session(String login, long expiresAt) {
+            this.login = login;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package org.example.managers;
+
+import org.example.mainClasses.MusicBand;
+import org.example.utility.BandRecords;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Локальный журнал изменений коллекции, еще не записанных в базу данных.
+ * Журнал состоит из сегментов {@code journal-<номер>.log}; запись добавляется в конец текущего сегмента.
+ * Перед каждой записью в базу текущий сегмент закрывается и начинается новый,
+ * а закрытые сегменты удаляются, когда их изменения записаны в базу.
+ *
+ * <p>Запись в журнале: длина тела (int), CRC32 тела (int), тело.
+ * Тело: тип (1 - группа добавлена или изменена, 2 - группа удалена), ID и для типа 1 - поля группы.
+ * Недописанная или поврежденная запись в конце сегмента при чтении отбрасывается.</p>
+ *
+ * <p>Записи добавляются под блокировкой очереди записи без ожидания диска;
+ * {@link #sync(long)} ожидает сброса на диск, и один сброс подтверждает
+ * все записи, добавленные к его началу.</p>
+ */
+public class WriteBehindJournal implements AutoCloseable {
+
+    /** Префикс имени сегмента */
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    /** Суффикс имени сегмента */
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /** Тип записи: группа добавлена или изменена */
+    private static final byte UPSERT = 1;
+
+    /** Тип записи: группа удалена */
+    private static final byte DELETE = 2;
+
+    /** Размер заголовка записи (байт) */
+    private static final int HEADER_SIZE = 8;
+
+    /** Максимальный размер тела записи (байт) */
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /** Каталог журнала */
+    private final Path directory;
+
+    /** Блокировка сброса на диск и смены сегмента */
+    private final Object syncLock = new Object();
+
+    /** Канал текущего сегмента */
+    private FileChannel channel;
+
+    /** Номер текущего сегмента */
+    private long segment;
+
+    /** Номер последней добавленной записи */
+    private volatile long written;
+
+    /** Номер последней записи перед началом текущего сегмента */
+    private long segmentStart;
+
+    /** Номер последней записи, сброшенной на диск */
+    private long durable;
+
+    /** Произошла ли ошибка записи; после нее журнал не принимает записи */
+    private volatile boolean failed;
+
+    /**
+     * Открывает журнал в каталоге, создавая каталог при необходимости.
+     * Записи уже существующих сегментов не изменяются; новые записи добавляются в новый сегмент.
+     *
+     * @param directory каталог журнала
+     * @throws IOException если каталог или сегмент не удалось создать
+     */
+    public WriteBehindJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        List<Long> segments = segments();
+        this.segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        this.channel = open(segment);
+    }
+
+    /**
+     * Читает записи всех закрытых сегментов в порядке их добавления.
+     *
+     * @param sink получатель записей: ID и группа (null, если группа удалена)
+     * @return количество прочитанных записей
+     * @throws IOException при ошибке чтения сегмента
+     */
+    public long replay(BiConsumer<Long, MusicBand> sink) throws IOException {
+        long count = 0;
+        for (long index : segments()) {
+            if (index < segment) {
+                count += replaySegment(path(index), sink);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Добавляет записи о добавленных или измененных группах.
+     * Вызывается под блокировкой очереди записи.
+     *
+     * @param bands группы
+     * @return номер последней добавленной записи
+     * @throws IOException если журнал недоступен
+     */
+    long appendUpserts(Collection<MusicBand> bands) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (MusicBand band : bands) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream record = new DataOutputStream(body);
+            record.writeByte(UPSERT);
+            BandRecords.write(record, band);
+            writeRecord(out, body.toByteArray());
+        }
+        return append(bytes.toByteArray(), bands.size());
+    }
+
+    /**
+     * Добавляет записи об удаленных группах.
+     * Вызывается под блокировкой очереди записи.
+     *
+     * @param ids ID удаленных групп
+     * @return номер последней добавленной записи
+     * @throws IOException если журнал недоступен
+     */
+    long appendDeletes(Collection<Long> ids) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (long id : ids) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream record = new DataOutputStream(body);
+            record.writeByte(DELETE);
+            record.writeLong(id);
+            writeRecord(out, body.toByteArray());
+        }
+        return append(bytes.toByteArray(), ids.size());
+    }
+
+    /**
+     * Ожидает, пока запись с заданным номером окажется на диске.
+     * Если сброс уже выполнен другим потоком, возвращается сразу.
+     *
+     * @param sequence номер записи
+     * @throws IOException если сбросить журнал на диск не удалось; журнал перестает принимать записи
+     */
+    void sync(long sequence) throws IOException {
+        synchronized (syncLock) {
+            if (durable >= sequence) {
+                return;
+            }
+            long target = written;
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+            durable = target;
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент и начинает новый.
+     * Вызывается под блокировкой очереди записи, поэтому все записи закрытого сегмента уже добавлены.
+     * Пустой сегмент не закрывается, чтобы повторы записи при недоступной базе не плодили сегменты.
+     *
+     * @return номер последнего закрытого сегмента
+     * @throws IOException если сегмент не удалось сбросить на диск или новый сегмент не удалось создать
+     */
+    long rotate() throws IOException {
+        synchronized (syncLock) {
+            if (written == segmentStart) {
+                return segment - 1;
+            }
+            long sealed = segment;
+            try {
+                channel.force(false);
+                channel.close();
+                durable = written;
+                channel = open(sealed + 1);
+                segment = sealed + 1;
+                segmentStart = written;
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+            return sealed;
+        }
+    }
+
+    /**
+     * Удаляет закрытые сегменты, изменения которых записаны в базу данных.
+     *
+     * @param sealed номер последнего удаляемого сегмента
+     */
+    void deleteUpTo(long sealed) {
+        try {
+            for (long index : segments()) {
+                if (index <= sealed) {
+                    Files.deleteIfExists(path(index));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось удалить сегменты журнала: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Сбрасывает текущий сегмент на диск и закрывает его.
+     *
+     * @throws IOException при ошибке сброса или закрытия
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            if (!failed) {
+                channel.force(false);
+            }
+            channel.close();
+        }
+    }
+
+    private long append(byte[] records, int count) throws IOException {
+        if (failed) {
+            throw new IOException("Журнал отложенной записи недоступен после ошибки записи");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(records);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+        written += count;
+        return written;
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        out.writeInt(body.length);
+        out.writeInt((int) crc.getValue());
+        out.write(body);
+    }
+
+    private static long replaySegment(Path file, BiConsumer<Long, MusicBand> sink) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long count = 0;
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || length > buffer.remaining()) {
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            if (in.readByte() == DELETE) {
+                sink.accept(in.readLong(), null);
+            } else {
+                MusicBand band = BandRecords.read(in);
+                sink.accept(band.getId(), band);
+            }
+            count++;
+        }
+        if (buffer.hasRemaining()) {
+            System.err.println("Отброшен недописанный конец сегмента журнала " + file.getFileName());
+        }
+        return count;
+    }
+
+    private FileChannel open(long index) throws IOException {
+        return FileChannel.open(path(index), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path path(long index) {
+        return directory.resolve(SEGMENT_PREFIX + index + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // посторонний файл в каталоге журнала
+                }
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+}
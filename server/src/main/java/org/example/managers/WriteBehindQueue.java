@@ -0,0 +1,328 @@
+package org.example.managers;
+
+import org.example.exceptions.PersistenceException;
+import org.example.mainClasses.MusicBand;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Очередь отложенной записи изменений коллекции в базу данных.
+ * Изменение сначала записывается в локальный журнал {@link WriteBehindJournal} и применяется к коллекции,
+ * а в базу данных его переносит фоновый поток: раз в заданный интервал или раньше,
+ * если накопилось заданное количество изменений.
+ *
+ * <p>Изменения одной группы объединяются: в базу записывается только последнее состояние группы
+ * (добавление или изменение записывается одним upsert, удаление - одним DELETE),
+ * поэтому запись в базу идемпотентна и при повторе журнала после сбоя не дублирует строки.
+ * Количество ожидающих записи групп ограничено; при переполнении новые изменения отклоняются.</p>
+ *
+ * <p>ID новых групп выдаются последовательностью таблицы bands блоками,
+ * поэтому добавление не ждет ответа базы данных, пока в блоке есть свободные ID.</p>
+ */
+public class WriteBehindQueue implements AutoCloseable {
+
+    /** Количество ID, резервируемых в последовательности за один запрос */
+    private static final int ID_BLOCK_SIZE = 1000;
+
+    /** Пауза перед повторной записью после ошибки базы данных (мс) */
+    private static final long RETRY_DELAY = 5000;
+
+    /** Менеджер базы данных, в которую записываются изменения */
+    private final DataBaseManager dataBaseManager;
+
+    /** Журнал изменений */
+    private final WriteBehindJournal journal;
+
+    /** Количество ожидающих групп, при котором запись в базу начинается досрочно */
+    private final int flushSize;
+
+    /** Максимальное количество групп, ожидающих записи в базу */
+    private final int maxBacklog;
+
+    /** Поток записи в базу данных */
+    private final ScheduledExecutorService writer;
+
+    /** Ожидающие изменения по ID группы в порядке появления (null - группа удалена) */
+    private Map<Long, MusicBand> pending = new LinkedHashMap<>();
+
+    /** Количество групп, записываемых в базу в данный момент */
+    private int flushing;
+
+    /** Запланирована ли досрочная запись */
+    private boolean flushRequested;
+
+    /** Время, раньше которого запись после ошибки не повторяется (мс) */
+    private long retryAt;
+
+    /** Зарезервированные, но еще не выданные ID */
+    private final Deque<Long> reservedIds = new ArrayDeque<>();
+
+    /**
+     * Конструктор очереди.
+     * Изменения, оставшиеся в журнале после прошлого запуска, возвращаются в очередь
+     * и записываются в базу при первой записи.
+     *
+     * @param dataBaseManager менеджер базы данных
+     * @param journalDirectory каталог журнала
+     * @param flushInterval интервал записи в базу (мс)
+     * @param flushSize количество ожидающих групп, при котором запись начинается досрочно
+     * @param maxBacklog максимальное количество групп, ожидающих записи
+     * @throws IOException если журнал не удалось открыть или прочитать
+     */
+    public WriteBehindQueue(DataBaseManager dataBaseManager, Path journalDirectory,
+                            long flushInterval, int flushSize, int maxBacklog) throws IOException {
+        if (flushInterval < 1 || flushSize < 1 || maxBacklog < flushSize) {
+            throw new IllegalArgumentException("Недопустимые параметры отложенной записи");
+        }
+        this.dataBaseManager = dataBaseManager;
+        this.flushSize = flushSize;
+        this.maxBacklog = maxBacklog;
+        this.journal = new WriteBehindJournal(journalDirectory);
+        long replayed = journal.replay(pending::put);
+        if (replayed > 0) {
+            System.err.println("Из журнала восстановлено изменений: " + replayed);
+        }
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushIfReady, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Выдает ID для новых групп, резервируя очередной блок в последовательности при необходимости.
+     *
+     * @param count количество ID
+     * @return ID в порядке возрастания
+     * @throws PersistenceException если зарезервировать ID в базе данных не удалось
+     */
+    public List<Long> nextIds(int count) throws PersistenceException {
+        synchronized (reservedIds) {
+            while (reservedIds.size() < count) {
+                List<Long> block = dataBaseManager.reserveIds(Math.max(ID_BLOCK_SIZE, count - reservedIds.size()));
+                if (block == null) {
+                    throw new PersistenceException("Не удалось получить ID из базы данных");
+                }
+                reservedIds.addAll(block);
+            }
+            List<Long> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add(reservedIds.pollFirst());
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Записывает в журнал и ставит в очередь добавленные или измененные группы.
+     * Вызывается под блокировкой коллекции до ее изменения, поэтому порядок записей
+     * в журнале совпадает с порядком изменений коллекции.
+     *
+     * @param bands группы с назначенными ID и владельцем
+     * @return номер записи журнала для {@link #sync(long)}
+     * @throws PersistenceException если очередь переполнена или журнал недоступен
+     */
+    public synchronized long upsert(Collection<MusicBand> bands) throws PersistenceException {
+        checkCapacity(bands.stream().map(MusicBand::getId).toList());
+        long sequence;
+        try {
+            sequence = journal.appendUpserts(bands);
+        } catch (IOException e) {
+            throw new PersistenceException("Журнал отложенной записи недоступен", e);
+        }
+        for (MusicBand band : bands) {
+            pending.put(band.getId(), band);
+        }
+        requestFlushIfFull();
+        return sequence;
+    }
+
+    /**
+     * Записывает в журнал и ставит в очередь удаление групп.
+     * Вызывается под блокировкой коллекции до ее изменения.
+     *
+     * @param ids ID удаляемых групп
+     * @return номер записи журнала для {@link #sync(long)}
+     * @throws PersistenceException если очередь переполнена или журнал недоступен
+     */
+    public synchronized long delete(Collection<Long> ids) throws PersistenceException {
+        checkCapacity(ids);
+        long sequence;
+        try {
+            sequence = journal.appendDeletes(ids);
+        } catch (IOException e) {
+            throw new PersistenceException("Журнал отложенной записи недоступен", e);
+        }
+        for (long id : ids) {
+            pending.put(id, null);
+        }
+        requestFlushIfFull();
+        return sequence;
+    }
+
+    /**
+     * Ожидает сброса записи журнала на диск. Вызывается после снятия блокировки коллекции,
+     * чтобы одновременные изменения подтверждались одним сбросом.
+     * Если сброс не удался, изменение остается в очереди и будет записано в базу,
+     * но журнал перестает принимать новые изменения.
+     *
+     * @param sequence номер записи журнала
+     */
+    public void sync(long sequence) {
+        try {
+            journal.sync(sequence);
+        } catch (IOException e) {
+            System.err.println("Не удалось сбросить журнал на диск: " + e.getMessage());
+            requestFlush();
+        }
+    }
+
+    /**
+     * Записывает все ожидающие изменения в базу данных и ожидает завершения записи.
+     *
+     * @return true если очередь записана
+     */
+    public boolean flushNow() {
+        try {
+            return writer.submit(this::flush).get();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Возвращает количество групп, ожидающих записи в базу.
+     *
+     * @return размер очереди
+     */
+    public synchronized int getBacklog() {
+        return pending.size() + flushing;
+    }
+
+    /**
+     * Останавливает фоновую запись, записывает оставшиеся изменения и закрывает журнал.
+     * Если база недоступна, изменения остаются в журнале до следующего запуска.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (!flush()) {
+            System.err.println("Изменения не записаны в базу данных и сохранены в журнале");
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Ошибка закрытия журнала: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Переносит изменения в базу, если после последней ошибки прошла пауза перед повтором.
+     * Иначе при недоступной базе каждое новое изменение запускало бы заведомо неудачную запись.
+     */
+    private void flushIfReady() {
+        synchronized (this) {
+            flushRequested = false;
+            if (System.currentTimeMillis() < retryAt) {
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Переносит накопленные изменения в базу данных одной транзакцией.
+     * Выполняется только потоком записи (и при закрытии, когда он уже остановлен).
+     * При ошибке изменения возвращаются в очередь, а их сегменты журнала сохраняются.
+     *
+     * @return true если очередь пуста или записана
+     */
+    private boolean flush() {
+        Map<Long, MusicBand> batch;
+        long sealed = -1;
+        synchronized (this) {
+            flushRequested = false;
+            if (pending.isEmpty()) {
+                return true;
+            }
+            try {
+                sealed = journal.rotate();
+            } catch (IOException e) {
+                System.err.println("Не удалось начать новый сегмент журнала: " + e.getMessage());
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushing = batch.size();
+        }
+        boolean written = dataBaseManager.writeBands(batch);
+        synchronized (this) {
+            flushing = 0;
+            retryAt = written ? 0 : System.currentTimeMillis() + RETRY_DELAY;
+            if (!written) {
+                // Более новые изменения тех же групп заменяют возвращаемые
+                batch.putAll(pending);
+                pending = batch;
+            }
+        }
+        if (written) {
+            journal.deleteUpTo(sealed);
+        }
+        return written;
+    }
+
+    private void checkCapacity(Collection<Long> ids) throws PersistenceException {
+        int added = 0;
+        for (long id : ids) {
+            if (!pending.containsKey(id)) {
+                added++;
+            }
+        }
+        if (pending.size() + flushing + added > maxBacklog) {
+            requestFlush();
+            throw new PersistenceException("Очередь записи в базу данных переполнена, повторите позже");
+        }
+    }
+
+    private void requestFlushIfFull() {
+        if (pending.size() >= flushSize) {
+            requestFlush();
+        }
+    }
+
+    private synchronized void requestFlush() {
+        if (flushRequested) {
+            return;
+        }
+        flushRequested = true;
+        try {
+            writer.execute(this::flushIfReady);
+        } catch (RejectedExecutionException e) {
+            flushRequested = false;
+        }
+    }
+}
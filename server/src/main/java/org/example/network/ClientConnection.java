@@ -0,0 +1,237 @@
+package org.example.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Состояние одного клиентского соединения в цикле селектора.
+ * Собирает входящие кадры из неблокирующего канала и хранит очередь исходящих кадров,
+ * которые дописываются, когда канал готов к записи.
+ * Рассылаемые сервером уведомления ограничены объемом неотправленных данных,
+ * а чтение новых запросов приостанавливается, пока у клиента слишком много
+ * незавершенных запросов или неотправленных ответов, чтобы один клиент
+ * не занимал пул и память сервера.
+ * Потоковые ответы приостанавливаются, пока клиент не заберет уже отправленные части.
+ */
+public class ClientConnection {
+
+    /** Максимальный объем неотправленных данных, при котором клиенту еще отправляются уведомления и читаются запросы */
+    public static final long MAX_QUEUED_BYTES = 4L * 1024 * 1024;
+
+    /** Максимальное количество одновременно выполняемых запросов клиента */
+    public static final int MAX_IN_FLIGHT = 256;
+
+    /** Объем неотправленных данных, при котором потоковые ответы приостанавливаются */
+    public static final long STREAM_WATERMARK = 1024 * 1024;
+
+    /** Канал клиента */
+    private final SocketChannel channel;
+
+    /** Буфер для чтения сырых байтов из канала */
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+
+    /** Тело кадра, которое собирается в данный момент */
+    private ByteBuffer body;
+
+    /** Очередь кадров, ожидающих отправки */
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+
+    /** Объем данных в очереди отправки */
+    private final AtomicLong queuedBytes = new AtomicLong();
+
+    /** Количество запросов, ответ на которые еще не поставлен в очередь */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** Потоковые ответы, ожидающие освобождения очереди отправки */
+    private final Queue<ResponseStream> parkedStreams = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Конструктор соединения.
+     *
+     * @param channel неблокирующий канал клиента
+     */
+    public ClientConnection(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Возвращает канал клиента.
+     *
+     * @return канал сокета
+     */
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Читает все доступные байты из канала и выделяет из них полные кадры.
+     *
+     * @return список тел полученных кадров или null, если клиент закрыл соединение
+     * @throws IOException при ошибке чтения или недопустимом размере кадра
+     */
+    public List<byte[]> read() throws IOException {
+        List<byte[]> frames = new ArrayList<>();
+        int count;
+        while ((count = channel.read(readBuffer)) > 0) {
+            readBuffer.flip();
+            extractFrames(frames);
+            readBuffer.compact();
+        }
+        if (count == -1) {
+            return null;
+        }
+        return frames;
+    }
+
+    /**
+     * Выделяет полные кадры из буфера чтения.
+     *
+     * @param frames список, в который добавляются полученные кадры
+     * @throws IOException если заявленная длина кадра недопустима
+     */
+    private void extractFrames(List<byte[]> frames) throws IOException {
+        while (true) {
+            if (body == null) {
+                if (readBuffer.remaining() < FrameCodec.HEADER_SIZE) {
+                    return;
+                }
+                int length = readBuffer.getInt();
+                if (length < 0 || length > FrameCodec.MAX_FRAME_SIZE) {
+                    throw new IOException("Недопустимый размер кадра: " + length);
+                }
+                body = ByteBuffer.allocate(length);
+            }
+            int chunk = Math.min(body.remaining(), readBuffer.remaining());
+            body.put(body.position(), readBuffer, readBuffer.position(), chunk);
+            body.position(body.position() + chunk);
+            readBuffer.position(readBuffer.position() + chunk);
+            if (body.hasRemaining()) {
+                return;
+            }
+            frames.add(body.array());
+            body = null;
+        }
+    }
+
+    /**
+     * Ставит кадр в очередь на отправку.
+     * Может вызываться из любого потока.
+     *
+     * @param frame подготовленный к чтению буфер кадра
+     */
+    public void enqueue(ByteBuffer frame) {
+        queuedBytes.addAndGet(frame.remaining());
+        outbound.add(frame);
+    }
+
+    /**
+     * Ставит уведомление в очередь, если клиент успевает забирать данные.
+     * Может вызываться из любого потока.
+     *
+     * @param frame подготовленный к чтению буфер кадра
+     * @return false если очередь превысила {@link #MAX_QUEUED_BYTES} и уведомление не поставлено
+     */
+    public boolean offer(ByteBuffer frame) {
+        if (queuedBytes.get() + frame.remaining() > MAX_QUEUED_BYTES) {
+            return false;
+        }
+        enqueue(frame);
+        return true;
+    }
+
+    /**
+     * Записывает в канал столько кадров из очереди, сколько он готов принять.
+     *
+     * @return true если очередь полностью отправлена
+     * @throws IOException при ошибке записи
+     */
+    public boolean flush() throws IOException {
+        ByteBuffer frame;
+        while ((frame = outbound.peek()) != null) {
+            queuedBytes.addAndGet(-channel.write(frame));
+            if (frame.hasRemaining()) {
+                return false;
+            }
+            outbound.poll();
+        }
+        return true;
+    }
+
+    /**
+     * Отмечает начало выполнения запроса клиента.
+     */
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Отмечает завершение выполнения запроса клиента.
+     * Может вызываться из любого потока.
+     */
+    public void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Проверяет, нужно ли приостановить чтение запросов клиента.
+     *
+     * @return true если превышено количество выполняемых запросов или объем неотправленных данных
+     */
+    public boolean isReadPaused() {
+        return inFlight.get() >= MAX_IN_FLIGHT || queuedBytes.get() > MAX_QUEUED_BYTES;
+    }
+
+    /**
+     * Проверяет, нужно ли приостановить потоковые ответы.
+     *
+     * @return true если объем неотправленных данных превышает {@link #STREAM_WATERMARK}
+     */
+    public boolean isStreamPaused() {
+        return queuedBytes.get() > STREAM_WATERMARK;
+    }
+
+    /**
+     * Откладывает потоковый ответ до освобождения очереди отправки.
+     * Может вызываться из любого потока.
+     *
+     * @param stream потоковый ответ
+     */
+    public void park(ResponseStream stream) {
+        parkedStreams.add(stream);
+    }
+
+    /**
+     * Забирает отложенный потоковый ответ, если его еще не забрал другой поток.
+     *
+     * @param stream потоковый ответ
+     * @return true если ответ был отложен и теперь забран вызывающим
+     */
+    public boolean unpark(ResponseStream stream) {
+        return parkedStreams.remove(stream);
+    }
+
+    /**
+     * Забирает один отложенный потоковый ответ.
+     *
+     * @return потоковый ответ или null, если отложенных нет
+     */
+    public ResponseStream pollParked() {
+        return parkedStreams.poll();
+    }
+
+    /**
+     * Проверяет, остались ли неотправленные кадры.
+     *
+     * @return true если есть кадры в очереди
+     */
+    public boolean hasPendingWrites() {
+        return !outbound.isEmpty();
+    }
+}
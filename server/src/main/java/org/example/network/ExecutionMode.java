@@ -0,0 +1,79 @@
+package org.example.network;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Режим выполнения команд сервера.
+ * Выбирается при запуске системным свойством {@code server.executionMode}.
+ *
+ * <p>Сервер собирается и работает на Java 17; виртуальные потоки появились в Java 21,
+ * поэтому режим {@link #VIRTUAL} подключает их через отражение и на более ранней версии
+ * Java переходит на пул потоков {@link #POOLED}.</p>
+ */
+public enum ExecutionMode {
+
+    /** Фиксированный пул платформенных потоков */
+    POOLED {
+        @Override
+        public ExecutorService newExecutor(int poolSize) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = runnable -> new Thread(runnable, "request-worker-" + counter.getAndIncrement());
+            return Executors.newFixedThreadPool(poolSize, factory);
+        }
+    },
+
+    /**
+     * Отдельный виртуальный поток на каждый запрос.
+     * Количество одновременно выполняемых команд ограничивается семафором сервера
+     * по размеру пула соединений с базой данных.
+     */
+    VIRTUAL {
+        @Override
+        public ExecutorService newExecutor(int poolSize) {
+            try {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "request-", 0L);
+                ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+                return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                        .invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Виртуальные потоки недоступны в Java " + Runtime.version().feature()
+                        + ", используется режим POOLED");
+                return POOLED.newExecutor(poolSize);
+            }
+        }
+    };
+
+    /**
+     * Создает исполнитель запросов для этого режима.
+     *
+     * @param poolSize размер пула (используется режимом POOLED)
+     * @return исполнитель запросов
+     */
+    public abstract ExecutorService newExecutor(int poolSize);
+
+    /**
+     * Проверяет, поддерживает ли текущая версия Java виртуальные потоки.
+     *
+     * @return true если режим {@link #VIRTUAL} использует виртуальные потоки
+     */
+    public static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Возвращает режим по названию без учета регистра.
+     *
+     * @param name название режима
+     * @return режим выполнения
+     * @throws IllegalArgumentException если режим неизвестен
+     */
+    public static ExecutionMode fromString(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
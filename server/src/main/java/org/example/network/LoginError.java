@@ -1,5 +1,6 @@
 package org.example.network;
 
 public enum LoginError {
-    LOGIN_ERROR;
+    LOGIN_ERROR,
+    SESSION_EXPIRED;
 }
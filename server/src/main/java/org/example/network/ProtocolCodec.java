@@ -0,0 +1,308 @@
+package org.example.network;
+
+import org.example.commands.Command;
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Бинарный кодек запросов и ответов.
+ * Заменяет Java-сериализацию: команда передается однобайтовым кодом {@link Opcode},
+ * а объекты предметной области кодируются вручную полями фиксированного формата.
+ */
+public class ProtocolCodec {
+
+    /** Тег аргумента: аргумент отсутствует */
+    static final byte ARG_NONE = 0;
+
+    /** Тег аргумента: число типа long */
+    static final byte ARG_LONG = 1;
+
+    /** Тег аргумента: строка */
+    static final byte ARG_STRING = 2;
+
+    /** Жанры в порядке их номеров */
+    private static final MusicGenre[] GENRES = MusicGenre.values();
+
+    /** Максимальное количество запросов или музыкальных групп в одном пакете */
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    /** Зарегистрированные команды сервера (имя команды -> объект команды) */
+    private final Map<String, Command> commands;
+
+    /**
+     * Конструктор кодека.
+     *
+     * @param commands зарегистрированные команды сервера, в которые разрешаются коды запросов
+     */
+    public ProtocolCodec(Map<String, Command> commands) {
+        this.commands = commands;
+    }
+
+    /**
+     * Декодирует запрос клиента.
+     * Неизвестный код команды дает запрос без команды.
+     * Вложенные запросы пакета выполняются от имени пользователя пакета.
+     * Пакеты запросов и наборы групп ограничены {@link #MAX_BATCH_SIZE} элементами.
+     *
+     * @param in открытый кадр запроса
+     * @return запрос
+     * @throws IOException если данные повреждены
+     */
+    public Request decodeRequest(FrameCodec.Input in) throws IOException {
+        Command command = readCommand(in);
+
+        User user = null;
+        if (in.readBoolean()) {
+            user = new User(in.readString(), in.readString());
+            user.setToken(in.readString());
+        }
+
+        Request request = readBody(in, command, user);
+
+        int count = in.readInt();
+        if (count < 0) {
+            return request;
+        }
+        checkBatchSize(count);
+        List<Request> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(readBody(in, readCommand(in), user));
+        }
+        return new Request(command, requests, user);
+    }
+
+    /**
+     * Кодирует ответ сервера в кадр.
+     *
+     * @param correlationId идентификатор запроса, на который дается ответ
+     * @param response ответ сервера
+     * @return буфер кадра, подготовленный для записи в канал
+     * @throws IOException при ошибке кодирования
+     */
+    public ByteBuffer encodeResponse(long correlationId, Response response) throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(correlationId);
+        writeResponse(out, response, response.getFullResult());
+        return out.toFrame();
+    }
+
+    /**
+     * Кодирует заголовок потокового ответа.
+     * Строки ответа передаются следующими кадрами, см. {@link ResponseStream}.
+     *
+     * @param correlationId идентификатор запроса, на который дается ответ
+     * @param response потоковый ответ сервера
+     * @return буфер кадра, подготовленный для записи в канал
+     * @throws IOException при ошибке кодирования
+     */
+    public ByteBuffer encodeStreamHeader(long correlationId, Response response) throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(correlationId, FrameCodec.KIND_STREAM);
+        writeResponse(out, response, response.getResult());
+        return out.toFrame();
+    }
+
+    private static void writeResponse(FrameCodec.Output out, Response response, String result) throws IOException {
+        out.writeString(result);
+        out.writeString(response.getToken());
+        out.writeByte(response.getLoginError() == null ? -1 : response.getLoginError().ordinal());
+        out.writeBoolean(response.getOperationflag());
+        out.writeLong(response.getRevision());
+        out.writeBoolean(response.isSnapshot());
+
+        Collection<MusicBand> bands = response.getMusicBands();
+        out.writeInt(bands == null ? -1 : bands.size());
+        if (bands != null) {
+            for (MusicBand band : bands) {
+                writeBand(out, band);
+            }
+        }
+
+        List<Long> ids = response.getIds();
+        out.writeInt(ids == null ? -1 : ids.size());
+        if (ids != null) {
+            for (long id : ids) {
+                out.writeLong(id);
+            }
+        }
+
+        out.writeLong(response.getTotal());
+
+        List<Response> responses = response.getResponses();
+        out.writeInt(responses == null ? -1 : responses.size());
+        if (responses != null) {
+            for (Response nested : responses) {
+                writeResponse(out, nested, nested.getFullResult());
+            }
+        }
+    }
+
+    private Command readCommand(FrameCodec.Input in) throws IOException {
+        Opcode opcode = Opcode.fromCode(in.readByte());
+        return opcode == null ? null : commands.get(opcode.getCommandName());
+    }
+
+    private static Request readBody(FrameCodec.Input in, Command command, User user) throws IOException {
+        Object args = readArgs(in);
+        MusicBand band = in.readBoolean() ? readBand(in) : null;
+
+        int bandCount = in.readInt();
+        if (bandCount < 0) {
+            return new Request(command, band, args, user);
+        }
+        checkBatchSize(bandCount);
+        List<MusicBand> bands = new ArrayList<>(bandCount);
+        for (int i = 0; i < bandCount; i++) {
+            bands.add(readBand(in));
+        }
+        return new Request(command, bands, user);
+    }
+
+    private static void checkBatchSize(int count) throws IOException {
+        if (count > MAX_BATCH_SIZE) {
+            throw new IOException("Слишком большой пакет: " + count);
+        }
+    }
+
+    private static Object readArgs(FrameCodec.Input in) throws IOException {
+        return switch (in.readByte()) {
+            case ARG_NONE -> null;
+            case ARG_LONG -> in.readLong();
+            case ARG_STRING -> in.readString();
+            default -> throw new IOException("Неизвестный тип аргумента");
+        };
+    }
+
+    /**
+     * Кодирует музыкальную группу.
+     *
+     * @param out поток кадра
+     * @param band музыкальная группа
+     * @throws IOException при ошибке записи
+     */
+    public static void writeBand(FrameCodec.Output out, MusicBand band) throws IOException {
+        out.writeLong(band.getId());
+        out.writeString(band.getName());
+        writeCoordinates(out, band.getCoordinates());
+        out.writeInt(band.getNumberOfParticipants());
+        LocalDateTime creationDate = band.getCreationDateTime();
+        out.writeLong(creationDate.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(creationDate.getNano());
+        Date establishmentDate = band.getEstablishmentDate();
+        out.writeBoolean(establishmentDate != null);
+        if (establishmentDate != null) {
+            out.writeLong(establishmentDate.getTime());
+        }
+        writeGenre(out, band.getGenre());
+        writeLabel(out, band.getLabel());
+        out.writeString(band.getUserLogin());
+    }
+
+    /**
+     * Декодирует музыкальную группу.
+     *
+     * @param in поток кадра
+     * @return музыкальная группа
+     * @throws IOException если данные повреждены
+     */
+    public static MusicBand readBand(FrameCodec.Input in) throws IOException {
+        long id = in.readLong();
+        String name = in.readString();
+        Coordinates coordinates = readCoordinates(in);
+        int participants = in.readInt();
+        LocalDateTime creationDate = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        Date establishmentDate = in.readBoolean() ? new Date(in.readLong()) : null;
+        MusicGenre genre = readGenre(in);
+        Label label = readLabel(in);
+        MusicBand band = new MusicBand(id, name, coordinates, participants, creationDate, genre, label);
+        band.setEstablishmentDate(establishmentDate);
+        band.setUserLogin(in.readString());
+        return band;
+    }
+
+    /**
+     * Кодирует координаты.
+     *
+     * @param out поток кадра
+     * @param coordinates координаты
+     * @throws IOException при ошибке записи
+     */
+    public static void writeCoordinates(FrameCodec.Output out, Coordinates coordinates) throws IOException {
+        out.writeFloat(coordinates.getX());
+        out.writeLong(coordinates.getY());
+    }
+
+    /**
+     * Декодирует координаты.
+     *
+     * @param in поток кадра
+     * @return координаты
+     * @throws IOException если данные повреждены
+     */
+    public static Coordinates readCoordinates(FrameCodec.Input in) throws IOException {
+        return new Coordinates(in.readFloat(), in.readLong());
+    }
+
+    /**
+     * Кодирует лейбл.
+     *
+     * @param out поток кадра
+     * @param label лейбл
+     * @throws IOException при ошибке записи
+     */
+    public static void writeLabel(FrameCodec.Output out, Label label) throws IOException {
+        out.writeString(label.getName());
+        out.writeInt(label.getBands());
+        out.writeLong(label.getSales());
+    }
+
+    /**
+     * Декодирует лейбл.
+     *
+     * @param in поток кадра
+     * @return лейбл
+     * @throws IOException если данные повреждены
+     */
+    public static Label readLabel(FrameCodec.Input in) throws IOException {
+        return new Label(in.readString(), in.readInt(), in.readLong());
+    }
+
+    /**
+     * Кодирует жанр порядковым номером; null кодируется как -1.
+     *
+     * @param out поток кадра
+     * @param genre жанр или null
+     * @throws IOException при ошибке записи
+     */
+    public static void writeGenre(FrameCodec.Output out, MusicGenre genre) throws IOException {
+        out.writeByte(genre == null ? -1 : genre.ordinal());
+    }
+
+    /**
+     * Декодирует жанр.
+     *
+     * @param in поток кадра
+     * @return жанр или null
+     * @throws IOException если данные повреждены
+     */
+    public static MusicGenre readGenre(FrameCodec.Input in) throws IOException {
+        byte ordinal = in.readByte();
+        if (ordinal == -1) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal >= GENRES.length) {
+            throw new IOException("Неизвестный жанр: " + ordinal);
+        }
+        return GENRES[ordinal];
+    }
+}
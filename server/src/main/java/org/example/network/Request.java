@@ -5,6 +5,8 @@ import org.example.mainClasses.MusicBand;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Класс для передачи запросов между клиентом и сервером.
@@ -35,6 +37,12 @@ public class Request implements Serializable {
     /** Строка регистрации (для специальных случаев) */
     private String register;
 
+    /** Вложенные запросы пакета или null, если запрос не пакетный */
+    private List<Request> requests;
+
+    /** Музыкальные группы для пакетного добавления или null */
+    private Collection<MusicBand> musicBands;
+
     /**
      * Конструктор для запросов регистрации.
      * @param register строка регистрации
@@ -103,6 +111,30 @@ public class Request implements Serializable {
         this.user = user;
     }
 
+    /**
+     * Конструктор пакетного запроса.
+     * @param command команда пакета
+     * @param requests вложенные запросы в порядке выполнения
+     * @param user пользователь, от имени которого выполняются все вложенные запросы
+     */
+    public Request(Command command, List<Request> requests, User user) {
+        this.command = command;
+        this.requests = requests;
+        this.user = user;
+    }
+
+    /**
+     * Конструктор запроса с набором музыкальных групп.
+     * @param command команда для выполнения
+     * @param musicBands музыкальные группы
+     * @param user пользователь
+     */
+    public Request(Command command, Collection<MusicBand> musicBands, User user) {
+        this.command = command;
+        this.musicBands = musicBands;
+        this.user = user;
+    }
+
     /**
      * Конструктор для запросов со строковым аргументом.
      * @param string строковый аргумент
@@ -135,6 +167,22 @@ public class Request implements Serializable {
         return args;
     }
 
+    /**
+     * Возвращает набор музыкальных групп запроса.
+     * @return музыкальные группы или null
+     */
+    public Collection<MusicBand> getMusicBands() {
+        return musicBands;
+    }
+
+    /**
+     * Возвращает вложенные запросы пакета.
+     * @return список запросов или null, если запрос не пакетный
+     */
+    public List<Request> getRequests() {
+        return requests;
+    }
+
     /**
      * Возвращает пользователя, отправившего запрос.
      * @return объект User
@@ -1,7 +1,13 @@
 package org.example.network;
 
+import org.example.mainClasses.MusicBand;
+
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Класс для передачи ответов от сервера клиенту.
@@ -28,6 +34,51 @@ public class Response implements Serializable {
      */
     private LoginError loginError;
 
+    /**
+     * Элементы коллекции, передаваемые клиенту.
+     */
+    private Collection<MusicBand> musicBands;
+
+    /**
+     * Идентификаторы элементов, затронутых командой.
+     */
+    private List<Long> ids;
+
+    /**
+     * Признак успешного выполнения операции.
+     */
+    private boolean operationflag;
+
+    /**
+     * Ревизия коллекции, до которой синхронизирован клиент после этого ответа.
+     */
+    private long revision;
+
+    /**
+     * Признак того, что musicBands содержит всю коллекцию, а не только изменения.
+     */
+    private boolean snapshot;
+
+    /**
+     * Токен сессии, выданный при входе или регистрации.
+     */
+    private String token;
+
+    /**
+     * Общее количество элементов, из которых выбрана переданная страница.
+     */
+    private long total;
+
+    /**
+     * Ответы на вложенные запросы пакета в порядке запросов.
+     */
+    private List<Response> responses;
+
+    /**
+     * Строки результата, которые формируются по мере отправки клиенту.
+     */
+    private transient Stream<String> lines;
+
     /**
      * Конструктор ответа с текстовым сообщением.
      * @param string текстовое сообщение для клиента
@@ -70,6 +121,181 @@ public class Response implements Serializable {
         return loginError;
     }
 
+    /**
+     * Конструктор ответа с элементами коллекции.
+     * @param bands элементы коллекции
+     */
+    public Response(Collection<MusicBand> bands) {
+        this.musicBands = bands;
+    }
+
+    /**
+     * Конструктор ответа с признаком успешности операции.
+     * @param operationflag true если операция выполнена
+     * @param result текстовое сообщение результата
+     */
+    public Response(boolean operationflag, String result) {
+        this.operationflag = operationflag;
+        this.result = result;
+    }
+
+    /**
+     * Конструктор ответа на пакет запросов.
+     * @param operationflag true если все вложенные запросы выполнены
+     * @param result текстовое сообщение результата
+     * @param responses ответы на вложенные запросы в порядке запросов
+     */
+    public Response(boolean operationflag, String result, List<Response> responses) {
+        this.operationflag = operationflag;
+        this.result = result;
+        this.responses = responses;
+    }
+
+    /**
+     * Конструктор ответа со списком затронутых идентификаторов.
+     * @param result текстовое сообщение результата
+     * @param ids идентификаторы элементов
+     */
+    public Response(String result, List<Long> ids) {
+        this.result = result;
+        this.ids = ids;
+    }
+
+    /**
+     * Конструктор ответа со страницей коллекции.
+     * @param result текстовое представление элементов страницы
+     * @param ids идентификаторы элементов страницы
+     * @param total количество элементов во всей коллекции
+     */
+    public Response(String result, List<Long> ids, long total) {
+        this.result = result;
+        this.ids = ids;
+        this.total = total;
+    }
+
+    /**
+     * Конструктор потокового ответа.
+     * Строки формируются лениво и передаются клиенту частями ограниченного размера.
+     * @param result заголовок результата
+     * @param lines строки результата
+     */
+    public Response(String result, Stream<String> lines) {
+        this.result = result;
+        this.lines = lines;
+    }
+
+    /**
+     * Конструктор ответа на успешный вход с токеном сессии.
+     * @param result текстовое сообщение результата
+     * @param token токен сессии
+     */
+    public Response(String result, String token) {
+        this.result = result;
+        this.token = token;
+    }
+
+    /**
+     * Конструктор ответа с изменениями коллекции.
+     * @param revision ревизия коллекции
+     * @param snapshot true если передается вся коллекция
+     * @param bands добавленные или измененные элементы (или вся коллекция)
+     * @param deletedIds идентификаторы удаленных элементов
+     */
+    public Response(long revision, boolean snapshot, Collection<MusicBand> bands, List<Long> deletedIds) {
+        this.revision = revision;
+        this.snapshot = snapshot;
+        this.musicBands = bands;
+        this.ids = deletedIds;
+    }
+
+    /**
+     * Возвращает элементы коллекции, переданные в ответе.
+     * @return элементы коллекции или null
+     */
+    public Collection<MusicBand> getMusicBands() {
+        return musicBands;
+    }
+
+    /**
+     * Возвращает идентификаторы элементов, затронутых командой.
+     * @return список идентификаторов или null
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    /**
+     * Возвращает признак успешного выполнения операции.
+     * @return true если операция выполнена
+     */
+    public boolean getOperationflag() {
+        return operationflag;
+    }
+
+    /**
+     * Возвращает ревизию коллекции.
+     * @return ревизия коллекции или 0, если ответ ее не содержит
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Проверяет, содержит ли ответ всю коллекцию.
+     * @return true если передан полный снимок коллекции
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Возвращает токен сессии.
+     * @return токен или null, если ответ его не содержит
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Возвращает общее количество элементов, из которых выбрана страница.
+     * @return количество элементов или 0, если ответ не содержит страницы
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Возвращает строки потокового ответа.
+     * @return строки результата или null, если ответ не потоковый
+     */
+    public Stream<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * Возвращает результат вместе со всеми строками потокового ответа.
+     * Используется, когда ответ нельзя передать потоком, например внутри пакета.
+     * Строки потокового ответа при этом расходуются.
+     * @return полный текст результата
+     */
+    public String getFullResult() {
+        if (lines == null) {
+            return result;
+        }
+        String text = lines.collect(Collectors.joining("\n", result + "\n", ""));
+        lines = null;
+        result = text;
+        return text;
+    }
+
+    /**
+     * Возвращает ответы на вложенные запросы пакета.
+     * @return список ответов или null, если ответ не пакетный
+     */
+    public List<Response> getResponses() {
+        return responses;
+    }
+
     /**
      * Конструктор по умолчанию.
      * Создает ответ с результатом "Успешно".
@@ -0,0 +1,91 @@
+package org.example.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Передача строк потокового ответа частями.
+ * Каждая часть кодируется только тогда, когда сервер готов ее отправить,
+ * поэтому в памяти одновременно находится не больше нескольких частей независимо от размера результата.
+ */
+public class ResponseStream {
+
+    /** Размер части, после которого в нее больше не добавляются строки (байт) */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    /** Идентификатор корреляции запроса */
+    private final long correlationId;
+
+    /** Источник строк */
+    private final Stream<String> source;
+
+    /** Итератор по еще не отправленным строкам */
+    private final Iterator<String> lines;
+
+    /** Отправлен ли кадр завершения */
+    private boolean finished;
+
+    /**
+     * Конструктор потока.
+     *
+     * @param correlationId идентификатор корреляции запроса
+     * @param source строки ответа
+     */
+    public ResponseStream(long correlationId, Stream<String> source) {
+        this.correlationId = correlationId;
+        this.source = source;
+        this.lines = source.iterator();
+    }
+
+    /**
+     * Кодирует следующий кадр: часть с очередными строками или завершение, если строки закончились.
+     *
+     * @return буфер кадра, подготовленный для записи в канал
+     * @throws IOException при ошибке кодирования
+     */
+    public ByteBuffer nextFrame() throws IOException {
+        if (!lines.hasNext()) {
+            return endFrame(null);
+        }
+        FrameCodec.Output out = FrameCodec.newFrame(correlationId, FrameCodec.KIND_CHUNK);
+        while (lines.hasNext() && out.size() < CHUNK_SIZE) {
+            out.writeString(lines.next());
+        }
+        out.writeString(null);
+        return out.toFrame();
+    }
+
+    /**
+     * Кодирует кадр завершения и освобождает источник строк.
+     *
+     * @param error текст ошибки, прервавшей поток, или null
+     * @return буфер кадра, подготовленный для записи в канал
+     * @throws IOException при ошибке кодирования
+     */
+    public ByteBuffer endFrame(String error) throws IOException {
+        finished = true;
+        source.close();
+        FrameCodec.Output out = FrameCodec.newFrame(correlationId, FrameCodec.KIND_END);
+        out.writeString(error);
+        return out.toFrame();
+    }
+
+    /**
+     * Проверяет, отправлен ли кадр завершения.
+     *
+     * @return true если поток завершен
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Прерывает поток без отправки завершения, например при закрытии соединения.
+     */
+    public void close() {
+        finished = true;
+        source.close();
+    }
+}
@@ -1,19 +1,28 @@
 package org.example.network;
 
+import org.example.commands.Subscribe;
 import org.example.managers.CollectionManager;
 import org.example.managers.DataBaseManager;
 import org.example.managers.RunManager;
+import org.example.utility.ChangeLog;
 
 import java.io.*;
 import java.net.InetSocketAddress;
-import java.nio.channels.ServerSocketChannel;
-import java.nio.channels.SocketChannel;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.logging.Logger;
 
 /**
  * Класс сервера для обработки клиентских запросов.
- * Использует пулы потоков для эффективной обработки соединений.
+ * Весь сетевой ввод-вывод выполняется в одном потоке через {@link Selector},
+ * команды выполняются в пуле потоков или виртуальных потоках (см. {@link ExecutionMode}),
+ * а консоль сервера читается в отдельном потоке.
+ * Подписанным клиентам рассылаются уведомления об изменениях коллекции.
  */
 public class Server {
 
@@ -22,13 +31,40 @@ public class Server {
     private final CollectionManager collectionManager;
     private final RunManager runManager;
     private final DataBaseManager dataBaseManager;
+    private final ProtocolCodec codec;
 
     private ServerSocketChannel serverSocket;
-    private Request request;
-    private Response response;
+    private volatile Selector selector;
+    private volatile boolean running = true;
 
-    private final ExecutorService connectionPool = Executors.newCachedThreadPool();
-    private final ExecutorService requestProcessingPool = Executors.newFixedThreadPool(3);
+    /** Выполняется ли цикл обработки событий */
+    private volatile boolean serving;
+
+    /** Освобождается, когда цикл обработки завершен и ресурсы сервера закрыты */
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    /** Задачи, которые должны быть выполнены в потоке селектора */
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+
+    private final ExecutionMode executionMode;
+    private final ExecutorService requestProcessingPool;
+
+    /**
+     * Разрешения на выполнение команд в режиме {@link ExecutionMode#VIRTUAL}: не больше
+     * соединений пула базы данных одновременно, остальные запросы ждут в очереди семафора,
+     * а не истекают по таймауту ожидания соединения. В режиме POOLED равно null.
+     */
+    private final Semaphore commandPermits;
+
+    /** Соединения, подписанные на изменения коллекции */
+    private final Set<SelectionKey> subscribers = ConcurrentHashMap.newKeySet();
+
+    /** Поток рассылки уведомлений; один поток сохраняет порядок ревизий */
+    private final ExecutorService pushDispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "push-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private static final Logger logger = Logger.getLogger("logger");
 
@@ -46,117 +82,440 @@ public class Server {
      */
     public Server(String host, RunManager runManager, int port,
                   DataBaseManager dataBaseManager, CollectionManager collectionManager) {
+        this(host, runManager, port, dataBaseManager, collectionManager, ExecutionMode.POOLED, 3, 0);
+    }
+
+    /**
+     * Конструктор сервера с выбранным режимом выполнения команд.
+     *
+     * @param host адрес сервера
+     * @param runManager менеджер выполнения команд
+     * @param port порт сервера
+     * @param dataBaseManager менеджер работы с БД
+     * @param collectionManager менеджер коллекции
+     * @param executionMode режим выполнения команд
+     * @param poolSize размер пула потоков для режима {@link ExecutionMode#POOLED}
+     * @param dbConcurrency количество одновременно выполняемых команд в режиме {@link ExecutionMode#VIRTUAL}
+     */
+    public Server(String host, RunManager runManager, int port, DataBaseManager dataBaseManager,
+                  CollectionManager collectionManager, ExecutionMode executionMode, int poolSize,
+                  int dbConcurrency) {
         this.host = host;
+        this.executionMode = executionMode;
+        this.requestProcessingPool = executionMode.newExecutor(poolSize);
+        this.commandPermits = executionMode == ExecutionMode.VIRTUAL ? new Semaphore(dbConcurrency, true) : null;
         this.port = port;
         this.dataBaseManager = dataBaseManager;
         this.collectionManager = collectionManager;
         this.runManager = runManager;
+        this.codec = new ProtocolCodec(runManager.getCommandManager().getCommands());
+        if (collectionManager != null) {
+            collectionManager.setChangeListener(change -> pushDispatcher.execute(() -> broadcast(change)));
+        }
     }
 
     /**
      * Запускает сервер и начинает обработку клиентских запросов.
+     * Поток блокируется в {@link Selector#select()} до появления событий ввода-вывода.
      */
     public void run() {
         openServerSocket();
-        logger.info("Сервер запущен на порту " + port);
+        logger.info("Сервер запущен на порту " + port + ", режим выполнения " + executionMode);
 
-        try {
-            while (true) {
-                processConsoleCommands();
+        Thread consoleThread = new Thread(this::processConsoleCommands, "server-console");
+        consoleThread.setDaemon(true);
+        consoleThread.start();
 
+        serving = true;
+        try {
+            while (running) {
+                selector.select();
+                runSelectorTasks();
 
-                SocketChannel clientSocket = serverSocket.accept();
-                if (clientSocket != null) {
-                    processClientRequest(clientSocket);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            acceptClient();
+                        } else {
+                            if (key.isReadable()) {
+                                readClient(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                writeClient(key);
+                            }
+                        }
+                    } catch (IOException | CancelledKeyException e) {
+                        logger.warning("Ошибка соединения с клиентом: " + e.getMessage());
+                        closeClient(key);
+                    }
                 }
             }
         } catch (IOException e) {
             logger.severe("Критическая ошибка сервера: " + e.getMessage());
+        } finally {
             shutdownServer();
         }
     }
 
     /**
      * Обрабатывает команды из консоли сервера.
-     * @throws IOException если произошла ошибка ввода/вывода
+     * Выполняется в отдельном потоке и блокируется на чтении строки.
      */
-    private void processConsoleCommands() throws IOException {
-        if (consoleReader.ready()) {
-            String command = consoleReader.readLine();
-            if ("save".equals(command) || "s".equals(command)) {
-                collectionManager.loadCollection();
-                logger.info("Коллекция успешно сохранена!");
+    private void processConsoleCommands() {
+        try {
+            String command;
+            while (running && (command = consoleReader.readLine()) != null) {
+                if ("save".equals(command) || "s".equals(command)) {
+                    if (collectionManager.saveSnapshot(true)) {
+                        logger.info("Коллекция успешно сохранена!");
+                    } else {
+                        logger.warning("Не удалось сохранить снимок коллекции");
+                    }
+                } else if ("reload".equals(command)) {
+                    long loaded = collectionManager.loadCollection();
+                    if (loaded < 0) {
+                        logger.warning("Не удалось загрузить коллекцию из базы данных");
+                    } else {
+                        logger.info("Коллекция загружена из базы данных: " + loaded + " объектов");
+                    }
+                } else if ("pool".equals(command)) {
+                    logger.info(dataBaseManager.getConnectionPool().getStats());
+                } else if ("auth".equals(command)) {
+                    logger.info(dataBaseManager.getCredentialCache().getStats());
+                } else if ("queue".equals(command) && dataBaseManager.getWriteBehind() != null) {
+                    logger.info("Изменений ожидает записи в базу: " + dataBaseManager.getWriteBehind().getBacklog());
+                }
             }
+        } catch (IOException e) {
+            logger.warning("Ошибка чтения консоли: " + e.getMessage());
         }
     }
 
     /**
-     * Обрабатывает запрос от клиента.
-     * @param clientSocket сокет клиента
+     * Принимает новое подключение и регистрирует его в селекторе на чтение.
+     * @throws IOException если произошла ошибка ввода/вывода
      */
-    private void processClientRequest(SocketChannel clientSocket) {
-        connectionPool.submit(() -> {
-            try (ObjectInputStream reader = new ObjectInputStream(clientSocket.socket().getInputStream());
-                 ObjectOutputStream writer = new ObjectOutputStream(clientSocket.socket().getOutputStream())) {
-
-                Request request = (Request) reader.readObject();
-                logger.info("Получен запрос от " + request.getUser().getLogin() +
-                        ": " + request.getCommand().getName());
+    private void acceptClient() throws IOException {
+        SocketChannel clientSocket;
+        while ((clientSocket = serverSocket.accept()) != null) {
+            clientSocket.configureBlocking(false);
+            clientSocket.register(selector, SelectionKey.OP_READ, new ClientConnection(clientSocket));
+        }
+    }
 
-                Future<Response> responseFuture = requestProcessingPool.submit(
-                        () -> runManager.run(request));
+    /**
+     * Читает данные клиента и передает полученные запросы на выполнение.
+     * Если у клиента слишком много незавершенных запросов или неотправленных ответов,
+     * чтение приостанавливается до их отправки.
+     * @param key ключ селектора клиента
+     * @throws IOException если произошла ошибка ввода/вывода
+     */
+    private void readClient(SelectionKey key) throws IOException {
+        ClientConnection connection = (ClientConnection) key.attachment();
+        List<byte[]> frames = connection.read();
+        if (frames == null) {
+            closeClient(key);
+            return;
+        }
+        for (byte[] frame : frames) {
+            processClientRequest(key, connection, frame);
+        }
+        updateInterest(key);
+    }
 
+    /**
+     * Дописывает очередь ответов клиенту.
+     * @param key ключ селектора клиента
+     * @throws IOException если произошла ошибка ввода/вывода
+     */
+    private void writeClient(SelectionKey key) throws IOException {
+        ClientConnection connection = (ClientConnection) key.attachment();
+        connection.flush();
+        ResponseStream stream;
+        while (!connection.isStreamPaused() && (stream = connection.pollParked()) != null) {
+            ResponseStream resumed = stream;
+            requestProcessingPool.execute(() -> streamResponse(key, connection, resumed));
+        }
+        updateInterest(key);
+    }
 
-                Response response = responseFuture.get();
-                sendResponse(response, writer);
-                logger.info("Ответ отправлен " + request.getUser().getLogin() +
-                        ": " + response.getResult());
+    /**
+     * Обрабатывает запрос от клиента как цепочку этапов:
+     * декодирование в пуле запросов, проверка сессии и выполнение команды,
+     * кодирование ответа и постановка его в очередь соединения.
+     * Ни один этап не ждет другой в заблокированном потоке: долгие команды завершают
+     * future в своих потоках, а запись выполняет поток селектора.
+     * Соединение остается открытым для следующих запросов клиента.
+     * @param key ключ селектора клиента
+     * @param connection соединение клиента
+     * @param frame тело кадра с запросом
+     */
+    private void processClientRequest(SelectionKey key, ClientConnection connection, byte[] frame) {
+        connection.requestStarted();
+        CompletableFuture.supplyAsync(() -> acquirePermit(decodeRequest(frame)), requestProcessingPool)
+                .thenCompose(decoded -> runCommand(decoded.request())
+                        .thenApply(response -> encodeResponse(key, decoded, response)))
+                .whenComplete((encoded, error) -> {
+                    if (error != null) {
+                        connection.requestFinished();
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        logger.warning("Ошибка обработки запроса: " + cause.getMessage());
+                        runInSelector(() -> closeClient(key));
+                        return;
+                    }
+                    connection.enqueue(encoded.frame());
+                    runInSelector(() -> updateInterest(key));
+                    if (encoded.stream() == null) {
+                        connection.requestFinished();
+                    } else {
+                        streamResponse(key, connection, encoded.stream());
+                    }
+                });
+    }
 
-            } catch (IOException | ClassNotFoundException |
-                     InterruptedException | ExecutionException e) {
-                logger.warning("Ошибка обработки запроса: " + e.getMessage());
-            } finally {
-                closeClientSocket(clientSocket);
+    /**
+     * Ждет разрешения на выполнение команды в потоке пула запросов, если число команд ограничено.
+     * @param decoded декодированный запрос
+     * @return тот же запрос
+     */
+    private DecodedRequest acquirePermit(DecodedRequest decoded) {
+        if (commandPermits != null) {
+            try {
+                commandPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
             }
-        });
+        }
+        return decoded;
     }
 
     /**
-     * Закрывает клиентский сокет.
-     * @param socket сокет для закрытия
+     * Выполняет команду и возвращает разрешение, полученное в {@link #acquirePermit(DecodedRequest)},
+     * когда команда завершится.
+     * @param request запрос клиента
+     * @return future с ответом
      */
-    private void closeClientSocket(SocketChannel socket) {
+    private CompletableFuture<Response> runCommand(Request request) {
+        if (commandPermits == null) {
+            return runManager.runAsync(request);
+        }
         try {
-            if (socket != null) {
-                socket.close();
+            return runManager.runAsync(request).whenComplete((response, error) -> commandPermits.release());
+        } catch (RuntimeException e) {
+            commandPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Отправляет части потокового ответа, пока очередь отправки клиента не заполнится.
+     * Заполнив очередь, поток откладывается и продолжается в пуле запросов,
+     * когда поток селектора допишет отправленные части.
+     * Запрос считается выполняемым до отправки завершения потока.
+     * @param key ключ селектора клиента
+     * @param connection соединение клиента
+     * @param stream потоковый ответ
+     */
+    private void streamResponse(SelectionKey key, ClientConnection connection, ResponseStream stream) {
+        while (true) {
+            if (!key.isValid()) {
+                stream.close();
+                connection.requestFinished();
+                return;
+            }
+            try {
+                ByteBuffer frame;
+                try {
+                    frame = stream.nextFrame();
+                } catch (RuntimeException e) {
+                    logger.warning("Ошибка формирования потокового ответа: " + e.getMessage());
+                    frame = stream.endFrame("Ошибка формирования ответа: " + e.getMessage());
+                }
+                connection.enqueue(frame);
+            } catch (IOException e) {
+                logger.warning("Ошибка кодирования потокового ответа: " + e.getMessage());
+                stream.close();
+                connection.requestFinished();
+                runInSelector(() -> closeClient(key));
+                return;
+            }
+            runInSelector(() -> updateInterest(key));
+            if (stream.isFinished()) {
+                connection.requestFinished();
+                return;
+            }
+            if (connection.isStreamPaused()) {
+                connection.park(stream);
+                // Очередь могла освободиться до того, как поток был отложен
+                if (connection.isStreamPaused() || !connection.unpark(stream)) {
+                    return;
+                }
             }
+        }
+    }
+
+    /**
+     * Декодирует кадр запроса.
+     * @param frame тело кадра
+     * @return запрос и его идентификатор корреляции
+     */
+    private DecodedRequest decodeRequest(byte[] frame) {
+        try {
+            FrameCodec.Input in = FrameCodec.openFrame(frame);
+            long correlationId = in.getCorrelationId();
+            Request request = codec.decodeRequest(in);
+            logger.info("Получен запрос от " + loginOf(request) +
+                    ": " + (request.getCommand() == null ? "?" : request.getCommand().getName()));
+            return new DecodedRequest(correlationId, request);
         } catch (IOException e) {
-            logger.warning("Ошибка закрытия сокета: " + e.getMessage());
+            throw new UncheckedIOException(e);
         }
     }
 
     /**
-     * Отправляет ответ клиенту.
+     * Кодирует ответ на запрос. Успешная подписка регистрирует соединение
+     * до отправки ответа, чтобы клиент не пропустил изменения.
+     * Для потокового ответа кодируется только заголовок.
+     * @param key ключ селектора клиента
+     * @param decoded запрос
      * @param response ответ сервера
-     * @param writer поток вывода
+     * @return кадр ответа и поток оставшихся частей (null для обычного ответа)
+     */
+    private EncodedResponse encodeResponse(SelectionKey key, DecodedRequest decoded, Response response) {
+        if (decoded.request().getCommand() instanceof Subscribe && response.getOperationflag()) {
+            subscribers.add(key);
+        }
+        try {
+            EncodedResponse encoded = response.getLines() == null
+                    ? new EncodedResponse(codec.encodeResponse(decoded.correlationId(), response), null)
+                    : new EncodedResponse(codec.encodeStreamHeader(decoded.correlationId(), response),
+                            new ResponseStream(decoded.correlationId(), response.getLines()));
+            logger.info("Ответ отправлен " + loginOf(decoded.request()) + ": " + response.getResult());
+            return encoded;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String loginOf(Request request) {
+        return request.getUser() == null ? "?" : request.getUser().getLogin();
+    }
+
+    /**
+     * Запрос вместе с идентификатором корреляции кадра.
+     * @param correlationId идентификатор корреляции
+     * @param request запрос
+     */
+    private record DecodedRequest(long correlationId, Request request) {
+    }
+
+    /**
+     * Закодированный ответ.
+     * @param frame кадр ответа или заголовка потокового ответа
+     * @param stream оставшиеся части потокового ответа или null
+     */
+    private record EncodedResponse(ByteBuffer frame, ResponseStream stream) {
+    }
+
+    /**
+     * Рассылает изменение коллекции подписанным клиентам.
+     * Кадр кодируется один раз, каждому соединению передается его копия с собственной позицией.
+     * Клиент, не успевающий забирать уведомления, отключается и при переподключении
+     * догоняет коллекцию запросом разницы.
+     * @param change изменение коллекции
      */
-    private synchronized void sendResponse(Response response, ObjectOutputStream writer) {
+    private void broadcast(ChangeLog.Delta change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ByteBuffer frame;
         try {
-            writer.writeObject(response);
-            writer.flush();
+            frame = codec.encodeResponse(FrameCodec.PUSH_CORRELATION_ID,
+                    new Response(change.revision(), change.snapshot(), change.upserted(), change.deleted()));
         } catch (IOException e) {
-            logger.warning("Ошибка отправки ответа: " + e.getMessage());
+            logger.warning("Не удалось закодировать уведомление: " + e.getMessage());
+            return;
+        }
+        for (SelectionKey key : subscribers) {
+            ClientConnection connection = (ClientConnection) key.attachment();
+            if (connection.offer(frame.duplicate())) {
+                runInSelector(() -> updateInterest(key));
+            } else {
+                logger.warning("Клиент не успевает получать уведомления, соединение закрыто");
+                subscribers.remove(key);
+                runInSelector(() -> closeClient(key));
+            }
+        }
+    }
+
+    /**
+     * Выставляет интересующие события клиента: запись, пока есть неотправленные кадры,
+     * и чтение, пока соединение не перегружено. Вызывается в потоке селектора.
+     * @param key ключ селектора клиента
+     */
+    private void updateInterest(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
         }
+        ClientConnection connection = (ClientConnection) key.attachment();
+        int ops = connection.isReadPaused() ? 0 : SelectionKey.OP_READ;
+        if (connection.hasPendingWrites()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(ops);
+    }
+
+    /**
+     * Передает задачу в поток селектора и будит его.
+     * @param task задача для выполнения
+     */
+    private void runInSelector(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
     }
 
     /**
-     * Открывает серверный сокет.
+     * Выполняет накопленные задачи в потоке селектора.
+     */
+    private void runSelectorTasks() {
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Закрывает клиентское соединение.
+     * @param key ключ селектора клиента
+     */
+    private void closeClient(SelectionKey key) {
+        subscribers.remove(key);
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            logger.warning("Ошибка закрытия сокета: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Открывает серверный сокет и регистрирует его в селекторе.
      */
     private void openServerSocket() {
         try {
+            selector = Selector.open();
             serverSocket = ServerSocketChannel.open();
             serverSocket.bind(new InetSocketAddress(host, port));
             serverSocket.configureBlocking(false);
+            serverSocket.register(selector, SelectionKey.OP_ACCEPT);
             logger.info("Серверный сокет успешно открыт");
         } catch (IOException e) {
             logger.severe("Не удалось открыть серверный сокет: " + e.getMessage());
@@ -165,24 +524,80 @@ public class Server {
     }
 
     /**
-     * Корректно завершает работу сервера.
+     * Останавливает сервер из другого потока: будит цикл обработки событий
+     * и ждет, пока он закроет соединения и дождется выполняемых команд.
+     * Если цикл еще не запущен, останавливает только пулы выполнения: цикл, запущенный
+     * после этого, сразу завершится. Коллекцию и базу данных сервер не закрывает - они
+     * принадлежат вызывающему.
+     */
+    public void stop() {
+        running = false;
+        if (!serving) {
+            shutdownExecutors();
+            return;
+        }
+        selector.wakeup();
+        try {
+            if (!stopped.await(10, TimeUnit.SECONDS)) {
+                logger.warning("Сервер не завершил работу за 10 секунд");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Корректно завершает работу сервера: закрывает соединения, консоль и пулы выполнения команд.
      */
     private void shutdownServer() {
+        running = false;
         try {
-            connectionPool.shutdown();
-            requestProcessingPool.shutdown();
-            if (!connectionPool.awaitTermination(5, TimeUnit.SECONDS)) {
-                connectionPool.shutdownNow();
+            shutdownExecutors();
+            if (selector != null) {
+                closeChannels();
             }
+            // Поток консоли - демон и заблокирован в readLine, поэтому консоль не закрывается:
+            // закрытие ридера ждало бы его блокировку
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Останавливает рассылку уведомлений и ждет выполняемые команды.
+     */
+    private void shutdownExecutors() {
+        pushDispatcher.shutdownNow();
+        requestProcessingPool.shutdown();
+        try {
             if (!requestProcessingPool.awaitTermination(5, TimeUnit.SECONDS)) {
                 requestProcessingPool.shutdownNow();
             }
-            if (serverSocket != null) {
-                serverSocket.close();
+        } catch (InterruptedException e) {
+            requestProcessingPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Закрывает все каналы селектора и сам селектор.
+     * Ошибка закрытия одного канала не мешает закрыть остальные.
+     */
+    private void closeChannels() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    logger.warning("Ошибка закрытия соединения: " + e.getMessage());
+                }
+            }
+        } finally {
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.warning("Ошибка закрытия селектора: " + e.getMessage());
             }
-            consoleReader.close();
-        } catch (IOException | InterruptedException e) {
-            logger.warning("Ошибка при завершении работы сервера: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -28,6 +28,11 @@ public class User implements Serializable {
      */
     private String password;
 
+    /**
+     * Токен сессии, которым пользователь аутентифицируется после входа.
+     */
+    private String token;
+
     /**
      * Конструктор пользователя.
      *
@@ -57,6 +62,24 @@ public class User implements Serializable {
         return password;
     }
 
+    /**
+     * Возвращает токен сессии пользователя.
+     *
+     * @return токен или null
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Устанавливает токен сессии пользователя.
+     *
+     * @param token токен сессии
+     */
+    public void setToken(String token) {
+        this.token = token;
+    }
+
     /**
      * Устанавливает новый логин пользователя.
      *
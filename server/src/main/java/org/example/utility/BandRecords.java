@@ -0,0 +1,66 @@
+package org.example.utility;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Двоичная запись музыкальной группы для локальных журналов коллекции.
+ * Порядок полей: ID, название, координаты X и Y, количество участников, дата создания,
+ * жанр, название лейбла, количество групп и продажи лейбла, логин владельца.
+ */
+public final class BandRecords {
+
+    private BandRecords() {
+    }
+
+    /**
+     * Записывает группу.
+     *
+     * @param out поток записи
+     * @param band группа
+     * @throws IOException при ошибке записи
+     */
+    public static void write(DataOutput out, MusicBand band) throws IOException {
+        out.writeLong(band.getId());
+        out.writeUTF(band.getName());
+        out.writeFloat(band.getCoordinates().getX());
+        out.writeLong(band.getCoordinates().getY());
+        out.writeInt(band.getNumberOfParticipants());
+        out.writeUTF(band.getCreationDate());
+        out.writeUTF(band.getGenre() != null ? band.getGenre().name() : "");
+        out.writeUTF(band.getLabelName());
+        out.writeInt(band.getLabel().getBands());
+        out.writeLong(band.getLabel().getSales());
+        out.writeUTF(band.getUserLogin() != null ? band.getUserLogin() : "");
+    }
+
+    /**
+     * Читает группу, записанную {@link #write(DataOutput, MusicBand)}.
+     *
+     * @param in поток чтения
+     * @return группа
+     * @throws IOException при ошибке чтения
+     */
+    public static MusicBand read(DataInput in) throws IOException {
+        MusicBand band = new MusicBand(in.readLong(),
+                in.readUTF(),
+                new Coordinates(in.readFloat(), in.readLong()),
+                in.readInt(),
+                LocalDateTime.parse(in.readUTF()),
+                genre(in.readUTF()),
+                new Label(in.readUTF(), in.readInt(), in.readLong()));
+        band.setUserLogin(in.readUTF());
+        return band;
+    }
+
+    private static MusicGenre genre(String name) {
+        return name.isEmpty() ? null : MusicGenre.valueOf(name);
+    }
+}
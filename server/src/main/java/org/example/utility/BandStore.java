@@ -0,0 +1,178 @@
+package org.example.utility;
+
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище музыкальных групп коллекции с индексом по ID.
+ * Группы хранятся в порядке добавления; операции по ID выполняются за O(1).
+ * Одинаковые лейблы групп хранятся один раз в словаре {@link LabelDictionary}.
+ * Реализации не потокобезопасны: доступ к ним защищает блокировка {@code CollectionManager}.
+ *
+ * @see MusicBandStore
+ * @see ColumnarBandStore
+ */
+public interface BandStore extends Iterable<MusicBand> {
+
+    /**
+     * Добавляет группу в конец хранилища.
+     *
+     * @param band группа с уникальным положительным ID
+     * @throws IllegalArgumentException если ID не положителен или уже занят
+     */
+    void add(MusicBand band);
+
+    /**
+     * Возвращает группу по ID.
+     *
+     * @param id ID группы
+     * @return группа или null, если ее нет
+     */
+    MusicBand getById(long id);
+
+    /**
+     * Проверяет наличие группы с заданным ID.
+     *
+     * @param id ID группы
+     * @return true если группа есть в хранилище
+     */
+    boolean contains(long id);
+
+    /**
+     * Заменяет группу с заданным ID, сохраняя ее позицию.
+     *
+     * @param id ID заменяемой группы
+     * @param band новые данные группы; ей присваивается тот же ID
+     * @return true если группа была найдена и заменена
+     */
+    boolean replace(long id, MusicBand band);
+
+    /**
+     * Удаляет группу по ID.
+     *
+     * @param id ID группы
+     * @return удаленная группа или null, если ее не было
+     */
+    MusicBand removeById(long id);
+
+    /**
+     * Удаляет группы по набору ID за один проход по набору.
+     *
+     * @param ids ID удаляемых групп
+     * @return количество удаленных групп
+     */
+    int removeAll(Collection<Long> ids);
+
+    /**
+     * Возвращает группу по позиции в порядке хранения.
+     * Может уплотнить хранилище, поэтому вызывается под исключительной блокировкой.
+     *
+     * @param position позиция от 0
+     * @return группа или null, если позиция вне коллекции
+     */
+    MusicBand getAt(int position);
+
+    /**
+     * Возвращает группы с заданной позиции в порядке хранения.
+     * Не изменяет хранилище, поэтому безопасен при конкурентном чтении.
+     *
+     * @param offset позиция первой группы от 0
+     * @param limit максимальное количество групп
+     * @return группы страницы (пустой список, если позиция вне коллекции)
+     */
+    List<MusicBand> range(int offset, int limit);
+
+    /**
+     * Удаляет группу по позиции в порядке хранения.
+     *
+     * @param position позиция от 0
+     * @return удаленная группа или null, если позиция вне коллекции
+     */
+    MusicBand removeAt(int position);
+
+    /**
+     * Возвращает первую группу.
+     *
+     * @return первая группа или null, если хранилище пусто
+     */
+    MusicBand first();
+
+    /**
+     * Удаляет первую группу.
+     *
+     * @return удаленная группа или null, если хранилище пусто
+     */
+    MusicBand removeFirst();
+
+    /**
+     * Перемешивает элементы хранилища.
+     */
+    void shuffle();
+
+    /**
+     * Удаляет все элементы.
+     * Наибольший выданный ID сохраняется, чтобы ID не использовались повторно.
+     */
+    void clear();
+
+    /**
+     * Возвращает ID, который гарантированно свободен.
+     *
+     * @return наибольший известный ID плюс один
+     */
+    long nextId();
+
+    /**
+     * Возвращает количество элементов.
+     *
+     * @return размер хранилища
+     */
+    int size();
+
+    /**
+     * Проверяет, пусто ли хранилище.
+     *
+     * @return true если элементов нет
+     */
+    boolean isEmpty();
+
+    /**
+     * Возвращает поток элементов в порядке хранения.
+     *
+     * @return поток групп
+     */
+    Stream<MusicBand> stream();
+
+    /**
+     * Возвращает копию содержимого в порядке хранения, которую можно читать без блокировки коллекции,
+     * пока само хранилище изменяется. Копирование занимает время порядка копирования массивов хранилища.
+     *
+     * @return неизменяемая копия групп
+     */
+    List<MusicBand> copy();
+
+    /**
+     * Группирует группы по лейблу по номерам словаря лейблов, без хеширования лейблов.
+     *
+     * @return группы по лейблам; ключи - общие объекты лейблов из словаря
+     */
+    Map<Label, List<MusicBand>> groupByLabel();
+
+    /**
+     * Возвращает ID групп, принадлежащих пользователю, в порядке хранения.
+     *
+     * @param login логин владельца
+     * @return ID групп пользователя
+     */
+    default List<Long> idsOwnedBy(String login) {
+        return stream()
+                .filter(band -> login.equals(band.getUserLogin()))
+                .map(MusicBand::getId)
+                .toList();
+    }
+}
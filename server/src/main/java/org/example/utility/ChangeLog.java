@@ -0,0 +1,181 @@
+package org.example.utility;
+
+import org.example.mainClasses.MusicBand;
+
+import java.util.*;
+
+/**
+ * Журнал изменений коллекции с монотонной ревизией.
+ * Каждое изменение увеличивает ревизию на единицу. Последние изменения хранятся
+ * в кольцевом буфере, поэтому клиент с недавней ревизией получает только разницу,
+ * а клиент с устаревшей ревизией - полный снимок коллекции.
+ * Не потокобезопасен: вызывается под блокировкой коллекции.
+ */
+public class ChangeLog {
+
+    /** Ревизии сохраненных изменений */
+    private final long[] revisions;
+
+    /** ID групп сохраненных изменений */
+    private final long[] ids;
+
+    /** Новые значения групп (null - группа удалена) */
+    private final MusicBand[] bands;
+
+    /** Индекс самого старого изменения в буфере */
+    private int head;
+
+    /** Количество изменений в буфере */
+    private int count;
+
+    /** Текущая ревизия коллекции */
+    private long revision;
+
+    /** Наименьшая ревизия, начиная с которой разница может быть построена */
+    private long floor;
+
+    /** Получатель изменений или null */
+    private Listener listener;
+
+    /**
+     * Конструктор журнала.
+     * Начальная ревизия берется из текущего времени, чтобы ревизии клиентов,
+     * полученные до перезапуска сервера, оказались ниже нее и вызвали полную синхронизацию.
+     *
+     * @param capacity количество хранимых изменений
+     */
+    public ChangeLog(int capacity) {
+        this.revisions = new long[capacity];
+        this.ids = new long[capacity];
+        this.bands = new MusicBand[capacity];
+        this.revision = System.currentTimeMillis();
+        this.floor = revision;
+    }
+
+    /**
+     * Возвращает текущую ревизию.
+     *
+     * @return ревизия коллекции
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Устанавливает получателя изменений.
+     *
+     * @param listener получатель или null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Записывает добавление или изменение группы.
+     *
+     * @param band новое значение группы
+     */
+    public void upsert(MusicBand band) {
+        append(band.getId(), band);
+    }
+
+    /**
+     * Записывает удаление группы.
+     *
+     * @param id ID удаленной группы
+     */
+    public void delete(long id) {
+        append(id, null);
+    }
+
+    /**
+     * Отмечает изменение, которое нельзя выразить разницей (перемешивание, перезагрузка, очистка).
+     * Все клиенты получат полный снимок.
+     */
+    public void reset() {
+        Arrays.fill(bands, null);
+        head = 0;
+        count = 0;
+        floor = ++revision;
+        if (listener != null) {
+            listener.onChange(new Delta(revision, true, List.of(), List.of()));
+        }
+    }
+
+    /**
+     * Строит разницу между ревизией клиента и текущей ревизией.
+     * Несколько изменений одной группы сворачиваются в последнее.
+     *
+     * @param since ревизия, известная клиенту
+     * @return разница или null, если ее нельзя построить и нужен полный снимок
+     */
+    public Delta changesSince(long since) {
+        if (since < floor || since > revision) {
+            return null;
+        }
+        Map<Long, MusicBand> latest = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int slot = (head + i) % revisions.length;
+            if (revisions[slot] > since) {
+                latest.remove(ids[slot]);
+                latest.put(ids[slot], bands[slot]);
+            }
+        }
+        List<MusicBand> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        latest.forEach((id, band) -> {
+            if (band == null) {
+                deleted.add(id);
+            } else {
+                upserted.add(band);
+            }
+        });
+        return new Delta(revision, false, upserted, deleted);
+    }
+
+    private void append(long id, MusicBand band) {
+        int slot;
+        if (count == revisions.length) {
+            slot = head;
+            floor = revisions[head];
+            head = (head + 1) % revisions.length;
+        } else {
+            slot = (head + count) % revisions.length;
+            count++;
+        }
+        revisions[slot] = ++revision;
+        ids[slot] = id;
+        bands[slot] = band;
+        if (listener != null) {
+            listener.onChange(band == null
+                    ? new Delta(revision, false, List.of(), List.of(id))
+                    : new Delta(revision, false, List.of(band), List.of()));
+        }
+    }
+
+    /**
+     * Получатель изменений коллекции.
+     * Вызывается под блокировкой коллекции в порядке ревизий, поэтому должен работать быстро.
+     */
+    public interface Listener {
+        /**
+         * Сообщает об одном изменении коллекции.
+         * Изменение, которое нельзя выразить разницей, приходит с признаком snapshot и без элементов:
+         * получатель должен заново запросить коллекцию.
+         *
+         * @param change изменение с новой ревизией
+         */
+        void onChange(Delta change);
+    }
+
+    /**
+     * Изменения коллекции, отправляемые клиенту.
+     *
+     * @param revision ревизия, до которой клиент будет синхронизирован
+     * @param snapshot true если upserted содержит всю коллекцию и клиент должен заменить свою копию
+     * @param upserted добавленные или измененные группы
+     * @param deleted ID удаленных групп
+     */
+    public record Delta(long revision, boolean snapshot, List<MusicBand> upserted, List<Long> deleted) {
+    }
+}
@@ -0,0 +1,288 @@
+package org.example.utility;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный снимок коллекции с фиксированной раскладкой, читаемый через отображение файла в память.
+ * Поля группы лежат в строках фиксированного размера по известным смещениям, а строки
+ * (названия групп и лейблов, логины) вынесены в общую таблицу, где каждая строка хранится один раз,
+ * поэтому при чтении числовые поля берутся из отображения без разбора,
+ * а одинаковые строки разных групп становятся одним объектом.
+ *
+ * <p>Раскладка (little-endian): заголовок {@value #HEADER_SIZE} байт - сигнатура, версия,
+ * поколение журнала {@link WriteAheadLog}, количество групп, количество строк, CRC32 всего после заголовка;
+ * затем строки групп по {@value #ROW_SIZE} байт в порядке хранения; затем таблица строк -
+ * смещения начала каждой строки и конца последней (int) и сами строки в UTF-8.
+ * Отсутствующая строка обозначается индексом -1.</p>
+ *
+ * <p>Снимок можно открыть и вне сервера, например для анализа большой коллекции:
+ * {@link #open(Path)} отображает файл, а {@link #getBand(int)} собирает группу по номеру строки.</p>
+ */
+public final class CollectionSnapshot {
+
+    /** Сигнатура файла снимка */
+    private static final int MAGIC = 0x4D425353;
+
+    /** Версия формата снимка */
+    private static final int VERSION = 2;
+
+    /** Размер заголовка (байт) */
+    private static final int HEADER_SIZE = 32;
+
+    /** Размер строки группы (байт) */
+    private static final int ROW_SIZE = 64;
+
+    /** Смещения полей в строке группы */
+    private static final int ID = 0;
+    private static final int Y = 8;
+    private static final int LABEL_SALES = 16;
+    private static final int CREATION_SECOND = 24;
+    private static final int CREATION_NANO = 32;
+    private static final int X = 36;
+    private static final int PARTICIPANTS = 40;
+    private static final int LABEL_BANDS = 44;
+    private static final int NAME = 48;
+    private static final int LABEL_NAME = 52;
+    private static final int USER_LOGIN = 56;
+    private static final int GENRE = 60;
+
+    /** Размер буфера записи (байт) */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /** Жанры по порядковому номеру */
+    private static final MusicGenre[] GENRES = MusicGenre.values();
+
+    /** Отображение файла снимка */
+    private final ByteBuffer buffer;
+
+    /** Поколение журнала */
+    private final long generation;
+
+    /** Количество групп */
+    private final int size;
+
+    /** Таблица строк */
+    private final String[] strings;
+
+    private CollectionSnapshot(ByteBuffer buffer, long generation, int size, String[] strings) {
+        this.buffer = buffer;
+        this.generation = generation;
+        this.size = size;
+        this.strings = strings;
+    }
+
+    /**
+     * Записывает снимок коллекции во временный файл, сбрасывает его на диск и переименовывает.
+     *
+     * @param file файл снимка; не должен существовать
+     * @param generation поколение журнала, изменения которого в снимок не вошли
+     * @param bands группы коллекции в порядке хранения
+     * @throws IOException при ошибке записи или если снимок больше 2 ГБ
+     */
+    public static void write(Path file, long generation, List<MusicBand> bands) throws IOException {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<byte[]> table = new ArrayList<>();
+        long stringBytes = 0;
+        for (MusicBand band : bands) {
+            for (String value : new String[]{band.getName(), band.getLabelName(), band.getUserLogin()}) {
+                if (value != null && !indexes.containsKey(value)) {
+                    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                    indexes.put(value, table.size());
+                    table.add(encoded);
+                    stringBytes += encoded.length;
+                }
+            }
+        }
+        long total = HEADER_SIZE + (long) bands.size() * ROW_SIZE + 4L * (table.size() + 1) + stringBytes;
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Снимок коллекции больше 2 ГБ");
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(HEADER_SIZE);
+            for (MusicBand band : bands) {
+                if (out.remaining() < ROW_SIZE) {
+                    drain(channel, out, crc);
+                }
+                LocalDateTime created = band.getCreationDateTime();
+                int row = out.position();
+                out.putLong(row + ID, band.getId());
+                out.putLong(row + Y, band.getCoordinates().getY());
+                out.putLong(row + LABEL_SALES, band.getLabel().getSales());
+                out.putLong(row + CREATION_SECOND, created.toEpochSecond(ZoneOffset.UTC));
+                out.putInt(row + CREATION_NANO, created.getNano());
+                out.putFloat(row + X, band.getCoordinates().getX());
+                out.putInt(row + PARTICIPANTS, band.getNumberOfParticipants());
+                out.putInt(row + LABEL_BANDS, band.getLabel().getBands());
+                out.putInt(row + NAME, indexOf(indexes, band.getName()));
+                out.putInt(row + LABEL_NAME, indexOf(indexes, band.getLabelName()));
+                out.putInt(row + USER_LOGIN, indexOf(indexes, band.getUserLogin()));
+                out.putInt(row + GENRE, band.getGenre() == null ? -1 : band.getGenre().ordinal());
+                out.position(row + ROW_SIZE);
+            }
+            int offset = 0;
+            for (int i = 0; i <= table.size(); i++) {
+                if (out.remaining() < 4) {
+                    drain(channel, out, crc);
+                }
+                out.putInt(offset);
+                if (i < table.size()) {
+                    offset += table.get(i).length;
+                }
+            }
+            for (byte[] value : table) {
+                int written = 0;
+                while (written < value.length) {
+                    if (!out.hasRemaining()) {
+                        drain(channel, out, crc);
+                    }
+                    int length = Math.min(out.remaining(), value.length - written);
+                    out.put(value, written, length);
+                    written += length;
+                }
+            }
+            drain(channel, out, crc);
+
+            out.putInt(MAGIC).putInt(VERSION).putLong(generation).putInt(bands.size()).putInt(table.size())
+                    .putInt((int) crc.getValue()).putInt(0).flip();
+            while (out.hasRemaining()) {
+                channel.write(out, out.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Открывает снимок: отображает файл в память, проверяет контрольную сумму и читает таблицу строк.
+     *
+     * @param file файл снимка
+     * @return снимок
+     * @throws IOException если снимок не читается или поврежден
+     */
+    public static CollectionSnapshot open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Неверный размер снимка " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Неизвестный формат снимка " + file);
+        }
+        long generation = buffer.getLong(8);
+        int size = buffer.getInt(16);
+        int stringCount = buffer.getInt(20);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        if ((int) crc.getValue() != buffer.getInt(24)) {
+            throw new IOException("Контрольная сумма снимка не совпадает");
+        }
+        int table = HEADER_SIZE + size * ROW_SIZE;
+        int data = table + 4 * (stringCount + 1);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int start = buffer.getInt(table + 4 * i);
+            int end = buffer.getInt(table + 4 * (i + 1));
+            byte[] value = new byte[end - start];
+            buffer.get(data + start, value);
+            strings[i] = new String(value, StandardCharsets.UTF_8);
+        }
+        return new CollectionSnapshot(buffer, generation, size, strings);
+    }
+
+    /**
+     * Возвращает поколение журнала, изменения которого в снимок не вошли.
+     *
+     * @return поколение журнала
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Возвращает количество групп в снимке.
+     *
+     * @return количество групп
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает ID группы без сборки объекта.
+     *
+     * @param row номер группы от 0
+     * @return ID группы
+     */
+    public long getId(int row) {
+        return buffer.getLong(HEADER_SIZE + row * ROW_SIZE + ID);
+    }
+
+    /**
+     * Собирает группу по номеру.
+     *
+     * @param row номер группы от 0
+     * @return группа
+     */
+    public MusicBand getBand(int row) {
+        int offset = HEADER_SIZE + row * ROW_SIZE;
+        MusicBand band = new MusicBand(buffer.getLong(offset + ID),
+                string(buffer.getInt(offset + NAME)),
+                new Coordinates(buffer.getFloat(offset + X), buffer.getLong(offset + Y)),
+                buffer.getInt(offset + PARTICIPANTS),
+                LocalDateTime.ofEpochSecond(buffer.getLong(offset + CREATION_SECOND),
+                        buffer.getInt(offset + CREATION_NANO), ZoneOffset.UTC),
+                genre(buffer.getInt(offset + GENRE)),
+                new Label(string(buffer.getInt(offset + LABEL_NAME)), buffer.getInt(offset + LABEL_BANDS),
+                        buffer.getLong(offset + LABEL_SALES)));
+        band.setUserLogin(string(buffer.getInt(offset + USER_LOGIN)));
+        return band;
+    }
+
+    private String string(int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static MusicGenre genre(int ordinal) {
+        return ordinal < 0 ? null : GENRES[ordinal];
+    }
+
+    private static int indexOf(Map<String, Integer> indexes, String value) {
+        return value == null ? -1 : indexes.get(value);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out, CRC32 crc) throws IOException {
+        out.flip();
+        crc.update(out.duplicate());
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,557 @@
+package org.example.utility;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Хранилище музыкальных групп по столбцам.
+ * Каждое поле группы лежит в своем массиве примитивов (ID, координаты, количество участников,
+ * дата создания в наносекундах от эпохи, номер жанра), а лейблы ({@link LabelDictionary})
+ * и логины владельцев хранятся в словарях и заменяются в строке номерами. Поэтому группа занимает несколько десятков байт
+ * вместо нескольких объектов, а проход по одному полю читает память подряд.
+ *
+ * <p>Объекты {@link MusicBand} собираются при каждом чтении и не связаны с хранилищем:
+ * чтобы изменить группу, ее нужно заменить через {@link #replace(long, MusicBand)}.
+ * Хранятся те же поля, что и в базе данных; дата основания группы не сохраняется.</p>
+ *
+ * <p>Удаленные строки, как и в {@link MusicBandStore}, остаются пустыми (ID 0)
+ * и уплотняются, когда их становится много или нужен доступ по позиции.</p>
+ */
+public class ColumnarBandStore implements BandStore {
+
+    /** Количество наносекунд в секунде */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** Жанры по порядковому номеру */
+    private static final MusicGenre[] GENRES = MusicGenre.values();
+
+    /** ID групп (0 - пустая строка) */
+    private long[] ids;
+
+    /** Названия групп */
+    private String[] names;
+
+    /** Координаты X */
+    private float[] xs;
+
+    /** Координаты Y */
+    private long[] ys;
+
+    /** Количество участников */
+    private int[] participants;
+
+    /** Даты создания: наносекунды от эпохи по UTC */
+    private long[] created;
+
+    /** Порядковые номера жанров (-1 - жанр не задан) */
+    private byte[] genres;
+
+    /** Номера лейблов в словаре лейблов */
+    private int[] labels;
+
+    /** Номера владельцев в словаре логинов (-1 - владелец не задан) */
+    private int[] owners;
+
+    /** Первая занятая строка */
+    private int head;
+
+    /** Первая свободная строка после последнего элемента */
+    private int tail;
+
+    /** Количество элементов */
+    private int size;
+
+    /** Индекс ID -> номер строки */
+    private final LongIntHashMap index;
+
+    /** Наибольший ID, когда-либо добавленный в хранилище */
+    private long maxId;
+
+    /** Словарь лейблов */
+    private final LabelDictionary labelDictionary;
+
+    /** Номера владельцев по логину */
+    private final Map<String, Integer> ownerIds;
+
+    /** Логины владельцев по номеру */
+    private final List<String> ownerValues;
+
+    /**
+     * Конструктор пустого хранилища.
+     */
+    public ColumnarBandStore() {
+        this(16);
+    }
+
+    /**
+     * Конструктор хранилища, рассчитанного на заданное количество элементов без перестроения.
+     *
+     * @param expectedSize ожидаемое количество элементов
+     */
+    public ColumnarBandStore(int expectedSize) {
+        allocate(Math.max(16, expectedSize));
+        this.index = new LongIntHashMap(expectedSize);
+        this.labelDictionary = new LabelDictionary();
+        this.ownerIds = new HashMap<>();
+        this.ownerValues = new ArrayList<>();
+    }
+
+    /**
+     * Конструктор уплотненной копии строк хранилища для чтения по позиции.
+     * Индекс по ID не строится, поэтому копия используется только через {@link #copy()}.
+     *
+     * @param source копируемое хранилище
+     */
+    private ColumnarBandStore(ColumnarBandStore source) {
+        allocate(Math.max(1, source.size));
+        if (source.tail - source.head == source.size) {
+            copyColumns(source, source.head, 0, source.size);
+        } else {
+            for (int slot = source.head; slot < source.tail; slot++) {
+                if (source.ids[slot] != 0) {
+                    copyColumns(source, slot, tail, 1);
+                }
+            }
+        }
+        this.size = tail;
+        this.maxId = source.maxId;
+        this.index = new LongIntHashMap(0);
+        this.labelDictionary = new LabelDictionary(source.labelDictionary);
+        this.ownerIds = Map.of();
+        this.ownerValues = new ArrayList<>(source.ownerValues);
+    }
+
+    @Override
+    public void add(MusicBand band) {
+        long id = band.getId();
+        if (id <= 0 || index.containsKey(id)) {
+            throw new IllegalArgumentException("Недопустимый ID: " + id);
+        }
+        if (tail == ids.length) {
+            ensureCapacity();
+        }
+        write(tail, band);
+        index.put(id, tail++);
+        size++;
+        maxId = Math.max(maxId, id);
+    }
+
+    @Override
+    public MusicBand getById(long id) {
+        int slot = index.get(id);
+        return slot == LongIntHashMap.NO_VALUE ? null : view(slot);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    @Override
+    public boolean replace(long id, MusicBand band) {
+        int slot = index.get(id);
+        if (slot == LongIntHashMap.NO_VALUE) {
+            return false;
+        }
+        band.setId(id);
+        int previousLabel = labels[slot];
+        write(slot, band);
+        labelDictionary.release(previousLabel);
+        return true;
+    }
+
+    @Override
+    public MusicBand removeById(long id) {
+        int slot = index.remove(id);
+        if (slot == LongIntHashMap.NO_VALUE) {
+            return null;
+        }
+        MusicBand band = view(slot);
+        labelDictionary.release(labels[slot]);
+        ids[slot] = 0;
+        names[slot] = null;
+        size--;
+        if (size == 0) {
+            head = 0;
+            tail = 0;
+        } else if (slot == head) {
+            while (ids[head] == 0) {
+                head++;
+            }
+        }
+        return band;
+    }
+
+    @Override
+    public int removeAll(Collection<Long> ids) {
+        int removed = 0;
+        for (long id : ids) {
+            if (removeById(id) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public MusicBand getAt(int position) {
+        if (position < 0 || position >= size) {
+            return null;
+        }
+        if (tail - head != size) {
+            compact();
+        }
+        return view(head + position);
+    }
+
+    @Override
+    public List<MusicBand> range(int offset, int limit) {
+        if (offset < 0 || offset >= size || limit <= 0) {
+            return new ArrayList<>(0);
+        }
+        List<MusicBand> page = new ArrayList<>(Math.min(limit, size - offset));
+        if (tail - head == size) {
+            for (int slot = head + offset; slot < tail && page.size() < limit; slot++) {
+                page.add(view(slot));
+            }
+            return page;
+        }
+        int position = 0;
+        for (int slot = head; slot < tail && page.size() < limit; slot++) {
+            if (ids[slot] != 0 && position++ >= offset) {
+                page.add(view(slot));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public MusicBand removeAt(int position) {
+        MusicBand band = getAt(position);
+        return band == null ? null : removeById(band.getId());
+    }
+
+    @Override
+    public MusicBand first() {
+        return size == 0 ? null : view(head);
+    }
+
+    @Override
+    public MusicBand removeFirst() {
+        return size == 0 ? null : removeById(ids[head]);
+    }
+
+    @Override
+    public void shuffle() {
+        compact();
+        Random random = ThreadLocalRandom.current();
+        for (int i = size - 1; i > 0; i--) {
+            swap(i, random.nextInt(i + 1));
+        }
+        for (int slot = 0; slot < size; slot++) {
+            index.put(ids[slot], slot);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(ids, head, tail, 0);
+        Arrays.fill(names, head, tail, null);
+        index.clear();
+        labelDictionary.clear();
+        head = 0;
+        tail = 0;
+        size = 0;
+    }
+
+    @Override
+    public long nextId() {
+        return maxId + 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Stream<MusicBand> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Возвращает копию столбцов; группы собираются уже при чтении копии.
+     *
+     * @return неизменяемая копия групп
+     */
+    @Override
+    public List<MusicBand> copy() {
+        ColumnarBandStore copy = new ColumnarBandStore(this);
+        return new AbstractList<>() {
+            @Override
+            public MusicBand get(int position) {
+                Objects.checkIndex(position, copy.size);
+                return copy.view(position);
+            }
+
+            @Override
+            public int size() {
+                return copy.size;
+            }
+        };
+    }
+
+    @Override
+    public Map<Label, List<MusicBand>> groupByLabel() {
+        List<List<MusicBand>> groups = new ArrayList<>(Collections.nCopies(labelDictionary.capacity(), null));
+        for (int slot = head; slot < tail; slot++) {
+            if (ids[slot] != 0) {
+                int label = labels[slot];
+                if (groups.get(label) == null) {
+                    groups.set(label, new ArrayList<>());
+                }
+                groups.get(label).add(view(slot));
+            }
+        }
+        Map<Label, List<MusicBand>> result = new LinkedHashMap<>();
+        for (int label = 0; label < groups.size(); label++) {
+            if (groups.get(label) != null) {
+                result.put(labelDictionary.get(label), groups.get(label));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает ID групп пользователя, сравнивая номера владельцев без сборки групп.
+     *
+     * @param login логин владельца
+     * @return ID групп пользователя
+     */
+    @Override
+    public List<Long> idsOwnedBy(String login) {
+        Integer owner = ownerIds.get(login);
+        if (owner == null) {
+            return List.of();
+        }
+        List<Long> result = new ArrayList<>();
+        for (int slot = head; slot < tail; slot++) {
+            if (owners[slot] == owner && ids[slot] != 0) {
+                result.add(ids[slot]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Spliterator<MusicBand> spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public Iterator<MusicBand> iterator() {
+        return new Iterator<>() {
+            private int cursor = skipEmpty(head);
+
+            @Override
+            public boolean hasNext() {
+                return cursor < tail;
+            }
+
+            @Override
+            public MusicBand next() {
+                if (cursor >= tail) {
+                    throw new NoSuchElementException();
+                }
+                MusicBand band = view(cursor);
+                cursor = skipEmpty(cursor + 1);
+                return band;
+            }
+        };
+    }
+
+    /**
+     * Собирает объект группы из строки хранилища.
+     *
+     * @param slot номер строки
+     * @return новая группа с данными строки
+     */
+    private MusicBand view(int slot) {
+        LocalDateTime creationDate = LocalDateTime.ofEpochSecond(Math.floorDiv(created[slot], NANOS_PER_SECOND),
+                (int) Math.floorMod(created[slot], NANOS_PER_SECOND), ZoneOffset.UTC);
+        MusicBand band = new MusicBand(ids[slot], names[slot], new Coordinates(xs[slot], ys[slot]),
+                participants[slot], creationDate, genres[slot] < 0 ? null : GENRES[genres[slot]],
+                labelDictionary.get(labels[slot]));
+        band.setUserLogin(owners[slot] < 0 ? null : ownerValues.get(owners[slot]));
+        return band;
+    }
+
+    /**
+     * Записывает поля группы в строку хранилища.
+     *
+     * @param slot номер строки
+     * @param band группа
+     */
+    private void write(int slot, MusicBand band) {
+        LocalDateTime creationDate = band.getCreationDateTime();
+        ids[slot] = band.getId();
+        names[slot] = band.getName();
+        xs[slot] = band.getCoordinates().getX();
+        ys[slot] = band.getCoordinates().getY();
+        participants[slot] = band.getNumberOfParticipants();
+        created[slot] = Math.addExact(Math.multiplyExact(creationDate.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                creationDate.getNano());
+        genres[slot] = band.getGenre() == null ? -1 : (byte) band.getGenre().ordinal();
+        labels[slot] = labelDictionary.acquire(band.getLabel());
+        owners[slot] = owner(band.getUserLogin());
+    }
+
+    /**
+     * Возвращает номер владельца в словаре логинов. Логины не удаляются: их не больше, чем пользователей.
+     *
+     * @param login логин или null
+     * @return номер владельца или -1
+     */
+    private int owner(String login) {
+        if (login == null) {
+            return -1;
+        }
+        return ownerIds.computeIfAbsent(login, key -> {
+            ownerValues.add(key);
+            return ownerValues.size() - 1;
+        });
+    }
+
+    private int skipEmpty(int slot) {
+        while (slot < tail && ids[slot] == 0) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        names = new String[capacity];
+        xs = new float[capacity];
+        ys = new long[capacity];
+        participants = new int[capacity];
+        created = new long[capacity];
+        genres = new byte[capacity];
+        labels = new int[capacity];
+        owners = new int[capacity];
+    }
+
+    /**
+     * Освобождает место в конце массивов: уплотняет их, если пустых строк не меньше половины,
+     * иначе увеличивает вдвое.
+     */
+    private void ensureCapacity() {
+        if (size * 2 <= ids.length) {
+            compact();
+            return;
+        }
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        participants = Arrays.copyOf(participants, capacity);
+        created = Arrays.copyOf(created, capacity);
+        genres = Arrays.copyOf(genres, capacity);
+        labels = Arrays.copyOf(labels, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+    }
+
+    /**
+     * Сдвигает строки в начало массивов без пропусков и обновляет индекс.
+     */
+    private void compact() {
+        if (head == 0 && tail == size) {
+            return;
+        }
+        int target = 0;
+        for (int slot = head; slot < tail; slot++) {
+            if (ids[slot] != 0) {
+                move(slot, target);
+                index.put(ids[target], target);
+                target++;
+            }
+        }
+        Arrays.fill(ids, target, tail, 0);
+        Arrays.fill(names, target, tail, null);
+        head = 0;
+        tail = target;
+    }
+
+    /**
+     * Копирует подряд идущие строки другого хранилища и сдвигает конец этого хранилища за них.
+     */
+    private void copyColumns(ColumnarBandStore source, int from, int to, int count) {
+        System.arraycopy(source.ids, from, ids, to, count);
+        System.arraycopy(source.names, from, names, to, count);
+        System.arraycopy(source.xs, from, xs, to, count);
+        System.arraycopy(source.ys, from, ys, to, count);
+        System.arraycopy(source.participants, from, participants, to, count);
+        System.arraycopy(source.created, from, created, to, count);
+        System.arraycopy(source.genres, from, genres, to, count);
+        System.arraycopy(source.labels, from, labels, to, count);
+        System.arraycopy(source.owners, from, owners, to, count);
+        tail = to + count;
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        names[to] = names[from];
+        xs[to] = xs[from];
+        ys[to] = ys[from];
+        participants[to] = participants[from];
+        created[to] = created[from];
+        genres[to] = genres[from];
+        labels[to] = labels[from];
+        owners[to] = owners[from];
+    }
+
+    private void swap(int i, int j) {
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        String name = names[i];
+        names[i] = names[j];
+        names[j] = name;
+        float x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+        long y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+        int count = participants[i];
+        participants[i] = participants[j];
+        participants[j] = count;
+        long date = created[i];
+        created[i] = created[j];
+        created[j] = date;
+        byte genre = genres[i];
+        genres[i] = genres[j];
+        genres[j] = genre;
+        int label = labels[i];
+        labels[i] = labels[j];
+        labels[j] = label;
+        int owner = owners[i];
+        owners[i] = owners[j];
+        owners[j] = owner;
+    }
+}
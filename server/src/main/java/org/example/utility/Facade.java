@@ -2,10 +2,17 @@ package org.example.utility;
 
 import org.example.commands.*;
 import org.example.managers.*;
+import org.example.network.ExecutionMode;
 import org.example.network.Server;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
 import java.util.logging.Logger;
 
 /**
@@ -24,6 +31,19 @@ public class Facade {
     /**
      * Запускает серверное приложение.
      * Инициализирует все необходимые менеджеры, загружает коллекцию и запускает сервер.
+     * Режим выполнения команд задается системными свойствами {@code server.executionMode}
+     * (pooled или virtual, по умолчанию pooled) и {@code server.poolSize}
+     * (по умолчанию количество процессоров); в режиме virtual количество одновременно выполняемых
+     * команд ограничивается {@code server.dbConcurrency} (по умолчанию 10, как размер пула соединений).
+     * Коллекция восстанавливается из локальных снимка и журнала в каталоге {@code server.recovery.dir}
+     * (по умолчанию recovery; пустое значение отключает локальное восстановление).
+     * Размер журнала задается {@code server.wal.size} (байт, по умолчанию 64 МБ),
+     * интервал сохранения снимка - {@code server.snapshot.interval} (мс, по умолчанию 5 минут).
+     * Хранилище коллекции задается {@code server.store}: objects (по умолчанию) или columnar
+     * для больших коллекций.
+     * При остановке процесса (в том числе по сигналу) ловушка завершения по порядку закрывает
+     * сервер, коллекцию (со снимком), базу данных (со сбросом очереди отложенной записи и пулом соединений)
+     * и сессии.
      *
      * @throws SQLException если произошла ошибка при работе с базой данных
      */
@@ -37,21 +57,86 @@ public class Facade {
         RunManager runManager = new RunManager(commandManager);
 
         // Инициализация менеджера базы данных
-        DataBaseManager dataBaseManager = new DataBaseManager();
+        DataBaseManager dataBaseManager = DataBaseManager.open();
+
+        // Инициализация локального восстановления коллекции
+        CollectionRecovery recovery = null;
+        String recoveryDirectory = System.getProperty("server.recovery.dir", "recovery");
+        if (!recoveryDirectory.isEmpty()) {
+            try {
+                recovery = new CollectionRecovery(Path.of(recoveryDirectory),
+                        Integer.getInteger("server.wal.size", 64 << 20));
+            } catch (IOException e) {
+                logger.warning("Локальное восстановление коллекции отключено: " + e.getMessage());
+            }
+        }
 
         // Инициализация менеджера коллекции
-        CollectionManager collectionManager = new CollectionManager();
+        IntFunction<BandStore> storeFactory = "columnar".equalsIgnoreCase(System.getProperty("server.store"))
+                ? ColumnarBandStore::new : MusicBandStore::new;
+        CollectionManager collectionManager = new CollectionManager(dataBaseManager, recovery, storeFactory);
+
+        // Инициализация менеджера сессий: 30 минут простоя, не более 10000 сессий
+        SessionManager sessionManager = new SessionManager(30 * 60 * 1000L, 10_000);
 
         // Регистрация всех команд в системе
-        commandManager.init(commandManager, collectionManager, dataBaseManager);
+        commandManager.init(commandManager, collectionManager, dataBaseManager, sessionManager);
 
         // Создание и запуск сервера
-        Server server = new Server("localhost", runManager, 1782, dataBaseManager, collectionManager);
+        ExecutionMode executionMode = ExecutionMode.fromString(System.getProperty("server.executionMode", "pooled"));
+        int poolSize = Integer.getInteger("server.poolSize", Runtime.getRuntime().availableProcessors());
+        int dbConcurrency = Integer.getInteger("server.dbConcurrency", 10);
+        Server server = new Server("localhost", runManager, 1782, dataBaseManager, collectionManager,
+                executionMode, poolSize, dbConcurrency);
 
         // Загрузка начального состояния коллекции
-        collectionManager.loadCollection();
+        long start = System.nanoTime();
+        long loaded = collectionManager.recoverCollection();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (loaded < 0) {
+            logger.warning("Не удалось загрузить коллекцию (" + elapsed + " мс)");
+        } else {
+            logger.info("Коллекция загружена: " + loaded + " объектов за " + elapsed + " мс");
+        }
+
+        // Периодическое сохранение снимка коллекции
+        ScheduledExecutorService snapshots = null;
+        if (recovery != null) {
+            long interval = Long.getLong("server.snapshot.interval", 5 * 60 * 1000L);
+            snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "collection-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshots.scheduleWithFixedDelay(() -> collectionManager.saveSnapshot(false),
+                    interval, interval, TimeUnit.MILLISECONDS);
+        }
+
+        // Завершение работы: по сигналу процессу или после выхода из цикла сервера
+        AtomicBoolean stopped = new AtomicBoolean();
+        ScheduledExecutorService snapshotScheduler = snapshots;
+        Runnable shutdown = () -> {
+            if (!stopped.compareAndSet(false, true)) {
+                return;
+            }
+            System.err.println("Завершение работы сервера...");
+            server.stop();
+            if (snapshotScheduler != null) {
+                snapshotScheduler.shutdown();
+                try {
+                    snapshotScheduler.awaitTermination(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            collectionManager.close();
+            dataBaseManager.close();
+            sessionManager.close();
+        };
+        Runtime.getRuntime().addShutdownHook(new Thread(shutdown, "server-shutdown"));
 
         logger.info("Сервер запускается...");
         server.run();
+        shutdown.run();
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package org.example.utility;
+
+import org.example.mainClasses.Label;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Словарь лейблов хранилища коллекции.
+ * Одинаковые лейблы (равные название, количество групп и продажи) получают один номер
+ * и один общий объект {@link Label}, поэтому лейбл, на котором много групп, хранится один раз,
+ * а группировка по лейблу выполняется по номеру без хеширования лейблов.
+ *
+ * <p>Словарь считает ссылки: номер освобождается, когда на лейбл не ссылается ни одна группа,
+ * и выдается следующему новому лейблу.</p>
+ */
+public class LabelDictionary {
+
+    /** Номера лейблов по значению */
+    private final Map<Label, Integer> ids = new HashMap<>();
+
+    /** Лейблы по номеру (null - номер свободен) */
+    private Label[] values = new Label[16];
+
+    /** Количество групп, ссылающихся на лейбл */
+    private int[] references = new int[16];
+
+    /** Свободные номера */
+    private int[] free = new int[16];
+
+    /** Количество свободных номеров */
+    private int freeCount;
+
+    /** Количество выданных номеров */
+    private int count;
+
+    /**
+     * Конструктор пустого словаря.
+     */
+    public LabelDictionary() {
+    }
+
+    /**
+     * Конструктор копии словаря.
+     *
+     * @param source копируемый словарь
+     */
+    public LabelDictionary(LabelDictionary source) {
+        ids.putAll(source.ids);
+        values = source.values.clone();
+        references = source.references.clone();
+        free = source.free.clone();
+        freeCount = source.freeCount;
+        count = source.count;
+    }
+
+    /**
+     * Возвращает номер лейбла, добавляя лейбл в словарь при необходимости,
+     * и увеличивает количество ссылок на него.
+     *
+     * @param label лейбл
+     * @return номер лейбла
+     */
+    public int acquire(Label label) {
+        Integer known = ids.get(label);
+        int id;
+        if (known != null) {
+            id = known;
+        } else {
+            if (freeCount > 0) {
+                id = free[--freeCount];
+            } else {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                    references = Arrays.copyOf(references, count * 2);
+                }
+                id = count++;
+            }
+            values[id] = label;
+            ids.put(label, id);
+        }
+        references[id]++;
+        return id;
+    }
+
+    /**
+     * Уменьшает количество ссылок на лейбл и освобождает номер, если ссылок не осталось.
+     *
+     * @param id номер лейбла
+     */
+    public void release(int id) {
+        if (--references[id] > 0) {
+            return;
+        }
+        ids.remove(values[id]);
+        values[id] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = id;
+    }
+
+    /**
+     * Возвращает общий объект лейбла по номеру.
+     *
+     * @param id номер лейбла
+     * @return лейбл или null, если номер свободен
+     */
+    public Label get(int id) {
+        return values[id];
+    }
+
+    /**
+     * Возвращает границу номеров: все выданные номера меньше нее.
+     * Подходит для размера массива, индексируемого номером лейбла.
+     *
+     * @return граница номеров
+     */
+    public int capacity() {
+        return count;
+    }
+
+    /**
+     * Возвращает количество различных лейблов.
+     *
+     * @return количество лейблов
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Удаляет все лейблы.
+     */
+    public void clear() {
+        ids.clear();
+        Arrays.fill(values, 0, count, null);
+        Arrays.fill(references, 0, count, 0);
+        count = 0;
+        freeCount = 0;
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.utility;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица с ключами типа long и значениями типа int без упаковки в объекты.
+ * Использует открытую адресацию с линейным пробированием; ключ 0 зарезервирован
+ * как признак пустой ячейки, поэтому допустимы только ненулевые ключи.
+ */
+public class LongIntHashMap {
+
+    /** Значение, возвращаемое для отсутствующего ключа */
+    public static final int NO_VALUE = -1;
+
+    /** Начальная емкость таблицы */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Ключи таблицы (0 - пустая ячейка) */
+    private long[] keys;
+
+    /** Значения таблицы */
+    private int[] values;
+
+    /** Маска для вычисления номера ячейки */
+    private int mask;
+
+    /** Количество ключей в таблице */
+    private int size;
+
+    /**
+     * Конструктор таблицы с емкостью по умолчанию.
+     */
+    public LongIntHashMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Конструктор таблицы, рассчитанной на заданное количество ключей без перестроения.
+     *
+     * @param expectedSize ожидаемое количество ключей
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     *
+     * @param key ключ
+     * @return значение или {@link #NO_VALUE}, если ключа нет
+     */
+    public int get(long key) {
+        int slot = find(key);
+        return slot < 0 ? NO_VALUE : values[slot];
+    }
+
+    /**
+     * Проверяет наличие ключа.
+     *
+     * @param key ключ
+     * @return true если ключ есть в таблице
+     */
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Записывает значение по ключу.
+     *
+     * @param key ненулевой ключ
+     * @param value значение
+     * @return предыдущее значение или {@link #NO_VALUE}, если ключа не было
+     */
+    public int put(long key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Ключ 0 зарезервирован");
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 4L >= keys.length * 3L) {
+            rehash(keys.length << 1);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Удаляет ключ из таблицы.
+     * Следующие за ним ключи той же цепочки сдвигаются назад, поэтому надгробия не нужны.
+     *
+     * @param key ключ
+     * @return удаленное значение или {@link #NO_VALUE}, если ключа не было
+     */
+    public int remove(long key) {
+        int hole = find(key);
+        if (hole < 0) {
+            return NO_VALUE;
+        }
+        int removed = values[hole];
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == 0) {
+                break;
+            }
+            int home = slot(keys[next]);
+            boolean reachable = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (reachable) {
+                continue;
+            }
+            keys[hole] = keys[next];
+            values[hole] = values[next];
+            hole = next;
+        }
+        keys[hole] = 0;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Возвращает количество ключей.
+     *
+     * @return размер таблицы
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Удаляет все ключи, сохраняя выделенную память.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    /**
+     * Ищет ячейку с ключом.
+     *
+     * @param key ключ
+     * @return номер ячейки или -1
+     */
+    private int find(long key) {
+        if (key == 0) {
+            return -1;
+        }
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Вычисляет исходную ячейку ключа.
+     *
+     * @param key ключ
+     * @return номер ячейки
+     */
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = slot(key);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
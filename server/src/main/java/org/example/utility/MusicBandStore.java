@@ -0,0 +1,436 @@
+package org.example.utility;
+
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Хранилище музыкальных групп с индексом по ID.
+ * Элементы лежат в массиве в порядке добавления, а индекс ID -> ячейка позволяет
+ * искать, заменять и удалять элементы по ID за O(1). Удаленные ячейки остаются пустыми
+ * и уплотняются, когда их становится много или нужен доступ по позиции.
+ * Хранилище возвращает те же объекты групп, что были в него добавлены;
+ * лейбл группы при добавлении заменяется общим объектом из словаря {@link LabelDictionary}.
+ */
+public class MusicBandStore implements BandStore {
+
+    /** Ячейки с элементами в порядке добавления (null - удаленный элемент) */
+    private MusicBand[] slots;
+
+    /** Номера лейблов элементов в словаре лейблов по ячейкам */
+    private int[] labels;
+
+    /** Словарь лейблов элементов */
+    private final LabelDictionary labelDictionary = new LabelDictionary();
+
+    /** Первая занятая ячейка */
+    private int head;
+
+    /** Первая свободная ячейка после последнего элемента */
+    private int tail;
+
+    /** Количество элементов */
+    private int size;
+
+    /** Индекс ID -> номер ячейки */
+    private final LongIntHashMap index;
+
+    /** Наибольший ID, когда-либо добавленный в хранилище */
+    private long maxId;
+
+    /**
+     * Конструктор пустого хранилища.
+     */
+    public MusicBandStore() {
+        this(16);
+    }
+
+    /**
+     * Конструктор хранилища, рассчитанного на заданное количество элементов без перестроения.
+     *
+     * @param expectedSize ожидаемое количество элементов
+     */
+    public MusicBandStore(int expectedSize) {
+        this.slots = new MusicBand[Math.max(16, expectedSize)];
+        this.labels = new int[slots.length];
+        this.index = new LongIntHashMap(expectedSize);
+    }
+
+    /**
+     * Добавляет группу в конец хранилища.
+     *
+     * @param band группа с уникальным положительным ID
+     * @throws IllegalArgumentException если ID не положителен или уже занят
+     */
+    public void add(MusicBand band) {
+        long id = band.getId();
+        if (id <= 0 || index.containsKey(id)) {
+            throw new IllegalArgumentException("Недопустимый ID: " + id);
+        }
+        if (tail == slots.length) {
+            ensureCapacity();
+        }
+        index.put(id, tail);
+        labels[tail] = intern(band);
+        slots[tail++] = band;
+        size++;
+        maxId = Math.max(maxId, id);
+    }
+
+    /**
+     * Возвращает группу по ID.
+     *
+     * @param id ID группы
+     * @return группа или null, если ее нет
+     */
+    public MusicBand getById(long id) {
+        int slot = index.get(id);
+        return slot == LongIntHashMap.NO_VALUE ? null : slots[slot];
+    }
+
+    /**
+     * Проверяет наличие группы с заданным ID.
+     *
+     * @param id ID группы
+     * @return true если группа есть в хранилище
+     */
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    /**
+     * Заменяет группу с заданным ID, сохраняя ее позицию.
+     *
+     * @param id ID заменяемой группы
+     * @param band новые данные группы; ей присваивается тот же ID
+     * @return true если группа была найдена и заменена
+     */
+    public boolean replace(long id, MusicBand band) {
+        int slot = index.get(id);
+        if (slot == LongIntHashMap.NO_VALUE) {
+            return false;
+        }
+        band.setId(id);
+        int previousLabel = labels[slot];
+        labels[slot] = intern(band);
+        labelDictionary.release(previousLabel);
+        slots[slot] = band;
+        return true;
+    }
+
+    /**
+     * Удаляет группу по ID.
+     *
+     * @param id ID группы
+     * @return удаленная группа или null, если ее не было
+     */
+    public MusicBand removeById(long id) {
+        int slot = index.remove(id);
+        if (slot == LongIntHashMap.NO_VALUE) {
+            return null;
+        }
+        MusicBand band = slots[slot];
+        slots[slot] = null;
+        labelDictionary.release(labels[slot]);
+        size--;
+        if (size == 0) {
+            head = 0;
+            tail = 0;
+        } else if (slot == head) {
+            while (slots[head] == null) {
+                head++;
+            }
+        }
+        return band;
+    }
+
+    /**
+     * Удаляет группы по набору ID за один проход по набору.
+     *
+     * @param ids ID удаляемых групп
+     * @return количество удаленных групп
+     */
+    public int removeAll(Collection<Long> ids) {
+        int removed = 0;
+        for (long id : ids) {
+            if (removeById(id) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Возвращает группу по позиции в порядке хранения.
+     *
+     * @param position позиция от 0
+     * @return группа или null, если позиция вне коллекции
+     */
+    public MusicBand getAt(int position) {
+        if (position < 0 || position >= size) {
+            return null;
+        }
+        if (tail - head != size) {
+            compact();
+        }
+        return slots[head + position];
+    }
+
+    /**
+     * Возвращает группы с заданной позиции в порядке хранения.
+     * В отличие от {@link #getAt(int)} не уплотняет хранилище, поэтому безопасен при конкурентном чтении.
+     *
+     * @param offset позиция первой группы от 0
+     * @param limit максимальное количество групп
+     * @return группы страницы (пустой список, если позиция вне коллекции)
+     */
+    public List<MusicBand> range(int offset, int limit) {
+        if (offset < 0 || offset >= size || limit <= 0) {
+            return new ArrayList<>(0);
+        }
+        List<MusicBand> page = new ArrayList<>(Math.min(limit, size - offset));
+        if (tail - head == size) {
+            for (int slot = head + offset; slot < tail && page.size() < limit; slot++) {
+                page.add(slots[slot]);
+            }
+            return page;
+        }
+        int position = 0;
+        for (int slot = head; slot < tail && page.size() < limit; slot++) {
+            if (slots[slot] != null && position++ >= offset) {
+                page.add(slots[slot]);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Удаляет группу по позиции в порядке хранения.
+     *
+     * @param position позиция от 0
+     * @return удаленная группа или null, если позиция вне коллекции
+     */
+    public MusicBand removeAt(int position) {
+        MusicBand band = getAt(position);
+        return band == null ? null : removeById(band.getId());
+    }
+
+    /**
+     * Возвращает первую группу.
+     *
+     * @return первая группа или null, если хранилище пусто
+     */
+    public MusicBand first() {
+        return size == 0 ? null : slots[head];
+    }
+
+    /**
+     * Удаляет первую группу.
+     *
+     * @return удаленная группа или null, если хранилище пусто
+     */
+    public MusicBand removeFirst() {
+        MusicBand band = first();
+        return band == null ? null : removeById(band.getId());
+    }
+
+    /**
+     * Перемешивает элементы хранилища.
+     */
+    public void shuffle() {
+        compact();
+        Random random = ThreadLocalRandom.current();
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            MusicBand band = slots[i];
+            slots[i] = slots[j];
+            slots[j] = band;
+            int label = labels[i];
+            labels[i] = labels[j];
+            labels[j] = label;
+        }
+        reindex();
+    }
+
+    /**
+     * Удаляет все элементы.
+     * Наибольший выданный ID сохраняется, чтобы ID не использовались повторно.
+     */
+    public void clear() {
+        Arrays.fill(slots, head, tail, null);
+        index.clear();
+        labelDictionary.clear();
+        head = 0;
+        tail = 0;
+        size = 0;
+    }
+
+    /**
+     * Возвращает ID, который гарантированно свободен.
+     *
+     * @return наибольший известный ID плюс один
+     */
+    public long nextId() {
+        return maxId + 1;
+    }
+
+    /**
+     * Возвращает количество элементов.
+     *
+     * @return размер хранилища
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пусто ли хранилище.
+     *
+     * @return true если элементов нет
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Возвращает поток элементов в порядке хранения.
+     *
+     * @return поток групп
+     */
+    public Stream<MusicBand> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Возвращает копию ссылок на группы: сами группы хранилище не изменяет, а заменяет.
+     *
+     * @return неизменяемая копия групп
+     */
+    @Override
+    public List<MusicBand> copy() {
+        MusicBand[] copy = new MusicBand[size];
+        if (tail - head == size) {
+            System.arraycopy(slots, head, copy, 0, size);
+        } else {
+            int position = 0;
+            for (int slot = head; slot < tail; slot++) {
+                if (slots[slot] != null) {
+                    copy[position++] = slots[slot];
+                }
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(copy));
+    }
+
+    @Override
+    public Map<Label, List<MusicBand>> groupByLabel() {
+        List<List<MusicBand>> groups = new ArrayList<>(Collections.nCopies(labelDictionary.capacity(), null));
+        for (int slot = head; slot < tail; slot++) {
+            if (slots[slot] != null) {
+                int label = labels[slot];
+                if (groups.get(label) == null) {
+                    groups.set(label, new ArrayList<>());
+                }
+                groups.get(label).add(slots[slot]);
+            }
+        }
+        Map<Label, List<MusicBand>> result = new LinkedHashMap<>();
+        for (int label = 0; label < groups.size(); label++) {
+            if (groups.get(label) != null) {
+                result.put(labelDictionary.get(label), groups.get(label));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Spliterator<MusicBand> spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public Iterator<MusicBand> iterator() {
+        return new Iterator<>() {
+            private int cursor = skipEmpty(head);
+
+            @Override
+            public boolean hasNext() {
+                return cursor < tail;
+            }
+
+            @Override
+            public MusicBand next() {
+                if (cursor >= tail) {
+                    throw new NoSuchElementException();
+                }
+                MusicBand band = slots[cursor];
+                cursor = skipEmpty(cursor + 1);
+                return band;
+            }
+        };
+    }
+
+    private int skipEmpty(int slot) {
+        while (slot < tail && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Освобождает место в конце массива: уплотняет его, если пустых ячеек не меньше половины,
+     * иначе увеличивает вдвое.
+     */
+    private void ensureCapacity() {
+        if (size * 2 <= slots.length) {
+            compact();
+        } else {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+            labels = Arrays.copyOf(labels, slots.length);
+        }
+    }
+
+    /**
+     * Сдвигает элементы в начало массива без пропусков и обновляет индекс.
+     */
+    private void compact() {
+        if (head == 0 && tail == size) {
+            return;
+        }
+        int target = 0;
+        for (int slot = head; slot < tail; slot++) {
+            MusicBand band = slots[slot];
+            if (band != null) {
+                slots[target] = band;
+                labels[target] = labels[slot];
+                index.put(band.getId(), target);
+                target++;
+            }
+        }
+        Arrays.fill(slots, target, tail, null);
+        head = 0;
+        tail = target;
+    }
+
+    /**
+     * Возвращает номер лейбла группы в словаре и заменяет лейбл группы общим объектом.
+     *
+     * @param band группа
+     * @return номер лейбла
+     */
+    private int intern(MusicBand band) {
+        int label = labelDictionary.acquire(band.getLabel());
+        band.setLabel(labelDictionary.get(label));
+        return label;
+    }
+
+    private void reindex() {
+        for (int slot = head; slot < tail; slot++) {
+            index.put(slots[slot].getId(), slot);
+        }
+    }
+}
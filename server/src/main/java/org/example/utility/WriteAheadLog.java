@@ -0,0 +1,254 @@
+package org.example.utility;
+
+import org.example.mainClasses.MusicBand;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал изменений коллекции с момента последнего снимка (write-ahead log).
+ * Файл журнала фиксированного размера отображается в память, поэтому запись изменения -
+ * это копирование нескольких десятков байт без системного вызова, а после падения процесса
+ * записанное остается в страничном кеше. На диск журнал сбрасывается при сохранении снимка
+ * и по вызову {@link #force()}.
+ *
+ * <p>Заголовок: сигнатура (int), поколение (long). Запись: длина тела (int), CRC32 тела (int), тело
+ * (тип, затем группа или ID). За последней записью всегда следует нулевая длина.
+ * Поколение увеличивается при каждом снимке; снимок хранит поколение журнала,
+ * изменения которого в него еще не вошли.</p>
+ *
+ * <p>Не потокобезопасен: вызывается под блокировкой коллекции.</p>
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    /** Сигнатура файла журнала */
+    private static final int MAGIC = 0x4D42574C;
+
+    /** Размер заголовка (байт) */
+    private static final int HEADER_SIZE = 12;
+
+    /** Размер заголовка записи (байт) */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /** Тип записи: группа добавлена или изменена */
+    private static final byte UPSERT = 1;
+
+    /** Тип записи: группа удалена */
+    private static final byte DELETE = 2;
+
+    /** Канал файла журнала */
+    private final FileChannel channel;
+
+    /** Отображение файла в память */
+    private final MappedByteBuffer buffer;
+
+    /** Позиция следующей записи */
+    private int position = HEADER_SIZE;
+
+    /** Количество записей текущего поколения */
+    private int records;
+
+    /**
+     * Открывает журнал, создавая файл заданного размера при необходимости.
+     * Новый файл получает пустой журнал поколения 0.
+     *
+     * @param file файл журнала
+     * @param capacity размер файла (байт)
+     * @return журнал
+     * @throws IOException если файл не удалось открыть или отобразить в память
+     */
+    public static WriteAheadLog open(Path file, int capacity) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file, capacity);
+        if (log.buffer.getInt(0) != MAGIC) {
+            log.buffer.putInt(0, MAGIC);
+            log.reset(0);
+        }
+        return log;
+    }
+
+    /**
+     * Создает пустой журнал заданного поколения; прежнее содержимое файла отбрасывается.
+     *
+     * @param file файл журнала
+     * @param capacity размер файла (байт)
+     * @param generation поколение журнала
+     * @return журнал
+     * @throws IOException если файл не удалось открыть или отобразить в память
+     */
+    public static WriteAheadLog create(Path file, int capacity, long generation) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file, capacity);
+        log.buffer.putInt(0, MAGIC);
+        log.reset(generation);
+        return log;
+    }
+
+    /**
+     * Отображает файл журнала в память; заголовок задают {@link #open(Path, int)}
+     * и {@link #create(Path, int, long)}.
+     */
+    private WriteAheadLog(Path file, int capacity) throws IOException {
+        if (capacity < HEADER_SIZE + RECORD_HEADER_SIZE + 4) {
+            throw new IllegalArgumentException("Слишком маленький журнал: " + capacity);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Возвращает поколение журнала.
+     *
+     * @return поколение
+     */
+    public long getGeneration() {
+        return buffer.getLong(4);
+    }
+
+    /**
+     * Возвращает количество записей текущего поколения.
+     *
+     * @return количество записей
+     */
+    public int getRecords() {
+        return records;
+    }
+
+    /**
+     * Читает записи текущего поколения и устанавливает позицию записи после последней целой записи.
+     * Поврежденная запись и все следующие за ней отбрасываются.
+     *
+     * @param sink получатель записей: ID и группа (null, если группа удалена)
+     * @return количество прочитанных записей
+     */
+    public int replay(BiConsumer<Long, MusicBand> sink) {
+        int offset = HEADER_SIZE;
+        int count = 0;
+        while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(offset + RECORD_HEADER_SIZE, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+                if (in.readByte() == DELETE) {
+                    sink.accept(in.readLong(), null);
+                } else {
+                    MusicBand band = BandRecords.read(in);
+                    sink.accept(band.getId(), band);
+                }
+            } catch (IOException | RuntimeException e) {
+                break;
+            }
+            offset += RECORD_HEADER_SIZE + length;
+            count++;
+        }
+        position = offset;
+        records = count;
+        terminate();
+        return count;
+    }
+
+    /**
+     * Добавляет запись о добавленной или измененной группе.
+     *
+     * @param band группа
+     * @return false если в журнале нет места; тогда нужно сохранить снимок
+     */
+    public boolean upsert(MusicBand band) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(96);
+        DataOutputStream out = new DataOutputStream(body);
+        try {
+            out.writeByte(UPSERT);
+            BandRecords.write(out, band);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return append(body.toByteArray());
+    }
+
+    /**
+     * Добавляет запись об удаленной группе.
+     *
+     * @param id ID группы
+     * @return false если в журнале нет места; тогда нужно сохранить снимок
+     */
+    public boolean delete(long id) {
+        byte[] body = new byte[9];
+        body[0] = DELETE;
+        for (int i = 0; i < 8; i++) {
+            body[1 + i] = (byte) (id >>> (56 - 8 * i));
+        }
+        return append(body);
+    }
+
+    /**
+     * Начинает новое поколение: все записи отбрасываются.
+     * Вызывается после сохранения снимка, который уже содержит эти изменения.
+     *
+     * @param generation новое поколение
+     */
+    public void reset(long generation) {
+        buffer.putLong(4, generation);
+        position = HEADER_SIZE;
+        records = 0;
+        terminate();
+        buffer.force();
+    }
+
+    /**
+     * Сбрасывает журнал на диск.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Сбрасывает журнал на диск и закрывает файл.
+     *
+     * @throws IOException при ошибке закрытия
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private boolean append(byte[] body) {
+        if (position + RECORD_HEADER_SIZE + body.length + 4 > buffer.capacity()) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        buffer.put(position + RECORD_HEADER_SIZE, body);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // Длина пишется последней, а за записью - нулевая длина, поэтому недописанная запись не читается
+        buffer.putInt(position + RECORD_HEADER_SIZE + body.length, 0);
+        buffer.putInt(position, body.length);
+        position += RECORD_HEADER_SIZE + body.length;
+        records++;
+        return true;
+    }
+
+    private void terminate() {
+        if (position + 4 <= buffer.capacity()) {
+            buffer.putInt(position, 0);
+        }
+    }
+}
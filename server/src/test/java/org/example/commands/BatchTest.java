@@ -0,0 +1,151 @@
+package org.example.commands;
+
+import org.example.managers.CommandManager;
+import org.example.managers.SessionManager;
+import org.example.network.LoginError;
+import org.example.network.Request;
+import org.example.network.Response;
+import org.example.network.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки пакетного выполнения запросов {@link Batch}: порядок выполнения и ответов,
+ * проверка сессии вложенных запросов и изоляция ошибок.
+ */
+class BatchTest {
+
+    private final ConcurrentLinkedQueue<String> executed = new ConcurrentLinkedQueue<>();
+
+    private final ScheduledExecutorService delays = Executors.newSingleThreadScheduledExecutor();
+
+    private CommandManager commandManager;
+
+    private SessionManager sessionManager;
+
+    private Batch batch;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        commandManager = new CommandManager();
+        sessionManager = new SessionManager(60_000, 10);
+        commandManager.init(commandManager, null, null, sessionManager);
+        batch = new Batch(commandManager);
+        commandManager.addCommand(batch);
+        commandManager.addCommand(new Command("echo", "echo") {
+            @Override
+            public Response execute(Request request) {
+                executed.add(request.getArgs() + "@" + request.getUser().getLogin());
+                return new Response(true, "echo " + request.getArgs());
+            }
+        });
+        commandManager.addCommand(new Command("slow_echo", "slow_echo") {
+            @Override
+            public Response execute(Request request) {
+                return executeAsync(request).join();
+            }
+
+            @Override
+            public CompletableFuture<Response> executeAsync(Request request) {
+                CompletableFuture<Response> future = new CompletableFuture<>();
+                delays.schedule(() -> {
+                    executed.add(String.valueOf(request.getArgs()));
+                    future.complete(new Response(true, "slow " + request.getArgs()));
+                }, 5, TimeUnit.MILLISECONDS);
+                return future;
+            }
+        });
+        commandManager.addCommand(new Command("fail", "fail") {
+            @Override
+            public Response execute(Request request) {
+                throw new IllegalStateException("сбой");
+            }
+        });
+        user = new User("user", null);
+        user.setToken(sessionManager.open("user"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        delays.shutdownNow();
+        sessionManager.close();
+    }
+
+    @Test
+    void nestedRequestsRunInOrderEvenWhenSomeCompleteLater() {
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(new Request(command(i % 3 == 0 ? "slow_echo" : "echo"), (long) i, user));
+        }
+
+        Response response = commandManager.executeAsync(new Request(batch, requests, user)).join();
+
+        assertEquals("Выполнено команд: 20", response.getResult());
+        List<String> order = executed.stream().map(entry -> entry.replace("@user", "")).toList();
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            assertEquals(String.valueOf(i), order.get(i));
+            results.add((i % 3 == 0 ? "slow " : "echo ") + i);
+        }
+        assertEquals(results, response.getResponses().stream().map(Response::getResult).toList());
+    }
+
+    @Test
+    void failedCommandDoesNotStopTheBatch() {
+        List<Request> requests = List.of(
+                new Request(command("echo"), 1L, user),
+                new Request(command("fail"), user),
+                new Request(batch, List.of(new Request(command("echo"), 2L, user)), user),
+                new Request(command("echo"), 3L, user));
+
+        List<Response> responses = commandManager.execute(new Request(batch, requests, user)).getResponses();
+
+        assertEquals("echo 1", responses.get(0).getResult());
+        assertEquals("Ошибка выполнения команды: сбой", responses.get(1).getResult());
+        assertEquals("Вложенные пакеты не поддерживаются", responses.get(2).getResult());
+        assertEquals("echo 3", responses.get(3).getResult());
+        assertEquals(List.of("1@user", "3@user"), List.copyOf(executed));
+    }
+
+    @Test
+    void batchWithoutSessionIsRejectedWithoutRunningCommands() {
+        User stranger = new User("user", "password");
+        Request request = new Request(batch, List.of(new Request(command("echo"), 1L, stranger)), stranger);
+
+        Response response = commandManager.execute(request);
+
+        assertEquals(LoginError.SESSION_EXPIRED, response.getLoginError());
+        assertTrue(executed.isEmpty());
+    }
+
+    @Test
+    void longBatchOfFastCommands() {
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            requests.add(new Request(command("echo"), (long) i, user));
+        }
+
+        Response response = commandManager.execute(new Request(batch, requests, user));
+
+        assertEquals(10_000, response.getResponses().size());
+        assertEquals("echo 9999", response.getResponses().get(9999).getResult());
+    }
+
+    private Command command(String name) {
+        return commandManager.getCommands().get(name);
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.commands;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.example.managers.CollectionManager;
+import org.example.network.Request;
+import org.example.network.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки синхронизации копии коллекции командой {@link ChangesSince}:
+ * копия, которая применяет полученные изменения так же, как интерфейс клиента,
+ * совпадает с коллекцией сервера.
+ */
+class ChangesSinceTest {
+
+    private CollectionManager manager;
+
+    private ChangesSince command;
+
+    /** Копия коллекции на стороне клиента (ID -> имя) */
+    private final Map<Long, String> replica = new HashMap<>();
+
+    /** Ревизия копии */
+    private long revision;
+
+    @BeforeEach
+    void setUp() {
+        manager = new CollectionManager(null);
+        command = new ChangesSince(manager);
+    }
+
+    @Test
+    void firstSyncIsSnapshotAndLaterSyncsAreDeltas() throws Exception {
+        manager.addAll(List.of(band(1, "a"), band(2, "b")));
+
+        Response first = sync();
+        assertTrue(first.isSnapshot());
+        assertEquals(2, first.getMusicBands().size());
+
+        manager.updateId(1, band(1, "a2"));
+        manager.removeById(2);
+        manager.add(band(3, "c"));
+        Response second = sync();
+
+        assertFalse(second.isSnapshot());
+        assertEquals(2, second.getMusicBands().size());
+        assertEquals(List.of(2L), second.getIds());
+        assertEquals(Map.of(1L, "a2", 3L, "c"), replica);
+    }
+
+    @Test
+    void syncWithoutChangesIsEmpty() throws Exception {
+        manager.add(band(1, "a"));
+        sync();
+
+        Response response = sync();
+
+        assertFalse(response.isSnapshot());
+        assertTrue(response.getMusicBands().isEmpty());
+        assertTrue(response.getIds().isEmpty());
+        assertEquals(manager.getRevision(), revision);
+    }
+
+    @Test
+    void shuffleAndLongAbsenceFallBackToSnapshot() throws Exception {
+        manager.addAll(List.of(band(1, "a"), band(2, "b")));
+        sync();
+        manager.shuffle();
+        assertTrue(sync().isSnapshot());
+
+        for (int i = 0; i < 5000; i++) {
+            manager.updateId(1, band(1, "a" + i));
+        }
+        assertTrue(sync().isSnapshot());
+        assertEquals(Map.of(1L, "a4999", 2L, "b"), replica);
+    }
+
+    @Test
+    void replicaFollowsRandomChanges() throws Exception {
+        Random random = new Random(20240506);
+        List<Long> ids = new ArrayList<>();
+        long nextId = 1;
+        sync();
+        for (int step = 0; step < 3000; step++) {
+            int operation = random.nextInt(10);
+            if (ids.isEmpty() || operation < 4) {
+                manager.add(band(nextId, "band-" + nextId));
+                ids.add(nextId++);
+            } else if (operation < 7) {
+                long id = ids.get(random.nextInt(ids.size()));
+                manager.updateId(id, band(id, "updated-" + step));
+            } else if (operation < 9) {
+                manager.removeById(ids.remove(random.nextInt(ids.size())));
+            } else if (step % 500 == 9) {
+                manager.shuffle();
+            }
+            if (random.nextInt(20) == 0) {
+                sync();
+                assertEquals(server(), replica);
+            }
+        }
+        sync();
+        assertEquals(server(), replica);
+    }
+
+    /**
+     * Запрашивает изменения после ревизии копии и применяет их к копии.
+     */
+    private Response sync() {
+        Response response = command.execute(new Request(command, revision, null));
+        if (response.isSnapshot()) {
+            replica.clear();
+        }
+        for (MusicBand band : response.getMusicBands()) {
+            replica.put(band.getId(), band.getName());
+        }
+        for (long id : response.getIds()) {
+            replica.remove(id);
+        }
+        revision = response.getRevision();
+        return response;
+    }
+
+    private Map<Long, String> server() {
+        Map<Long, String> bands = new HashMap<>();
+        for (MusicBand band : manager.page(0, Integer.MAX_VALUE).bands()) {
+            bands.put(band.getId(), band.getName());
+        }
+        return bands;
+    }
+
+    private static MusicBand band(long id, String name) {
+        return new MusicBand(id, name, new Coordinates(1f, 2), 3, LocalDateTime.now(), MusicGenre.SOUL,
+                new Label("label", 1, 2));
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.commands;
+
+import org.example.network.LoginError;
+import org.example.network.Request;
+import org.example.network.Response;
+import org.example.network.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверки ответов на ошибки входа и регистрации: перегрузкой сообщается только
+ * переполнение пула хеширования, а не любая ошибка проверки учетных данных.
+ */
+class LoginTest {
+
+    @Test
+    void rejectedHashingIsReportedAsOverload() {
+        Response response = Login.failure(new CompletionException(new RejectedExecutionException()), "вход");
+
+        assertEquals(LoginError.LOGIN_ERROR, response.getLoginError());
+        assertEquals("Сервер перегружен, повторите вход", response.getResult());
+    }
+
+    @Test
+    void otherErrorsAreReportedAsServerError() {
+        Response response = Login.failure(new CompletionException(new IllegalStateException("база")), "вход");
+
+        assertEquals(LoginError.LOGIN_ERROR, response.getLoginError());
+        assertEquals("Ошибка сервера, повторите вход", response.getResult());
+    }
+
+    @Test
+    void failedCredentialCheckIsReportedAsServerError() {
+        Login login = new Login(null, null);
+
+        Response response = login.executeAsync(new Request(login, new User("user", "password"))).join();
+
+        assertEquals("Ошибка сервера, повторите вход", response.getResult());
+    }
+
+    @Test
+    void requestWithoutUserIsDenied() {
+        Login login = new Login(null, null);
+        Register register = new Register(null, null);
+
+        assertEquals("Авторизация не прошла", login.execute(new Request(login, null)).getResult());
+        assertEquals("Регистрация не прошла", register.execute(new Request(register, null)).getResult());
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.commands;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.example.managers.CollectionManager;
+import org.example.network.Request;
+import org.example.network.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки постраничного вывода коллекции командой {@link Show}:
+ * клиент, который запрашивает страницы так же, как {@code RequestManager}, получает
+ * каждый элемент ровно один раз.
+ */
+class ShowTest {
+
+    private CollectionManager manager;
+
+    private Show show;
+
+    @BeforeEach
+    void setUp() {
+        manager = new CollectionManager(null);
+        show = new Show(manager);
+    }
+
+    @Test
+    void collectionIsSplitIntoPages() throws Exception {
+        addBands(250);
+
+        Response first = show(0);
+        Response last = show(200);
+
+        assertEquals(LongStream.rangeClosed(1, 100).boxed().toList(), first.getIds());
+        assertEquals(250, first.getTotal());
+        assertTrue(first.getResult().endsWith("Элементы 1-100 из 250"));
+        assertEquals(LongStream.rangeClosed(201, 250).boxed().toList(), last.getIds());
+        assertTrue(last.getResult().endsWith("Элементы 201-250 из 250"));
+    }
+
+    @Test
+    void pagesCoverCollectionAfterRemovals() throws Exception {
+        addBands(250);
+        for (long id = 5; id <= 250; id += 9) {
+            manager.removeById(id);
+        }
+        List<Long> expected = LongStream.rangeClosed(1, 250).filter(id -> id % 9 != 5).boxed().toList();
+
+        List<Long> received = new ArrayList<>();
+        long offset = 0;
+        Response page;
+        do {
+            page = show(offset);
+            received.addAll(page.getIds());
+            offset += page.getIds().size();
+        } while (!page.getIds().isEmpty() && offset < page.getTotal());
+
+        assertEquals(expected, received);
+        assertEquals(expected.size(), page.getTotal());
+    }
+
+    @Test
+    void offsetPastTheEndGivesEmptyPage() throws Exception {
+        addBands(10);
+
+        Response response = show(10);
+
+        assertEquals("Нет элементов с позиции 10, всего элементов: 10", response.getResult());
+        assertTrue(response.getIds().isEmpty());
+        assertEquals(10, response.getTotal());
+        assertTrue(show(Long.MAX_VALUE).getIds().isEmpty());
+    }
+
+    @Test
+    void negativeOffsetAndEmptyCollection() throws Exception {
+        assertEquals("Коллекция пуста!", show(0).getResult());
+
+        addBands(1);
+
+        assertEquals("Позиция не может быть отрицательной", show(-1).getResult());
+        assertEquals(List.of(1L), show.execute(new Request(show, null)).getIds());
+    }
+
+    private Response show(long offset) {
+        return show.execute(new Request(show, offset, null));
+    }
+
+    private void addBands(int count) throws Exception {
+        List<MusicBand> bands = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            bands.add(band(id, "band-" + id));
+        }
+        manager.addAll(bands);
+    }
+
+    private static MusicBand band(long id, String name) {
+        return new MusicBand(id, name, new Coordinates(1f, 2), 3, LocalDateTime.now(), MusicGenre.SOUL,
+                new Label("label", 1, 2));
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.managers;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочная проверка блокировок {@link CollectionManager}: добавления, обновления и удаления
+ * из нескольких потоков одновременно с просмотром коллекции не теряют изменений.
+ */
+class CollectionManagerConcurrencyTest {
+
+    /** Потоки, изменяющие коллекцию */
+    private static final int WRITERS = 8;
+
+    /** Потоки, просматривающие коллекцию */
+    private static final int READERS = 4;
+
+    /** Групп на поток */
+    private static final int BANDS_PER_WRITER = 2000;
+
+    @Test
+    void concurrentWritersDoNotLoseUpdates() throws Exception {
+        CollectionManager manager = new CollectionManager(null);
+        long startRevision = manager.getRevision();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+
+        List<Future<?>> writers = new ArrayList<>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            long firstId = (long) writer * BANDS_PER_WRITER + 1;
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (long id = firstId; id < firstId + BANDS_PER_WRITER; id++) {
+                    manager.add(band(id, "band-" + id));
+                    manager.updateId(id, band(id, "updated-" + id));
+                    if (id % 3 == 0) {
+                        manager.removeById(id);
+                    }
+                }
+                return null;
+            }));
+        }
+        List<Future<?>> readers = new ArrayList<>();
+        for (int reader = 0; reader < READERS; reader++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    CollectionManager.Page page = manager.page(0, 50);
+                    if (page.bands().size() > page.total()) {
+                        errors.add("страница больше коллекции");
+                    }
+                    for (MusicBand band : page.bands()) {
+                        if (band == null || !band.getName().endsWith("-" + band.getId())) {
+                            errors.add("несогласованная группа " + band);
+                        }
+                    }
+                    manager.info();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(errors.isEmpty(), () -> String.join("\n", errors));
+        Set<Long> expected = new HashSet<>();
+        for (long id = 1; id <= (long) WRITERS * BANDS_PER_WRITER; id++) {
+            if (id % 3 != 0) {
+                expected.add(id);
+            }
+        }
+        assertEquals(expected.size(), manager.size());
+        CollectionManager.Page all = manager.page(0, Integer.MAX_VALUE);
+        Set<Long> actual = new HashSet<>();
+        for (MusicBand band : all.bands()) {
+            actual.add(band.getId());
+            assertEquals("updated-" + band.getId(), band.getName());
+        }
+        assertEquals(expected, actual);
+        for (long id : expected) {
+            assertNotNull(manager.getById(id));
+        }
+        long removed = (long) WRITERS * BANDS_PER_WRITER - expected.size();
+        assertEquals(2L * WRITERS * BANDS_PER_WRITER + removed, manager.getRevision() - startRevision);
+    }
+
+    private static MusicBand band(long id, String name) {
+        return new MusicBand(id, name, new Coordinates(1f, 2), 4, LocalDateTime.now(), MusicGenre.BLUES,
+                new Label("label", 1, 10));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.managers;
+
+import org.example.exceptions.DuplicateIdException;
+import org.example.exceptions.InvalidDataException;
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверки {@link CollectionManager} на коллекции в памяти, без базы данных.
+ */
+class CollectionManagerTest {
+
+    private CollectionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new CollectionManager(null);
+    }
+
+    @Test
+    void addAllAddsTheWholeBatch() throws Exception {
+        long revision = manager.getRevision();
+        manager.addAll(List.of(band(1), band(2), band(3)));
+
+        assertEquals(3, manager.size());
+        assertEquals(3, manager.changesSince(revision).upserted().size());
+    }
+
+    @Test
+    void addAllRejectsInvalidBatchWithoutChanges() {
+        MusicBand invalid = band(2, "");
+        long revision = manager.getRevision();
+
+        assertThrows(InvalidDataException.class, () -> manager.addAll(List.of(band(1), invalid)));
+        assertEquals(0, manager.size());
+        assertEquals(revision, manager.getRevision());
+    }
+
+    @Test
+    void addAllRejectsIdAlreadyInCollection() throws Exception {
+        manager.add(band(2));
+        long revision = manager.getRevision();
+
+        DuplicateIdException e = assertThrows(DuplicateIdException.class,
+                () -> manager.addAll(List.of(band(1), band(2))));
+        assertEquals("ID 2 уже есть в коллекции", e.getMessage());
+        assertEquals(1, manager.size());
+        assertNull(manager.getById(1));
+        assertEquals(revision, manager.getRevision());
+    }
+
+    @Test
+    void addAllRejectsRepeatedIdInBatch() {
+        assertThrows(DuplicateIdException.class, () -> manager.addAll(List.of(band(5), band(5))));
+        assertEquals(0, manager.size());
+    }
+
+    static MusicBand band(long id) {
+        return band(id, "band-" + id);
+    }
+
+    static MusicBand band(long id, String name) {
+        return new MusicBand(id, name, new Coordinates(1f, 2), 4, LocalDateTime.now(), MusicGenre.SOUL,
+                new Label("label", 1, 10));
+    }
+}
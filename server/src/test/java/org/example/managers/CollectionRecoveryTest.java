@@ -0,0 +1,184 @@
+package org.example.managers;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.example.utility.BandStore;
+import org.example.utility.ColumnarBandStore;
+import org.example.utility.MusicBandStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки локального восстановления коллекции: повтор журналов после падения процесса,
+ * снимки без блокировки коллекции и отказ от неполной цепочки журналов.
+ * Падение моделируется тем, что журнал не закрывается перед повторным открытием каталога.
+ */
+class CollectionRecoveryTest {
+
+    /** Маленький журнал, чтобы он заполнялся за несколько десятков изменений */
+    private static final int LOG_CAPACITY = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversAfterCrashAcrossFullLogs() throws Exception {
+        CollectionManager manager = new CollectionManager(null, new CollectionRecovery(directory, LOG_CAPACITY));
+        manager.setBands(List.of(band(1, "a"), band(2, "b")));
+        for (long id = 3; id < 300; id++) {
+            manager.add(band(id, "n" + id));
+        }
+        manager.removeById(5);
+        manager.updateId(7, band(7, "updated"));
+        manager.removeAt(0);
+
+        BandStore recovered = new CollectionRecovery(directory, LOG_CAPACITY).load(ColumnarBandStore::new);
+
+        assertNotNull(recovered);
+        assertEquals(dump(manager.page(0, Integer.MAX_VALUE).bands()), dump(recovered.copy()));
+    }
+
+    @Test
+    void crashWhileWritingSnapshotKeepsPreviousSnapshotAndLogs() throws Exception {
+        CollectionRecovery recovery = new CollectionRecovery(directory, LOG_CAPACITY);
+        MusicBandStore bands = new MusicBandStore();
+        bands.add(band(1, "a"));
+        long base = recovery.rotate(true);
+        assertTrue(recovery.writeSnapshot(base, bands.copy()));
+
+        recovery.logUpsert(band(2, "b"));
+        // Поколение начато, а снимок не записан: процесс упал во время записи
+        recovery.rotate(false);
+        recovery.logUpsert(band(3, "c"));
+        recovery.logDelete(1);
+
+        BandStore recovered = new CollectionRecovery(directory, LOG_CAPACITY).load(MusicBandStore::new);
+
+        assertNotNull(recovered);
+        assertEquals("2b,3c,", dump(recovered.copy()));
+    }
+
+    @Test
+    void snapshotWrittenAfterRotationDropsOlderLogs() throws Exception {
+        CollectionRecovery recovery = new CollectionRecovery(directory, LOG_CAPACITY);
+        long base = recovery.rotate(true);
+        assertTrue(recovery.writeSnapshot(base, List.of(band(1, "a"))));
+        recovery.logUpsert(band(2, "b"));
+
+        long next = recovery.rotate(false);
+        recovery.logUpsert(band(3, "c"));
+        assertTrue(recovery.writeSnapshot(next, List.of(band(1, "a"), band(2, "b"))));
+
+        assertEquals(List.of("collection-" + next + ".snapshot", "collection-" + next + ".wal"), files());
+        BandStore recovered = new CollectionRecovery(directory, LOG_CAPACITY).load(MusicBandStore::new);
+        assertNotNull(recovered);
+        assertEquals("1a,2b,3c,", dump(recovered.copy()));
+    }
+
+    @Test
+    void resetWithoutSnapshotFallsBackToDatabase() throws Exception {
+        CollectionRecovery recovery = new CollectionRecovery(directory, LOG_CAPACITY);
+        long base = recovery.rotate(true);
+        assertTrue(recovery.writeSnapshot(base, List.of(band(1, "a"))));
+        // Коллекция очищена или перемешана, а снимок после этого не записан
+        recovery.rotate(true);
+        recovery.logUpsert(band(2, "b"));
+
+        assertNull(new CollectionRecovery(directory, LOG_CAPACITY).load(MusicBandStore::new));
+    }
+
+    @Test
+    void tornRecordAtLogTailIsDropped() throws Exception {
+        CollectionRecovery recovery = new CollectionRecovery(directory, LOG_CAPACITY);
+        long base = recovery.rotate(true);
+        assertTrue(recovery.writeSnapshot(base, List.of(band(1, "a"))));
+        recovery.logUpsert(band(2, "b"));
+        recovery.logUpsert(band(3, "c"));
+
+        try (FileChannel channel = FileChannel.open(directory.resolve("collection-" + base + ".wal"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(LOG_CAPACITY);
+            channel.read(buffer, 0);
+            int offset = 12;
+            int last = offset;
+            while (buffer.getInt(offset) > 0) {
+                last = offset;
+                offset += 8 + buffer.getInt(offset);
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), last + 20);
+        }
+
+        BandStore recovered = new CollectionRecovery(directory, LOG_CAPACITY).load(MusicBandStore::new);
+        assertNotNull(recovered);
+        assertEquals("1a,2b,", dump(recovered.copy()));
+    }
+
+    @Test
+    void closedManagerRecoversFromSnapshotAlone() throws Exception {
+        CollectionManager manager = new CollectionManager(null, new CollectionRecovery(directory, LOG_CAPACITY));
+        manager.setBands(List.of(band(1, "a")));
+        manager.add(band(2, "b"));
+        manager.close();
+
+        assertEquals(1, files().stream().filter(name -> name.endsWith(".snapshot")).count());
+        CollectionManager restarted = new CollectionManager(null, new CollectionRecovery(directory, LOG_CAPACITY));
+        assertEquals(2, restarted.recoverCollection());
+        assertEquals("1a,2b,", dump(restarted.page(0, 10).bands()));
+    }
+
+    @Test
+    void bandWithoutGenreSurvivesSnapshotAndLog() throws Exception {
+        CollectionManager manager = new CollectionManager(null, new CollectionRecovery(directory, LOG_CAPACITY));
+        manager.setBands(List.of(band(1, "a", null)));
+        manager.add(band(2, "b", null));
+
+        BandStore recovered = new CollectionRecovery(directory, LOG_CAPACITY).load(ColumnarBandStore::new);
+
+        assertNotNull(recovered);
+        assertEquals("1a,2b,", dump(recovered.copy()));
+        assertTrue(recovered.stream().allMatch(band -> band.getGenre() == null));
+    }
+
+    private List<String> files() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted(Comparator.naturalOrder()).toList();
+        }
+    }
+
+    private static String dump(List<MusicBand> bands) {
+        StringBuilder result = new StringBuilder();
+        for (MusicBand band : new ArrayList<>(bands)) {
+            result.append(band.getId()).append(band.getName()).append(',');
+        }
+        return result.toString();
+    }
+
+    private static MusicBand band(long id, String name) {
+        return band(id, name, MusicGenre.SOUL);
+    }
+
+    private static MusicBand band(long id, String name, MusicGenre genre) {
+        MusicBand band = new MusicBand(id, name, new Coordinates(1.5f, 2), 3, LocalDateTime.now(), genre,
+                new Label("label-" + name, 1, 2));
+        band.setUserLogin("user");
+        return band;
+    }
+}
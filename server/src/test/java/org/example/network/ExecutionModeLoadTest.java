@@ -0,0 +1,218 @@
+package org.example.network;
+
+import org.example.commands.Command;
+import org.example.commands.Show;
+import org.example.managers.CommandManager;
+import org.example.managers.RunManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Нагрузочное сравнение режимов выполнения команд на запущенном сервере.
+ * Клиенты отправляют запросы конвейером по сокетам, а команда ведет себя как обращение к базе:
+ * ждет свободное соединение пула с таймаутом и блокируется на время запроса.
+ */
+class ExecutionModeLoadTest {
+
+    /** Количество запросов */
+    private static final int REQUESTS = 600;
+
+    /** Количество клиентов */
+    private static final int CLIENTS = 8;
+
+    /** Размер пула потоков режима POOLED, как у сервера по умолчанию */
+    private static final int POOL_SIZE = 3;
+
+    /** Размер пула соединений с базой данных */
+    private static final int CONNECTIONS = 12;
+
+    /** Время запроса к базе данных (мс) */
+    private static final long QUERY_MILLIS = 5;
+
+    /** Таймаут ожидания соединения (мс); меньше времени, за которое пул обработает весь всплеск */
+    private static final long ACQUIRE_TIMEOUT = 100;
+
+    @Test
+    void pooledModeCompletesAllRequests() throws Exception {
+        Result result = run(ExecutionMode.POOLED);
+
+        assertEquals(REQUESTS, result.completed);
+        assertTrue(result.maxConcurrent <= POOL_SIZE);
+    }
+
+    @Test
+    void virtualModeQueuesBurstInsteadOfTimingOut() throws Exception {
+        Result result = run(ExecutionMode.VIRTUAL);
+
+        assertEquals(REQUESTS, result.completed);
+        assertTrue(result.maxConcurrent <= CONNECTIONS, "одновременно выполнялось " + result.maxConcurrent);
+    }
+
+    @Test
+    void virtualModeFallsBackOrUsesVirtualThreads() throws Exception {
+        ExecutorService executor = ExecutionMode.VIRTUAL.newExecutor(POOL_SIZE);
+        try {
+            boolean virtual = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor)
+                    .get(5, TimeUnit.SECONDS).startsWith("request-worker-");
+            assertEquals(!ExecutionMode.virtualThreadsAvailable(), virtual);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void virtualModeIsLimitedByConnectionsNotByPool() throws Exception {
+        assumeTrue(ExecutionMode.virtualThreadsAvailable(), "нужна Java 21");
+        Result pooled = run(ExecutionMode.POOLED);
+        Result virtual = run(ExecutionMode.VIRTUAL);
+
+        assertEquals(REQUESTS, virtual.completed);
+        assertTrue(virtual.throughput() > 2 * pooled.throughput(),
+                "виртуальные потоки должны упираться в пул соединений, а не в пул потоков: "
+                        + virtual.throughput() + " против " + pooled.throughput() + " запросов/с");
+    }
+
+    /**
+     * Запускает сервер в заданном режиме и отправляет ему все запросы.
+     * @return количество успешных ответов, наибольшее число одновременно выполнявшихся команд и время
+     */
+    private static Result run(ExecutionMode mode) throws Exception {
+        Semaphore connections = new Semaphore(CONNECTIONS);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        CommandManager commandManager = new CommandManager();
+        commandManager.addCommand(new Command(new Show(null).getName(), "запрос к базе") {
+            @Override
+            public Response execute(Request request) {
+                maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    if (!connections.tryAcquire(ACQUIRE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                        return new Response("Нет свободного соединения");
+                    }
+                    try {
+                        Thread.sleep(QUERY_MILLIS);
+                    } finally {
+                        connections.release();
+                    }
+                    return new Response("ok");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new Response("прервано");
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        });
+
+        int port;
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        Server server = new Server("localhost", new RunManager(commandManager), port, null, null,
+                mode, POOL_SIZE, CONNECTIONS);
+        Thread serverThread = new Thread(server::run, "test-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Socket> sockets = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                sockets.add(connect(port));
+            }
+            long start = System.nanoTime();
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Socket socket : sockets) {
+                results.add(clients.submit(() -> sendRequests(socket, REQUESTS / CLIENTS)));
+            }
+            int completed = 0;
+            for (Future<Integer> result : results) {
+                completed += result.get(60, TimeUnit.SECONDS);
+            }
+            long nanos = System.nanoTime() - start;
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            return new Result(completed, maxConcurrent.get(), nanos);
+        } finally {
+            clients.shutdownNow();
+            server.stop();
+        }
+    }
+
+    /**
+     * Отправляет запросы конвейером и читает ответы.
+     * @return количество успешных ответов
+     */
+    private static int sendRequests(Socket socket, int count) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        for (int i = 1; i <= count; i++) {
+            FrameCodec.Output frame = FrameCodec.newFrame(i);
+            frame.writeByte(Opcode.fromName(new Show(null).getName()).getCode());
+            frame.writeBoolean(false);
+            frame.writeByte(ProtocolCodec.ARG_NONE);
+            frame.writeBoolean(false);
+            frame.writeInt(-1);
+            frame.writeInt(-1);
+            ByteBuffer buffer = frame.toFrame();
+            out.write(buffer.array(), 0, buffer.limit());
+        }
+        out.flush();
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        int completed = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            if ("ok".equals(FrameCodec.openFrame(body).readString())) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    private static Socket connect(int port) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress("localhost", port), 1000);
+                socket.setSoTimeout(60000);
+                return socket;
+            } catch (IOException e) {
+                socket.close();
+                if (attempt == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private record Result(int completed, int maxConcurrent, long nanos) {
+
+        long throughput() {
+            return completed * TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+    }
+}
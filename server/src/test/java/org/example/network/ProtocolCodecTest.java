@@ -0,0 +1,229 @@
+package org.example.network;
+
+import org.example.commands.Batch;
+import org.example.commands.Command;
+import org.example.commands.Show;
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки бинарного протокола на стороне сервера: запросы в формате клиента декодируются
+ * без потерь, а ответы кодируются в формате, который читает клиент.
+ */
+class ProtocolCodecTest {
+
+    private final Show show = new Show(null);
+
+    private final Batch batch = new Batch(null);
+
+    private final ProtocolCodec codec = new ProtocolCodec(Map.<String, Command>of(
+            show.getName(), show, batch.getName(), batch));
+
+    @Test
+    void bandRoundTrip() throws IOException {
+        MusicBand band = band(42, "Кино");
+        band.setEstablishmentDate(new Date(123456789000L));
+
+        FrameCodec.Output out = FrameCodec.newFrame(1);
+        ProtocolCodec.writeBand(out, band);
+        MusicBand decoded = ProtocolCodec.readBand(open(out.toFrame()));
+
+        assertEquals(band.toString(), decoded.toString());
+        assertEquals(band.getCreationDateTime(), decoded.getCreationDateTime());
+        assertEquals(band.getEstablishmentDate(), decoded.getEstablishmentDate());
+        assertEquals(band.getLabel(), decoded.getLabel());
+        assertEquals("user", decoded.getUserLogin());
+    }
+
+    @Test
+    void decodesClientRequest() throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(7);
+        out.writeByte(Opcode.fromName(show.getName()).getCode());
+        writeUser(out, "user", null, "token");
+        out.writeByte(ProtocolCodec.ARG_LONG);
+        out.writeLong(100);
+        out.writeBoolean(true);
+        ProtocolCodec.writeBand(out, band(3, "band"));
+        out.writeInt(-1);
+        out.writeInt(-1);
+
+        FrameCodec.Input in = open(out.toFrame());
+        Request request = codec.decodeRequest(in);
+
+        assertEquals(7, in.getCorrelationId());
+        assertSame(show, request.getCommand());
+        assertEquals(100L, request.getArgs());
+        assertEquals(3, request.getMusicBand().getId());
+        assertEquals("user", request.getUser().getLogin());
+        assertNull(request.getUser().getPassword());
+        assertEquals("token", request.getUser().getToken());
+        assertNull(request.getRequests());
+    }
+
+    @Test
+    void decodesBatchWithUserOfTheBatch() throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(8);
+        out.writeByte(Opcode.fromName(batch.getName()).getCode());
+        writeUser(out, "user", "password", null);
+        writeEmptyBody(out);
+        out.writeInt(3);
+        for (long offset = 0; offset < 3; offset++) {
+            out.writeByte(Opcode.fromName(show.getName()).getCode());
+            out.writeByte(ProtocolCodec.ARG_LONG);
+            out.writeLong(offset * 50);
+            out.writeBoolean(false);
+            out.writeInt(-1);
+        }
+
+        Request request = codec.decodeRequest(open(out.toFrame()));
+
+        assertSame(batch, request.getCommand());
+        assertEquals(3, request.getRequests().size());
+        for (int i = 0; i < 3; i++) {
+            Request nested = request.getRequests().get(i);
+            assertSame(show, nested.getCommand());
+            assertEquals(i * 50L, nested.getArgs());
+            assertSame(request.getUser(), nested.getUser());
+        }
+    }
+
+    @Test
+    void unknownOpcodeGivesRequestWithoutCommand() throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(9);
+        out.writeByte(120);
+        out.writeBoolean(false);
+        writeEmptyBody(out);
+        out.writeInt(-1);
+
+        Request request = codec.decodeRequest(open(out.toFrame()));
+
+        assertNull(request.getCommand());
+        assertNull(request.getUser());
+    }
+
+    @Test
+    void rejectsOversizedBatch() throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(10);
+        out.writeByte(Opcode.fromName(batch.getName()).getCode());
+        out.writeBoolean(false);
+        writeEmptyBody(out);
+        out.writeInt(ProtocolCodec.MAX_BATCH_SIZE + 1);
+
+        FrameCodec.Input in = open(out.toFrame());
+        assertThrows(IOException.class, () -> codec.decodeRequest(in));
+    }
+
+    @Test
+    void rejectsOtherProtocolVersion() throws IOException {
+        ByteBuffer frame = FrameCodec.newFrame(11).toFrame();
+        byte[] body = body(frame);
+        body[0] = (byte) (FrameCodec.PROTOCOL_VERSION + 1);
+
+        assertThrows(IOException.class, () -> FrameCodec.openFrame(body));
+    }
+
+    @Test
+    void encodesResponseInClientFormat() throws IOException {
+        List<MusicBand> bands = List.of(band(1, "a"), band(2, "b"));
+        Response nested = new Response(true, "вложенный");
+        Response response = new Response(15, true, bands, List.of(7L, 8L));
+
+        FrameCodec.Input in = open(codec.encodeResponse(12, response));
+        assertEquals(12, in.getCorrelationId());
+        assertEquals(FrameCodec.KIND_MESSAGE, in.getKind());
+        assertEquals(response.getResult(), in.readString());
+        assertNull(in.readString());
+        assertEquals(-1, in.readByte());
+        in.readBoolean();
+        assertEquals(15, in.readLong());
+        assertTrue(in.readBoolean());
+        assertEquals(2, in.readInt());
+        assertEquals("a", ProtocolCodec.readBand(in).getName());
+        assertEquals("b", ProtocolCodec.readBand(in).getName());
+        assertEquals(2, in.readInt());
+        assertEquals(7, in.readLong());
+        assertEquals(8, in.readLong());
+        in.readLong();
+        assertEquals(-1, in.readInt());
+        assertEquals(0, in.available());
+
+        Response withNested = new Response(true, "пакет", List.of(nested));
+        FrameCodec.Input batchIn = open(codec.encodeResponse(13, withNested));
+        skipResponseHeader(batchIn);
+        assertEquals(1, batchIn.readInt());
+        assertEquals("вложенный", batchIn.readString());
+    }
+
+    @Test
+    void streamHeaderCarriesResultWithoutLines() throws IOException {
+        Response response = new Response("Элементов: 2", List.of("a", "b").stream());
+
+        FrameCodec.Input in = open(codec.encodeStreamHeader(14, response));
+
+        assertEquals(FrameCodec.KIND_STREAM, in.getKind());
+        assertEquals("Элементов: 2", in.readString());
+    }
+
+    private static void skipResponseHeader(FrameCodec.Input in) throws IOException {
+        in.readString();
+        in.readString();
+        in.readByte();
+        in.readBoolean();
+        in.readLong();
+        in.readBoolean();
+        List<Integer> counts = new ArrayList<>();
+        counts.add(in.readInt());
+        counts.add(in.readInt());
+        in.readLong();
+        assertEquals(List.of(-1, -1), counts);
+    }
+
+    private static void writeUser(FrameCodec.Output out, String login, String password, String token)
+            throws IOException {
+        out.writeBoolean(true);
+        out.writeString(login);
+        out.writeString(password);
+        out.writeString(token);
+    }
+
+    private static void writeEmptyBody(FrameCodec.Output out) throws IOException {
+        out.writeByte(ProtocolCodec.ARG_NONE);
+        out.writeBoolean(false);
+        out.writeInt(-1);
+    }
+
+    private static FrameCodec.Input open(ByteBuffer frame) throws IOException {
+        return FrameCodec.openFrame(body(frame));
+    }
+
+    private static byte[] body(ByteBuffer frame) {
+        byte[] body = new byte[frame.remaining() - FrameCodec.HEADER_SIZE];
+        frame.position(frame.position() + FrameCodec.HEADER_SIZE);
+        frame.get(body);
+        return body;
+    }
+
+    private static MusicBand band(long id, String name) {
+        MusicBand band = new MusicBand(id, name, new Coordinates(1.5f, 2), 4,
+                LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123456789), MusicGenre.HIP_HOP, new Label("label", 3, 1000));
+        band.setUserLogin("user");
+        return band;
+    }
+}
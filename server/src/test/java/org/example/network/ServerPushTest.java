@@ -0,0 +1,257 @@
+package org.example.network;
+
+import org.example.commands.Subscribe;
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.example.managers.CollectionManager;
+import org.example.managers.CommandManager;
+import org.example.managers.RunManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки рассылки изменений коллекции подписанным клиентам на запущенном сервере.
+ * Клиенты подключаются сокетом и разбирают кадры сами, как это делает клиентское приложение.
+ */
+class ServerPushTest {
+
+    private CollectionManager collectionManager;
+
+    private Server server;
+
+    private int port;
+
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        CommandManager commandManager = new CommandManager();
+        commandManager.addCommand(new Subscribe());
+        collectionManager = new CollectionManager(null);
+        server = new Server("localhost", new RunManager(commandManager), port, null, collectionManager);
+        Thread serverThread = new Thread(server::run, "test-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        server.stop();
+    }
+
+    @Test
+    void subscriberReceivesChangesInRevisionOrder() throws Exception {
+        DataInputStream in = subscribe(connect(0));
+        long revision = collectionManager.getRevision();
+
+        collectionManager.add(band(1, "a"));
+        collectionManager.updateId(1, band(1, "b"));
+        collectionManager.removeById(1);
+
+        Push added = readPush(in);
+        Push updated = readPush(in);
+        Push removed = readPush(in);
+        assertEquals(List.of(revision + 1, revision + 2, revision + 3),
+                List.of(added.revision, updated.revision, removed.revision));
+        assertEquals(List.of("a"), added.names);
+        assertEquals(List.of("b"), updated.names);
+        assertEquals(List.of(1L), removed.deleted);
+        assertFalse(removed.snapshot);
+    }
+
+    @Test
+    void shuffleIsPushedAsSnapshotMarker() throws Exception {
+        collectionManager.addAll(List.of(band(1, "a"), band(2, "b")));
+        DataInputStream in = subscribe(connect(0));
+
+        collectionManager.shuffle();
+
+        Push push = readPush(in);
+        assertTrue(push.snapshot);
+        assertEquals(collectionManager.getRevision(), push.revision);
+    }
+
+    /**
+     * Нагрузочная проверка: изменения из нескольких потоков доходят до всех подписчиков
+     * без пропусков и по порядку ревизий, а подписчик, который не читает уведомления,
+     * отключается и не задерживает остальных.
+     * Изменения идут с паузами, как от потока запросов клиентов: без пауз коллекция меняется
+     * быстрее, чем сервер успевает отправлять уведомления, и отключаются все подписчики.
+     */
+    @Test
+    void slowSubscriberIsDisconnectedWhileOthersReceiveEveryChange() throws Exception {
+        int subscribers = 4;
+        int writers = 4;
+        int changesPerWriter = 4000;
+        int total = writers * changesPerWriter;
+        String longName = "x".repeat(1000);
+
+        List<DataInputStream> fast = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            fast.add(subscribe(connect(0)));
+        }
+        DataInputStream slow = subscribe(connect(4096));
+        long start = collectionManager.getRevision();
+
+        ExecutorService executor = Executors.newFixedThreadPool(subscribers + writers);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (DataInputStream in : fast) {
+                readers.add(executor.submit(() -> {
+                    long expected = start + 1;
+                    for (int i = 0; i < total; i++) {
+                        Push push = readPush(in);
+                        if (push.revision != expected++) {
+                            return -1;
+                        }
+                    }
+                    return total;
+                }));
+            }
+            List<Future<?>> changes = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                long firstId = (long) writer * changesPerWriter + 1;
+                changes.add(executor.submit(() -> {
+                    for (long id = firstId; id < firstId + changesPerWriter; id++) {
+                        collectionManager.add(band(id, longName + id));
+                        if (id % 2 == 0) {
+                            Thread.sleep(1);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> change : changes) {
+                change.get(60, TimeUnit.SECONDS);
+            }
+            for (Future<Integer> reader : readers) {
+                assertEquals(total, reader.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int received = 0;
+        try {
+            while (true) {
+                readPush(slow);
+                received++;
+            }
+        } catch (EOFException | SocketException e) {
+            // соединение закрыто сервером
+        }
+        assertTrue(received < total, "медленный подписчик получил все " + received + " уведомлений");
+    }
+
+    private Socket connect(int receiveBuffer) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            Socket socket = new Socket();
+            if (receiveBuffer > 0) {
+                socket.setReceiveBufferSize(receiveBuffer);
+            }
+            try {
+                socket.connect(new InetSocketAddress("localhost", port), 1000);
+                socket.setSoTimeout(60000);
+                sockets.add(socket);
+                return socket;
+            } catch (IOException e) {
+                socket.close();
+                if (attempt == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    /**
+     * Отправляет запрос подписки и ждет ответ на него.
+     */
+    private static DataInputStream subscribe(Socket socket) throws IOException {
+        FrameCodec.Output out = FrameCodec.newFrame(1);
+        out.writeByte(Opcode.fromName(new Subscribe().getName()).getCode());
+        out.writeBoolean(false);
+        out.writeByte(ProtocolCodec.ARG_NONE);
+        out.writeBoolean(false);
+        out.writeInt(-1);
+        out.writeInt(-1);
+        ByteBuffer frame = out.toFrame();
+        socket.getOutputStream().write(frame.array(), 0, frame.limit());
+        socket.getOutputStream().flush();
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        FrameCodec.Input response = readFrame(in);
+        assertEquals(1, response.getCorrelationId());
+        assertEquals("Подписка на изменения оформлена", response.readString());
+        return in;
+    }
+
+    private static Push readPush(DataInputStream in) throws IOException {
+        FrameCodec.Input frame = readFrame(in);
+        assertEquals(FrameCodec.PUSH_CORRELATION_ID, frame.getCorrelationId());
+        frame.readString();
+        frame.readString();
+        frame.readByte();
+        frame.readBoolean();
+        long revision = frame.readLong();
+        boolean snapshot = frame.readBoolean();
+        List<String> names = new ArrayList<>();
+        for (int i = frame.readInt(); i > 0; i--) {
+            names.add(ProtocolCodec.readBand(frame).getName());
+        }
+        List<Long> deleted = new ArrayList<>();
+        for (int i = frame.readInt(); i > 0; i--) {
+            deleted.add(frame.readLong());
+        }
+        return new Push(revision, snapshot, names, deleted);
+    }
+
+    private static FrameCodec.Input readFrame(DataInputStream in) throws IOException {
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return FrameCodec.openFrame(body);
+    }
+
+    private static MusicBand band(long id, String name) {
+        MusicBand band = new MusicBand(id, name, new Coordinates(1f, 2), 3, LocalDateTime.now(), MusicGenre.SOUL,
+                new Label("label", 1, 2));
+        band.setUserLogin("user");
+        return band;
+    }
+
+    /**
+     * Разобранное уведомление.
+     */
+    private record Push(long revision, boolean snapshot, List<String> names, List<Long> deleted) {
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.utility;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Общие проверки реализаций {@link BandStore}.
+ */
+class BandStoreTest {
+
+    static Stream<Arguments> stores() {
+        return Stream.of(
+                Arguments.of("objects", (Supplier<BandStore>) MusicBandStore::new),
+                Arguments.of("columnar", (Supplier<BandStore>) ColumnarBandStore::new));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void copyIsIndependentOfLaterChanges(String name, Supplier<BandStore> factory) {
+        BandStore store = factory.get();
+        for (long id = 1; id <= 100; id++) {
+            store.add(band(id, "label-" + id % 3));
+        }
+        for (long id = 2; id <= 100; id += 2) {
+            store.removeById(id);
+        }
+        List<Long> expected = store.stream().map(MusicBand::getId).toList();
+
+        List<MusicBand> copy = store.copy();
+        store.replace(1, band(1, "other"));
+        store.removeById(3);
+        store.clear();
+
+        assertEquals(expected, copy.stream().map(MusicBand::getId).toList());
+        assertEquals("label-1", copy.get(0).getLabelName());
+        assertThrows(UnsupportedOperationException.class, () -> copy.set(0, band(500, "x")));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void rangePagesFollowStorageOrderAcrossRemovals(String name, Supplier<BandStore> factory) {
+        BandStore store = factory.get();
+        for (long id = 1; id <= 250; id++) {
+            store.add(band(id, "label"));
+        }
+        assertEquals(List.of(1L, 2L, 3L), ids(store.range(0, 3)));
+        assertEquals(List.of(249L, 250L), ids(store.range(248, 10)));
+
+        store.removeAt(0);
+        for (long id = 10; id <= 250; id += 7) {
+            store.removeById(id);
+        }
+        List<Long> expected = store.stream().map(MusicBand::getId).toList();
+
+        List<Long> paged = new ArrayList<>();
+        for (int offset = 0; offset < store.size(); offset += 40) {
+            List<MusicBand> page = store.range(offset, 40);
+            assertEquals(Math.min(40, store.size() - offset), page.size());
+            paged.addAll(ids(page));
+        }
+        assertEquals(expected, paged);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("stores")
+    void rangeOutsideCollectionIsEmpty(String name, Supplier<BandStore> factory) {
+        BandStore store = factory.get();
+        assertTrue(store.range(0, 10).isEmpty());
+        store.add(band(1, "label"));
+
+        assertTrue(store.range(1, 10).isEmpty());
+        assertTrue(store.range(-1, 10).isEmpty());
+        assertTrue(store.range(0, 0).isEmpty());
+    }
+
+    private static List<Long> ids(List<MusicBand> bands) {
+        return bands.stream().map(MusicBand::getId).toList();
+    }
+
+    private static MusicBand band(long id, String label) {
+        MusicBand band = new MusicBand(id, "band-" + id, new Coordinates(1f, 2), 3, LocalDateTime.now(),
+                MusicGenre.BLUES, new Label(label, 1, 2));
+        band.setUserLogin("user");
+        return band;
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.utility;
+
+import org.example.mainClasses.Coordinates;
+import org.example.mainClasses.Label;
+import org.example.mainClasses.MusicBand;
+import org.example.mainClasses.MusicGenre;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки {@link ChangeLog}: разница по ревизии, сворачивание изменений одной группы
+ * и полный снимок, когда разницу построить нельзя.
+ */
+class ChangeLogTest {
+
+    @Test
+    void deltaContainsOnlyChangesAfterRevision() {
+        ChangeLog log = new ChangeLog(16);
+        log.upsert(band(1, "a"));
+        long since = log.getRevision();
+        log.upsert(band(2, "b"));
+        log.delete(1);
+
+        ChangeLog.Delta delta = log.changesSince(since);
+
+        assertFalse(delta.snapshot());
+        assertEquals(since + 2, delta.revision());
+        assertEquals(List.of(2L), ids(delta.upserted()));
+        assertEquals(List.of(1L), delta.deleted());
+    }
+
+    @Test
+    void repeatedChangesOfOneBandCollapseToTheLast() {
+        ChangeLog log = new ChangeLog(16);
+        long since = log.getRevision();
+        log.upsert(band(1, "first"));
+        log.upsert(band(1, "second"));
+        log.delete(2);
+        log.upsert(band(2, "restored"));
+
+        ChangeLog.Delta delta = log.changesSince(since);
+
+        assertEquals(List.of("second", "restored"), delta.upserted().stream().map(MusicBand::getName).toList());
+        assertTrue(delta.deleted().isEmpty());
+    }
+
+    @Test
+    void currentRevisionGivesEmptyDelta() {
+        ChangeLog log = new ChangeLog(16);
+        log.upsert(band(1, "a"));
+
+        ChangeLog.Delta delta = log.changesSince(log.getRevision());
+
+        assertTrue(delta.upserted().isEmpty());
+        assertTrue(delta.deleted().isEmpty());
+    }
+
+    @Test
+    void revisionOlderThanBufferNeedsSnapshot() {
+        ChangeLog log = new ChangeLog(4);
+        long since = log.getRevision();
+        log.upsert(band(1, "a"));
+        long recent = log.getRevision();
+        for (long id = 2; id <= 5; id++) {
+            log.upsert(band(id, "n"));
+        }
+
+        assertNull(log.changesSince(since));
+        assertEquals(List.of(2L, 3L, 4L, 5L), ids(log.changesSince(recent).upserted()));
+    }
+
+    @Test
+    void unknownRevisionNeedsSnapshot() {
+        ChangeLog log = new ChangeLog(16);
+        log.upsert(band(1, "a"));
+
+        assertNull(log.changesSince(log.getRevision() + 1));
+        assertNull(log.changesSince(0));
+    }
+
+    @Test
+    void resetDropsDeltasAndNotifiesListener() {
+        ChangeLog log = new ChangeLog(16);
+        List<ChangeLog.Delta> changes = new ArrayList<>();
+        log.setListener(changes::add);
+        log.upsert(band(1, "a"));
+        long since = log.getRevision();
+        log.delete(1);
+        log.reset();
+
+        assertNull(log.changesSince(since));
+        assertEquals(3, changes.size());
+        assertEquals(List.of(1L), changes.get(1).deleted());
+        assertTrue(changes.get(2).snapshot());
+        assertEquals(log.getRevision(), changes.get(2).revision());
+        assertEquals(since + 1, changes.get(1).revision());
+    }
+
+    private static List<Long> ids(List<MusicBand> bands) {
+        return bands.stream().map(MusicBand::getId).toList();
+    }
+
+    private static MusicBand band(long id, String name) {
+        return new MusicBand(id, name, new Coordinates(1f, 2), 3, LocalDateTime.now(), MusicGenre.BLUES,
+                new Label("label", 1, 2));
+    }
+}